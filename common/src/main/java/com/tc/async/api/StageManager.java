@@ -23,6 +23,7 @@ import com.tc.stats.Stats;
 import com.tc.text.PrettyPrintable;
 
 import java.util.List;
+import java.util.Map;
 
 
 public interface StageManager extends PrettyPrintable {
@@ -43,5 +44,11 @@ public interface StageManager extends PrettyPrintable {
 
   public Stats[] getStats();
 
+  /**
+   * Queue wait and service time percentiles, in microseconds, for every monitored stage and each of its queues.  
+   * Empty unless stage monitoring is enabled.
+   */
+  public Map<String, Map<String, Long>> getLatencyStatistics();
+
   public void cleanup();
 }
@@ -18,6 +18,7 @@
  */
 package com.tc.async.api;
 
+import com.tc.stats.LatencyHistogram;
 import com.tc.stats.Stats;
 
 public interface StageQueueStats extends Stats {
@@ -25,4 +26,14 @@ public interface StageQueueStats extends Stats {
   String getName();
 
   int getDepth();
+
+  /**
+   * @return time contexts spent queued before a worker picked them up, null if the queue is not monitored
+   */
+  LatencyHistogram getWaitTimes();
+
+  /**
+   * @return time spent handling contexts, null if the queue is not monitored
+   */
+  LatencyHistogram getServiceTimes();
 }
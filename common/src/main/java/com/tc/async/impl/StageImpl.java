@@ -24,14 +24,18 @@ import com.tc.async.api.EventHandlerException;
 import com.tc.async.api.Sink;
 import com.tc.async.api.Source;
 import com.tc.async.api.Stage;
+import com.tc.async.api.StageQueueStats;
 import com.tc.exception.TCNotRunningException;
 import com.tc.exception.TCRuntimeException;
 import com.tc.logging.TCLogger;
 import com.tc.logging.TCLoggerProvider;
+import com.tc.properties.TCPropertiesConsts;
 import com.tc.properties.TCPropertiesImpl;
 import com.tc.text.PrettyPrinter;
+import com.tc.util.concurrent.AdaptiveSpinner;
 import com.tc.util.concurrent.QueueFactory;
 import com.tc.util.concurrent.ThreadUtil;
+import com.tc.util.concurrent.VirtualThreads;
 
 /**
  * The SEDA Stage
@@ -47,6 +51,8 @@ public class StageImpl<EC> implements Stage<EC> {
   private final TCLogger       logger;
   private final int            sleepMs;
   private final boolean        pausable;
+  private final int            busyPollSpins;
+  private final boolean        virtualThreads;
 
   private volatile boolean     paused;
   private volatile boolean     shutdown = true;
@@ -79,6 +85,33 @@ public class StageImpl<EC> implements Stage<EC> {
     if (this.pausable) {
       logger.warn("Stage pausing is enabled for stage " + name);
     }
+    this.virtualThreads = usesVirtualThreads(name);
+    if (this.virtualThreads) {
+      if (VirtualThreads.isSupported()) {
+        logger.info("Using virtual worker threads for stage " + name);
+      } else {
+        logger.warn("Virtual threads requested for stage " + name + " but this JVM has none, using platform threads");
+      }
+    }
+    int defaultSpins = TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.SEDA_BUSYPOLL_SPINS, 0);
+    int spins = TCPropertiesImpl.getProperties().getInt("seda." + name + ".busypoll.spins", defaultSpins);
+    if (spins > 0 && this.virtualThreads) {
+      // a spinning virtual thread holds its carrier, starving the other virtual workers
+      logger.warn("Busy polling is disabled for stage " + name + " because its workers run on virtual threads");
+      spins = 0;
+    }
+    this.busyPollSpins = spins;
+    if (this.busyPollSpins > 0) {
+      logger.info("Busy polling up to " + this.busyPollSpins + " times before blocking for stage " + name);
+    }
+  }
+
+  /**
+   * @return true if the workers of the named stage are configured to run on virtual threads
+   */
+  static boolean usesVirtualThreads(String name) {
+    boolean defaultVirtual = TCPropertiesImpl.getProperties().getBoolean(TCPropertiesConsts.SEDA_STAGE_VIRTUAL_THREADS, false);
+    return TCPropertiesImpl.getProperties().getBoolean("seda." + name + ".virtualthreads", defaultVirtual);
   }
 
   @Override
@@ -105,6 +138,10 @@ public class StageImpl<EC> implements Stage<EC> {
     return stageQueue;
   }
 
+  public StageQueueStats[] getQueueStats() {
+    return stageQueue.getQueueStats();
+  }
+
   @Override
   public int pause() {
     paused = true;
@@ -125,15 +162,15 @@ public class StageImpl<EC> implements Stage<EC> {
         threadName = threadName + ")";
       }
       threads[i] = new WorkerThread<EC>(threadName, this.stageQueue.getSource(i), handler, group, logger, sleepMs, pausable, name);
-      threads[i].start();
+      threads[i].thread.start();
     }
   }
 
   private void stopThreads() {
-    for (WorkerThread<EC> thread : threads) {
-      thread.interrupt();
+    for (WorkerThread<EC> worker : threads) {
+      worker.thread.interrupt();
       try {
-        thread.join();
+        worker.thread.join();
       } catch (InterruptedException ie) {
         throw new RuntimeException(ie);
       }
@@ -150,18 +187,22 @@ public class StageImpl<EC> implements Stage<EC> {
     return "StageImpl(" + name + ")";
   }
 
-  private class WorkerThread<EC> extends Thread {
+  /**
+   * One worker per queue, run on either a platform or a virtual thread, so events of a queue stay in order.
+   */
+  private class WorkerThread<EC> implements Runnable {
+    private final Thread       thread;
     private final Source<ContextWrapper<EC>>       source;
     private final EventHandler<EC> handler;
     private final TCLogger     tcLogger;
     private final int          sleepMs;
     private final boolean      pausable;
     private final String       stageName;
+    private final AdaptiveSpinner spinner = new AdaptiveSpinner(busyPollSpins);
 
     public WorkerThread(String name, Source<ContextWrapper<EC>> source, EventHandler<EC> handler, ThreadGroup group, TCLogger logger, int sleepMs, boolean pausable, String stageName) {
-      super(group, name);
+      this.thread = VirtualThreads.newThread(virtualThreads, group, name, this);
       tcLogger = logger;
-      setDaemon(true);
       this.source = source;
       this.handler = handler;
       this.sleepMs = sleepMs;
@@ -181,12 +222,31 @@ public class StageImpl<EC> implements Stage<EC> {
       }
     }
 
+    private ContextWrapper<EC> pollSpinning() throws InterruptedException {
+      int spins = spinner.getSpins();
+      for (int i = 0; i < spins; i++) {
+        if (!source.isEmpty()) {
+          ContextWrapper<EC> ctxt = source.poll(0);
+          if (ctxt != null) {
+            spinner.found(i);
+            return ctxt;
+          }
+        }
+        if (shutdown || Thread.currentThread().isInterrupted()) {
+          break;
+        }
+        spinner.idle(i);
+      }
+      spinner.parked(spins);
+      return source.poll(pollTime);
+    }
+
     @Override
     public void run() {
       while (!shutdown || !source.isEmpty()) {
         ContextWrapper<EC> ctxt = null;
         try {
-          ctxt = source.poll(pollTime);
+          ctxt = spinner.isEnabled() ? pollSpinning() : source.poll(pollTime);
           if (ctxt != null) {
             handleStageDebugPauses();
             ctxt.runWithHandler(handler);
@@ -227,6 +287,13 @@ public class StageImpl<EC> implements Stage<EC> {
   @Override
   public PrettyPrinter prettyPrint(PrettyPrinter out) {
     out.print("Queue depth: " + getSink().size() + " " + this.name);
+    if (this.busyPollSpins > 0) {
+      for (WorkerThread<EC> worker : this.threads) {
+        if (worker != null) {
+          out.duplicateAndIndent().indent().print(worker.thread.getName() + " busy poll: " + worker.spinner).flush();
+        }
+      }
+    }
     return out;
   }
 
@@ -23,23 +23,29 @@ import com.tc.async.api.EventHandler;
 import com.tc.async.api.PostInit;
 import com.tc.async.api.Stage;
 import com.tc.async.api.StageManager;
+import com.tc.async.api.StageQueueStats;
 import com.tc.logging.DefaultLoggerProvider;
 import com.tc.logging.TCLogger;
 import com.tc.logging.TCLoggerProvider;
 import com.tc.properties.TCPropertiesConsts;
 import com.tc.properties.TCPropertiesImpl;
+import com.tc.stats.LatencyHistogram;
 import com.tc.stats.Stats;
 import com.tc.text.PrettyPrinter;
 import com.tc.util.Assert;
 import com.tc.util.concurrent.QueueFactory;
 import com.tc.util.concurrent.ThreadUtil;
+import com.tc.util.concurrent.VirtualThreads;
 
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author steve
@@ -50,6 +56,8 @@ public class StageManagerImpl implements StageManager {
                                                      .getBoolean(TCPropertiesConsts.TC_STAGE_MONITOR_ENABLED);
   private static final long        MONITOR_DELAY = TCPropertiesImpl.getProperties()
                                                      .getLong(TCPropertiesConsts.TC_STAGE_MONITOR_DELAY);
+  private static final int         VIRTUAL_QUEUES = TCPropertiesImpl.getProperties()
+                                                     .getInt(TCPropertiesConsts.SEDA_STAGE_VIRTUAL_QUEUES, 256);
 
   private final Map<String, Stage<?>>   stages        = new ConcurrentHashMap<String, Stage<?>>();
   private final Map<String, Class<?>> classVerifications = new ConcurrentHashMap<String, Class<?>>();
@@ -108,6 +116,12 @@ public class StageManagerImpl implements StageManager {
       throw new IllegalStateException("A new stage cannot be created, because StageManager is already started.");
     }
 
+    if (queueCount > 1 && StageImpl.usesVirtualThreads(name) && VirtualThreads.isSupported() && queueCount < VIRTUAL_QUEUES) {
+      // A partitioned stage's count only bounds how many platform threads its handlers may block.  Virtual workers
+      // cost none while blocked, so spread the keys over more queues.  A single queue stays single, it orders all events.
+      loggerProvider.getLogger(getClass()).info("Stage " + name + " runs " + VIRTUAL_QUEUES + " virtual workers instead of " + queueCount);
+      queueCount = VIRTUAL_QUEUES;
+    }
     int capacity = maxSize > 0 ? maxSize : Integer.MAX_VALUE;
     // Note that the queue factory is used by all the stages under this manager so it can't be type-safe.
     @SuppressWarnings("unchecked")
@@ -181,6 +195,47 @@ public class StageManagerImpl implements StageManager {
     return stats;
   }
 
+  @Override
+  public Map<String, Map<String, Long>> getLatencyStatistics() {
+    Map<String, Map<String, Long>> latencies = new TreeMap<String, Map<String, Long>>();
+    for (Stage<?> stage : stages.values()) {
+      if (stage instanceof StageImpl) {
+        StageQueueStats[] queues = ((StageImpl<?>) stage).getQueueStats();
+        LatencyHistogram stageWait = new LatencyHistogram();
+        LatencyHistogram stageService = new LatencyHistogram();
+        boolean monitored = false;
+        for (StageQueueStats queue : queues) {
+          if (queue.getWaitTimes() != null) {
+            monitored = true;
+            stageWait.add(queue.getWaitTimes());
+            stageService.add(queue.getServiceTimes());
+            if (queues.length > 1) {
+              latencies.put(queue.getName(), summarize(queue.getWaitTimes(), queue.getServiceTimes()));
+            }
+          }
+        }
+        if (monitored) {
+          latencies.put(stage.getName(), summarize(stageWait, stageService));
+        }
+      }
+    }
+    return latencies;
+  }
+
+  private static Map<String, Long> summarize(LatencyHistogram wait, LatencyHistogram service) {
+    Map<String, Long> summary = new LinkedHashMap<String, Long>();
+    summary.put("count", service.getCount());
+    summary.put("waitMean", TimeUnit.NANOSECONDS.toMicros(wait.getMean()));
+    summary.put("waitP50", TimeUnit.NANOSECONDS.toMicros(wait.getValueAtPercentile(50)));
+    summary.put("waitP99", TimeUnit.NANOSECONDS.toMicros(wait.getValueAtPercentile(99)));
+    summary.put("waitMax", TimeUnit.NANOSECONDS.toMicros(wait.getMax()));
+    summary.put("serviceMean", TimeUnit.NANOSECONDS.toMicros(service.getMean()));
+    summary.put("serviceP50", TimeUnit.NANOSECONDS.toMicros(service.getValueAtPercentile(50)));
+    summary.put("serviceP99", TimeUnit.NANOSECONDS.toMicros(service.getValueAtPercentile(99)));
+    summary.put("serviceMax", TimeUnit.NANOSECONDS.toMicros(service.getMax()));
+    return summary;
+  }
+
   @Override
   public PrettyPrinter prettyPrint(PrettyPrinter out) {
     out.print(this.getClass().getName()).flush();
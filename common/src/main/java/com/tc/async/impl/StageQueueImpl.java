@@ -28,6 +28,7 @@ import com.tc.async.api.StageQueueStats;
 import com.tc.exception.TCRuntimeException;
 import com.tc.logging.TCLogger;
 import com.tc.logging.TCLoggerProvider;
+import com.tc.stats.LatencyHistogram;
 import com.tc.stats.Stats;
 import com.tc.util.Assert;
 import com.tc.util.concurrent.QueueFactory;
@@ -287,6 +288,17 @@ public class StageQueueImpl<EC> implements Sink<EC> {
     }
   }
 
+  /**
+   * @return the stats of each queue of this stage, in queue order
+   */
+  public StageQueueStats[] getQueueStats() {
+    StageQueueStats[] stats = new StageQueueStats[this.sourceQueues.length];
+    for (int x = 0; x < stats.length; x++) {
+      stats[x] = this.sourceQueues[x].getStatsCollector();
+    }
+    return stats;
+  }
+
   @Override
   public Stats getStatsAndReset(long frequency) {
     return getStats(frequency);
@@ -358,6 +370,9 @@ public class StageQueueImpl<EC> implements Sink<EC> {
     }
 
     public void put(W context) throws InterruptedException {
+      if (context instanceof TimedContext) {
+        ((TimedContext<?>)context).enqueued(this.statsCollector);
+      }
       this.queue.put(context);
       this.statsCollector.contextAdded();
     }
@@ -385,6 +400,13 @@ public class StageQueueImpl<EC> implements Sink<EC> {
 
     public abstract void contextRemoved();
 
+    /**
+     * @return a timestamp for latency recording, 0 when this queue is not monitored so no clock is read
+     */
+    public abstract long now();
+
+    public abstract void contextHandled(long waitNanos, long serviceNanos);
+
     protected String makeWidth(String name, int width) {
       final int len = name.length();
       if (len == width) { return name; }
@@ -428,6 +450,26 @@ public class StageQueueImpl<EC> implements Sink<EC> {
       // NO-OP
     }
 
+    @Override
+    public long now() {
+      return 0L;
+    }
+
+    @Override
+    public void contextHandled(long waitNanos, long serviceNanos) {
+      // NO-OP
+    }
+
+    @Override
+    public LatencyHistogram getWaitTimes() {
+      return null;
+    }
+
+    @Override
+    public LatencyHistogram getServiceTimes() {
+      return null;
+    }
+
     @Override
     public String getName() {
       return this.trimmedName;
@@ -442,6 +484,8 @@ public class StageQueueImpl<EC> implements Sink<EC> {
   private static class StageQueueStatsCollectorImpl extends StageQueueStatsCollector {
 
     private final AtomicInteger count = new AtomicInteger(0);
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LatencyHistogram serviceTimes = new LatencyHistogram();
     private final String        name;
     private final String        trimmedName;
 
@@ -452,7 +496,7 @@ public class StageQueueImpl<EC> implements Sink<EC> {
 
     @Override
     public String getDetails() {
-      return this.name + " : " + this.count;
+      return this.name + " : " + this.count + " wait(" + this.waitTimes + ") service(" + this.serviceTimes + ")";
     }
 
     @Override
@@ -468,6 +512,29 @@ public class StageQueueImpl<EC> implements Sink<EC> {
     @Override
     public void reset() {
       this.count.set(0);
+      this.waitTimes.reset();
+      this.serviceTimes.reset();
+    }
+
+    @Override
+    public long now() {
+      return System.nanoTime();
+    }
+
+    @Override
+    public void contextHandled(long waitNanos, long serviceNanos) {
+      this.waitTimes.record(waitNanos);
+      this.serviceTimes.record(serviceNanos);
+    }
+
+    @Override
+    public LatencyHistogram getWaitTimes() {
+      return this.waitTimes;
+    }
+
+    @Override
+    public LatencyHistogram getServiceTimes() {
+      return this.serviceTimes;
     }
 
     @Override
@@ -481,25 +548,62 @@ public class StageQueueImpl<EC> implements Sink<EC> {
     }
   }
   
-  private static class DirectExecuteContext<EC> implements ContextWrapper<EC> {
+  /**
+   * Carries the time the context was put on its queue so the time spent waiting in the queue and the time spent in the
+   * handler can be recorded separately.  Nothing is timed unless stats collection is enabled on the queue.
+   */
+  private static abstract class TimedContext<EC> implements ContextWrapper<EC> {
+    private StageQueueStatsCollector stats;
+    private long enqueueTime;
+
+    private void enqueued(StageQueueStatsCollector collector) {
+//  a flushing context is put on every queue in turn, the wait is measured from the first one
+      if (this.stats == null) {
+        this.stats = collector;
+        this.enqueueTime = collector.now();
+      }
+    }
+
+    @Override
+    public final void runWithHandler(EventHandler<EC> handler) throws EventHandlerException {
+      StageQueueStatsCollector collector = this.stats;
+      if (collector == null) {
+        execute(handler);
+      } else {
+        long start = collector.now();
+        if (execute(handler)) {
+          collector.contextHandled(start - this.enqueueTime, collector.now() - start);
+        }
+      }
+    }
+
+    /**
+     * @return true if the context was handled, false if it only moved on to another queue
+     */
+    protected abstract boolean execute(EventHandler<EC> handler) throws EventHandlerException;
+  }
+  
+  private static class DirectExecuteContext<EC> extends TimedContext<EC> {
     private final SpecializedEventContext context;
     public DirectExecuteContext(SpecializedEventContext context) {
       this.context = context;
     }
     @Override
-    public void runWithHandler(EventHandler<EC> handler) throws EventHandlerException {
+    protected boolean execute(EventHandler<EC> handler) throws EventHandlerException {
       this.context.execute();
+      return true;
     }
   }
   
-  private static class HandledContext<EC> implements ContextWrapper<EC> {
+  private static class HandledContext<EC> extends TimedContext<EC> {
     private final EC context;
     public HandledContext(EC context) {
       this.context = context;
     }
     @Override
-    public void runWithHandler(EventHandler<EC> handler) throws EventHandlerException {
+    protected boolean execute(EventHandler<EC> handler) throws EventHandlerException {
       handler.handleEvent(this.context);
+      return true;
     }
 
     @Override
@@ -511,7 +615,7 @@ public class StageQueueImpl<EC> implements Sink<EC> {
     }
   }
   
-  private class FlushingHandledContext<T extends EC> implements ContextWrapper<EC> {
+  private class FlushingHandledContext<T extends EC> extends TimedContext<EC> {
     private final EC context;
     private final int offset;
     private int executionCount = 0;
@@ -521,10 +625,11 @@ public class StageQueueImpl<EC> implements Sink<EC> {
     }
     
     @Override
-    public void runWithHandler(EventHandler<EC> handler) throws EventHandlerException {
+    protected boolean execute(EventHandler<EC> handler) throws EventHandlerException {
       if (++executionCount == sourceQueues.length) {
 //  been through all the queues.  execute now.
         handler.handleEvent(this.context);
+        return true;
       } else {
 //  move to next queue
         boolean interrupted = false;
@@ -543,6 +648,7 @@ public class StageQueueImpl<EC> implements Sink<EC> {
             Thread.currentThread().interrupt();
           }
         }
+        return false;
       }
     }
 
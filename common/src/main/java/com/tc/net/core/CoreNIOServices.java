@@ -27,8 +27,11 @@ import com.tc.net.core.event.TCConnectionEvent;
 import com.tc.net.core.event.TCConnectionEventListener;
 import com.tc.net.core.event.TCListenerEvent;
 import com.tc.net.core.event.TCListenerEventListener;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
 import com.tc.util.Assert;
 import com.tc.util.Util;
+import com.tc.util.concurrent.AdaptiveSpinner;
 import com.tc.util.concurrent.SetOnceFlag;
 import com.tc.util.runtime.Os;
 
@@ -48,6 +51,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -64,6 +68,8 @@ import java.util.concurrent.atomic.AtomicLong;
 
 class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListener {
   private static final TCLogger                logger        = TCLogging.getLogger(CoreNIOServices.class);
+  private static final int                     BUSY_POLL_SPINS = TCPropertiesImpl.getProperties()
+                                                                   .getInt(TCPropertiesConsts.NET_CORE_BUSYPOLL_SPINS, 0);
   private final TCWorkerCommManager            workerCommMgr;
   private final String                         commThreadName;
   private final SocketParams                   socketParams;
@@ -238,29 +244,102 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
     readerComm.unregister(channel);
     final CoreNIOServices workerComm = workerCommMgr.getNextWorkerComm();
     connection.setCommWorker(workerComm);
-    workerComm.addConnection(connection, addWeightBy);
+    workerComm.addConnection(connection, addWeightBy, true);
     workerComm.requestReadWriteInterest(connection, channel);
   }
 
-  private void addConnection(TCConnectionImpl connection, int initialWeight) {
+  /**
+   * @param selected true if this worker was selected for the connection by
+   *        {@link TCWorkerCommManager#getNextWorkerComm()}, which leaves it flagged until the connection is added
+   */
+  private void addConnection(TCConnectionImpl connection, int initialWeight, boolean selected) {
     synchronized (managedConnectionsMap) {
       Assert.eval(!managedConnectionsMap.containsKey(connection));
       managedConnectionsMap.put(connection, initialWeight);
       this.clientWeights += initialWeight;
-      this.isSelectedForWeighting = false;
+      if (selected) {
+        this.isSelectedForWeighting = false;
+      }
       connection.addListener(this);
     }
   }
 
   @Override
   public void closeEvent(TCConnectionEvent event) {
+    removeConnection(event.getSource());
+  }
+
+  /**
+   * @return false if the connection was not, or is no longer, handled by this comm worker
+   */
+  private boolean removeConnection(TCConnection connection) {
+    synchronized (managedConnectionsMap) {
+      Integer closedClientWeight = managedConnectionsMap.remove(connection);
+      // the connection may have been migrated to another comm worker and closed while it was moving
+      if (closedClientWeight == null) { return false; }
+      this.clientWeights -= closedClientWeight;
+      connection.removeListener(this);
+      return true;
+    }
+  }
+
+  /**
+   * Traffic, in bytes read and written, of each connection handled by this comm worker since it was attached.
+   */
+  Map<TCConnectionImpl, Long> getConnectionTraffic() {
+    List<TCConnection> connections;
+    synchronized (managedConnectionsMap) {
+      connections = new ArrayList<TCConnection>(managedConnectionsMap.keySet());
+    }
+    Map<TCConnectionImpl, Long> traffic = new HashMap<TCConnectionImpl, Long>();
+    for (TCConnection connection : connections) {
+      TCConnectionImpl impl = (TCConnectionImpl) connection;
+      traffic.put(impl, impl.getTrafficBytes());
+    }
+    return traffic;
+  }
+
+  /**
+   * Moves a connection, along with its weight, from this comm worker to another one.  The new owner is set before the
+   * channel is registered with it, so interest requests racing with the move are redirected to the new owner's
+   * selectors (see {@link CommThread#modifyInterest}).  Both workers may briefly service the channel, which is safe
+   * since reads and writes on a connection are serialized by the connection itself.
+   * 
+   * @return false if the connection was not handled by this comm worker, or was closed
+   */
+  boolean migrateConnection(TCConnectionImpl connection, CoreNIOServices to) {
+    final SocketChannel channel = connection.getChannel();
+    if (channel == null || connection.isClosed()) { return false; }
+    final int weight;
     synchronized (managedConnectionsMap) {
-      Assert.eval(managedConnectionsMap.containsKey(event.getSource()));
-      int closedCientWeight = managedConnectionsMap.get(event.getSource());
-      this.clientWeights -= closedCientWeight;
-      managedConnectionsMap.remove(event.getSource());
-      event.getSource().removeListener(this);
+      Integer current = managedConnectionsMap.remove(connection);
+      if (current == null) { return false; }
+      weight = current;
+      this.clientWeights -= weight;
+      connection.removeListener(this);
+    }
+    to.addConnection(connection, weight, false);
+    connection.setCommWorker(to);
+    if (connection.isClosed()) {
+      // the close event may have fired before the new owner was listening
+      to.removeConnection(connection);
+      return false;
     }
+    readerComm.addSelectorTask(new Runnable() {
+      @Override
+      public void run() {
+        readerComm.unregister(channel);
+      }
+    });
+    writerComm.addSelectorTask(new Runnable() {
+      @Override
+      public void run() {
+        writerComm.unregister(channel);
+      }
+    });
+    // ask for write interest unconditionally, if nothing is queued the first write pass drops it again
+    to.requestReadWriteInterest(connection, channel);
+    return true;
   }
 
   @Override
@@ -281,6 +360,10 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
   @Override
   public String toString() {
     synchronized (this.managedConnectionsMap) {
+      if (BUSY_POLL_SPINS > 0) {
+        return "[" + this.commThreadName + ", FD, wt:" + this.clientWeights + ", R:" + this.readerComm.spinner
+               + ", W:" + this.writerComm.spinner + "]";
+      }
       return "[" + this.commThreadName + ", FD, wt:" + this.clientWeights + "]";
     }
   }
@@ -321,6 +404,9 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
     private final AtomicLong                    bytesRead    = new AtomicLong(0);
     private final AtomicLong                    bytesWritten = new AtomicLong(0);
     private final COMM_THREAD_MODE              mode;
+    private final AdaptiveSpinner               spinner      = new AdaptiveSpinner(BUSY_POLL_SPINS);
+    // set while the thread polls with selectNow(), queued tasks need no selector wakeup then
+    private volatile boolean                    spinning     = false;
 
     public CommThread(COMM_THREAD_MODE mode) {
       name = commThreadName + (mode == COMM_THREAD_MODE.NIO_READER ? "_R" : "_W");
@@ -410,11 +496,40 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
           }
         }
       } finally {
-        this.selector.wakeup();
+        if (!this.spinning) {
+          this.selector.wakeup();
+        }
         Util.selfInterruptIfNeeded(isInterrupted);
       }
     }
 
+    /**
+     * Selects with selectNow() until something is ready, a task is queued or the spin budget runs out, and only then
+     * blocks in select().
+     */
+    private int selectSpinning(Selector localSelector, LinkedBlockingQueue<Runnable> localSelectorTasks)
+        throws IOException {
+      int spins = this.spinner.getSpins();
+      this.spinning = true;
+      try {
+        for (int i = 0; i < spins; i++) {
+          int numKeys = localSelector.selectNow();
+          if (numKeys > 0 || !localSelectorTasks.isEmpty()) {
+            this.spinner.found(i);
+            return numKeys;
+          }
+          if (isStopRequested()) { return 0; }
+          this.spinner.idle(i);
+        }
+      } finally {
+        this.spinning = false;
+      }
+      this.spinner.parked(spins);
+      // a task queued just before spinning was cleared did not wake the selector
+      if (!localSelectorTasks.isEmpty()) { return localSelector.selectNow(); }
+      return localSelector.select();
+    }
+
     void unregister(final SelectableChannel channel) {
       if (Thread.currentThread() != this) {
         final CountDownLatch latch = new CountDownLatch(1);
@@ -595,7 +710,8 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
       while (true) {
         final int numKeys;
         try {
-          numKeys = localSelector.select();
+          numKeys = this.spinner.isEnabled() ? selectSpinning(localSelector, localSelectorTasks) : localSelector
+              .select();
         } catch (IOException ioe) {
           if (NIOWorkarounds.linuxSelectWorkaround(ioe)) {
             logger.warn("working around Sun bug 4504001");
@@ -790,9 +906,29 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
       return stopRequested.isSet();
     }
 
+    /**
+     * The comm thread which should handle interest for the request's connection.  Differs from this one when the
+     * connection has been migrated to another comm worker since the request was made.
+     */
+    private CommThread ownerOf(InterestRequest request) {
+      if (request.attachment instanceof TCConnectionImpl) {
+        CoreNIOServices worker = ((TCConnectionImpl) request.attachment).getCommWorker();
+        if (worker != null && worker != CoreNIOServices.this) {
+          return isReader() ? worker.readerComm : worker.writerComm;
+        }
+      }
+      return this;
+    }
+
     private void modifyInterest(InterestRequest request) {
       Assert.eval(Thread.currentThread() == this);
 
+      CommThread owner = ownerOf(request);
+      if (owner != this) {
+        owner.handleRequest(request.redirectTo(owner));
+        return;
+      }
+
       Selector localSelector = null;
       localSelector = selector;
 
@@ -905,6 +1041,10 @@ class CoreNIOServices implements TCListenerEventListener, TCConnectionEventListe
       return commNIOServiceThread;
     }
 
+    InterestRequest redirectTo(CommThread nioServiceThread) {
+      return new InterestRequest(channel, attachment, interestOps, set, add, remove, nioServiceThread);
+    }
+
     @Override
     public String toString() {
       StringBuffer buf = new StringBuffer();
@@ -29,6 +29,7 @@ import com.tc.net.core.event.TCConnectionEventListener;
 import com.tc.net.core.security.TCSecurityManager;
 import com.tc.net.protocol.TCNetworkMessage;
 import com.tc.net.protocol.TCProtocolAdaptor;
+import com.tc.net.protocol.transport.WireProtocolCompression;
 import com.tc.net.protocol.transport.WireProtocolGroupMessageImpl;
 import com.tc.net.protocol.transport.WireProtocolHeader;
 import com.tc.net.protocol.transport.WireProtocolMessage;
@@ -61,6 +62,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.net.ssl.SSLException;
 import javax.net.ssl.SSLHandshakeException;
@@ -84,6 +86,7 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
 
   private final BufferManagerFactory            bufferManagerFactory;
   private final AtomicBoolean                   transportEstablished        = new AtomicBoolean(false);
+  private volatile boolean                      peerCompressionSupported    = false;
   private final LinkedList<TCNetworkMessage>    writeMessages               = new LinkedList<TCNetworkMessage>();
   private final TCConnectionManagerImpl         parent;
   private final TCConnectionEventCaller         eventCaller                 = new TCConnectionEventCaller(logger);
@@ -116,8 +119,28 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
                                                                                 .getProperties()
                                                                                 .getBoolean(TCPropertiesConsts.TC_MESSAGE_PACKUP_ENABLED,
                                                                                             true);
+  private static final boolean                  DIRECT_WRITE_ENABLED        = TCPropertiesImpl
+                                                                                .getProperties()
+                                                                                .getBoolean(TCPropertiesConsts.NET_CORE_DIRECT_WRITE_ENABLED,
+                                                                                            true);
+  private static final boolean                  COMPRESSION_ENABLED         = TCPropertiesImpl
+                                                                                .getProperties()
+                                                                                .getBoolean(TCPropertiesConsts.NET_CORE_COMPRESSION_ENABLED,
+                                                                                            false);
+  private static final int                      COMPRESSION_THRESHOLD       = TCPropertiesImpl
+                                                                                .getProperties()
+                                                                                .getInt(TCPropertiesConsts.NET_CORE_COMPRESSION_THRESHOLD,
+                                                                                        64 * 1024);
   private final Object                          readerLock                  = new Object();
-  private final Object                          writerLock                  = new Object();
+  private final ReentrantLock                   writerLock                  = new ReentrantLock();
+  // the fields below are guarded by writerLock
+  // bytes handed to the buffer manager which have not made it to the channel yet
+  private int                                   unsent                      = 0;
+  // true while a sending thread, rather than the comm thread, is writing
+  private boolean                               writingDirect               = false;
+  // set once the comm thread has written to the channel, after which other threads may try writing to it directly
+  // (only ever set for plain sockets, see canWriteDirect())
+  private volatile boolean                      directWriteReady            = false;
 
   static {
     logger.info("Comms Message Batching " + (MSG_GROUPING_ENABLED ? "enabled" : "disabled"));
@@ -165,6 +188,21 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
     this.commWorker = worker;
   }
 
+  CoreNIOServices getCommWorker() {
+    return this.commWorker;
+  }
+
+  SocketChannel getChannel() {
+    return this.channel;
+  }
+
+  /**
+   * @return bytes read from and written to the socket so far, used to balance connections across comm workers
+   */
+  long getTrafficBytes() {
+    return this.totalRead.get() + this.totalWrite.get();
+  }
+
   private void closeImpl(Runnable callback) {
     Assert.assertTrue(this.closed.isSet());
     this.transportEstablished.set(false);
@@ -319,8 +357,63 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
 
   @Override
   public int doWrite() throws IOException {
-    synchronized (writerLock) {
-      return doWriteInternal();
+    writerLock.lock();
+    try {
+      int written = doWriteInternal();
+      if (!directWriteReady && canWriteDirect()) {
+        directWriteReady = true;
+      }
+      return written;
+    } finally {
+      writerLock.unlock();
+    }
+  }
+
+  /**
+   * Only a plain socket can be written from any thread: an SSL buffer manager may have to read from the channel or run
+   * handshake tasks before it can send, which is left to the comm threads, and a detached connection is written by its
+   * pipe socket.
+   */
+  private boolean canWriteDirect() {
+    return DIRECT_WRITE_ENABLED && this.pipeSocket == null && this.bufferManager instanceof ClearTextBufferManager;
+  }
+
+  /**
+   * Used for testing only
+   */
+  ReentrantLock getWriterLock() {
+    return this.writerLock;
+  }
+
+  /**
+   * Writes queued messages from the sending thread instead of waking the comm thread, as long as nobody else is
+   * writing and the socket takes everything without blocking.  Any error, or a socket which is not taking more data,
+   * leaves the rest to the comm thread.
+   * 
+   * @return true if nothing is left for the comm thread to write
+   */
+  private boolean tryWriteDirect() {
+    if (!writerLock.tryLock()) { return false; }
+    try {
+      if (this.closed.isSet()) { return false; }
+      this.writingDirect = true;
+      int written = doWriteToBufferInternal();
+      this.unsent += written;
+      while (this.unsent > 0) {
+        int sent = bufferManager.sendFromBuffer();
+        if (sent == 0) { return false; }
+        this.unsent -= sent;
+        this.totalWrite.addAndGet(sent);
+      }
+      synchronized (this.writeMessages) {
+        return this.writeMessages.isEmpty() && this.writeContexts.isEmpty();
+      }
+    } catch (IOException ioe) {
+      // leave it for the comm thread, it will hit the same error and deal with it there
+      return false;
+    } finally {
+      this.writingDirect = false;
+      writerLock.unlock();
     }
   }
 
@@ -333,8 +426,9 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
       return 0;
     }
 
+    this.unsent += written;
     int channelWritten = 0;
-    while (channelWritten != written) {
+    while (this.unsent > 0) {
       int sent;
       try {
         sent = bufferManager.sendFromBuffer();
@@ -352,6 +446,7 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
         break;
       }
       channelWritten += sent;
+      this.unsent -= sent;
     }
     this.totalWrite.addAndGet(channelWritten);
     return channelWritten;
@@ -522,7 +617,8 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
     synchronized (this.writeMessages) {
       if (this.closed.isSet()) { return totalBytesWritten; }
 
-      if (this.writeMessages.isEmpty() && this.writeContexts.isEmpty()) {
+      // a direct write never registered interest, so there is nothing to remove
+      if (this.writeMessages.isEmpty() && this.writeContexts.isEmpty() && !this.writingDirect) {
         this.commWorker.removeWriteInterest(this, this.channel);
       }
     }
@@ -564,17 +660,12 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
         logger.debug("New message on connection, registering for write interest");
       }
 
-      // NOTE: this might be the very first message on the socket and
-      // given the current implementation, it isn't necessarily
-      // safe to assume one can write to the channel. Long story
-      // short, always enqueue the message and wait until it is selected
-      // for write interest.
-
-      // If you're trying to optimize for performance by letting the calling thread do the
-      // write, we need to add more logic to connection setup. Specifically, you need register
-      // for, as well as actually be selected for, write interest immediately
-      // after finishConnect(). Only after this selection occurs it is always safe to try
-      // to write.
+      // NOTE: this might be the very first message on the socket, and it isn't safe to assume one can write to
+      // the channel until it has been registered for, and actually selected for, write interest after
+      // finishConnect(). So the comm thread always does the first write; once it has, a thread sending into an
+      // idle plain connection tries to write the message itself and only falls back to write interest when it
+      // can't write all of it.
+      if (this.directWriteReady && canWriteDirect() && tryWriteDirect()) { return; }
       this.commWorker.requestWriteInterest(this, this.channel);
     }
   }
@@ -879,7 +970,13 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
     hdr.setDestinationAddress(getRemoteAddress().getAddressBytes());
     hdr.setDestinationPort(getRemoteAddress().getPort());
     hdr.setMessageCount(messageCount);
+    if (COMPRESSION_ENABLED && hdr.isHandshakeOrHealthCheckMessage()) {
+      hdr.setCompressionSupported(true);
+    }
     hdr.computeChecksum();
+    if (COMPRESSION_ENABLED && this.peerCompressionSupported) {
+      return WireProtocolCompression.compress(message, COMPRESSION_THRESHOLD);
+    }
     return message;
   }
 
@@ -1043,4 +1140,9 @@ final class TCConnectionImpl implements TCConnection, TCChannelReader, TCChannel
     return this.transportEstablished.get();
   }
 
+  @Override
+  public void setPeerCompressionSupported() {
+    this.peerCompressionSupported = true;
+  }
+
 }
@@ -22,10 +22,18 @@ import com.tc.logging.LossyTCLogger;
 import com.tc.logging.LossyTCLogger.LossyTCLoggerType;
 import com.tc.logging.TCLogger;
 import com.tc.logging.TCLogging;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
 import com.tc.util.Assert;
 import com.tc.util.concurrent.SetOnceFlag;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
 
 
 /**
@@ -39,15 +47,26 @@ public class TCWorkerCommManager {
                                                                          false);
 
   private static final String     WORKER_NAME_PREFIX = "TCWorkerComm # ";
+  // a worker is only relieved of a connection when it carries more than this many times the traffic of the quietest
+  private static final int        IMBALANCE_FACTOR   = 2;
 
+  private final String            name;
   private final int               totalWorkerComm;
   private final CoreNIOServices[] workerCommThreads;
   private final SetOnceFlag       started            = new SetOnceFlag();
   private final SetOnceFlag       stopped            = new SetOnceFlag();
+  private final long              rebalanceInterval;
+  private final long              rebalanceMinBytes;
+  private Timer                   rebalancer;
+  // traffic of each connection at the previous rebalance, only touched by the rebalancer thread
+  private Map<TCConnectionImpl, Long> lastTraffic    = new HashMap<TCConnectionImpl, Long>();
 
   TCWorkerCommManager(String name, int workerCommCount, SocketParams socketParams) {
     if (workerCommCount <= 0) { throw new IllegalArgumentException("invalid worker count: " + workerCommCount); }
     logger.info("Creating " + workerCommCount + " worker comm threads for " + name);
+    this.name = name;
+    this.rebalanceInterval = TCPropertiesImpl.getProperties().getLong(TCPropertiesConsts.NET_CORE_REBALANCE_INTERVAL, 0);
+    this.rebalanceMinBytes = TCPropertiesImpl.getProperties().getLong(TCPropertiesConsts.NET_CORE_REBALANCE_MIN_BYTES, 0);
     this.totalWorkerComm = workerCommCount;
     this.workerCommThreads = new CoreNIOServices[workerCommCount];
     for (int i = 0; i < this.workerCommThreads.length; i++) {
@@ -96,6 +115,19 @@ public class TCWorkerCommManager {
       for (CoreNIOServices workerCommThread : this.workerCommThreads) {
         workerCommThread.start();
       }
+      if (this.rebalanceInterval > 0 && this.totalWorkerComm > 1) {
+        this.rebalancer = new Timer(name + " - Comm Worker Rebalancer", true);
+        this.rebalancer.schedule(new TimerTask() {
+          @Override
+          public void run() {
+            try {
+              rebalance();
+            } catch (Throwable t) {
+              logger.warn("failed to rebalance connections across comm workers", t);
+            }
+          }
+        }, this.rebalanceInterval, this.rebalanceInterval);
+      }
     } else {
       throw new IllegalStateException("already started");
     }
@@ -105,12 +137,79 @@ public class TCWorkerCommManager {
     if (!this.started.isSet()) { return; }
 
     if (this.stopped.attemptSet()) {
+      if (this.rebalancer != null) {
+        this.rebalancer.cancel();
+      }
       for (int i = 0; i < this.totalWorkerComm; i++) {
         this.workerCommThreads[i].requestStop();
       }
     }
   }
 
+  /**
+   * Moves at most one connection from the comm worker with the most traffic since the last pass to the one with the
+   * least, and only if that leaves the busier of the two carrying less than before.  Moving one connection per pass
+   * lets the traffic settle before the next decision, so connections do not bounce between workers.
+   */
+  void rebalance() {
+    Map<TCConnectionImpl, Long> current = new HashMap<TCConnectionImpl, Long>();
+    List<Map<TCConnectionImpl, Long>> deltas = new ArrayList<Map<TCConnectionImpl, Long>>(this.totalWorkerComm);
+    long[] load = new long[this.totalWorkerComm];
+    for (int i = 0; i < this.totalWorkerComm; i++) {
+      Map<TCConnectionImpl, Long> delta = new HashMap<TCConnectionImpl, Long>();
+      for (Map.Entry<TCConnectionImpl, Long> traffic : this.workerCommThreads[i].getConnectionTraffic().entrySet()) {
+        Long previous = this.lastTraffic.get(traffic.getKey());
+        // a connection is only measured from its second pass onward
+        long bytes = previous == null ? 0 : traffic.getValue() - previous;
+        delta.put(traffic.getKey(), bytes);
+        load[i] += bytes;
+        current.put(traffic.getKey(), traffic.getValue());
+      }
+      deltas.add(delta);
+    }
+    this.lastTraffic = current;
+
+    int hottest = 0;
+    int coldest = 0;
+    for (int i = 1; i < this.totalWorkerComm; i++) {
+      if (load[i] > load[hottest]) {
+        hottest = i;
+      }
+      if (load[i] < load[coldest]) {
+        coldest = i;
+      }
+    }
+    if (load[hottest] < this.rebalanceMinBytes || load[hottest] <= IMBALANCE_FACTOR * load[coldest]) { return; }
+
+    TCConnectionImpl move = chooseConnection(deltas.get(hottest), load[hottest] - load[coldest]);
+    if (move != null && this.workerCommThreads[hottest].migrateConnection(move, this.workerCommThreads[coldest])) {
+      logger.info("Moved " + move + " from " + this.workerCommThreads[hottest] + " to "
+                  + this.workerCommThreads[coldest] + " to balance traffic " + Arrays.toString(load));
+      // its traffic now counts against the new worker
+      this.lastTraffic.put(move, move.getTrafficBytes());
+    }
+  }
+
+  /**
+   * @return the connection whose traffic is closest to half the gap between the two workers, among those which make
+   *         the gap smaller when moved, or null if there is none
+   */
+  static <T> T chooseConnection(Map<T, Long> traffic, long gap) {
+    T chosen = null;
+    long best = Long.MAX_VALUE;
+    for (Map.Entry<T, Long> entry : traffic.entrySet()) {
+      long bytes = entry.getValue();
+      if (bytes > 0 && bytes < gap) {
+        long distance = Math.abs(gap / 2 - bytes);
+        if (distance < best) {
+          best = distance;
+          chosen = entry.getKey();
+        }
+      }
+    }
+    return chosen;
+  }
+
   protected CoreNIOServices getWorkerComm(int workerCommId) {
     return this.workerCommThreads[workerCommId];
   }
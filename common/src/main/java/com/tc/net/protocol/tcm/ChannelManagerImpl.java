@@ -22,12 +22,11 @@ import com.tc.util.ProductID;
 import com.tc.logging.TCLogger;
 import com.tc.logging.TCLogging;
 import com.tc.util.Assert;
+import com.tc.util.concurrent.ConcurrentSnapshotMap;
 
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.HashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -39,13 +38,13 @@ class ChannelManagerImpl implements ChannelManager, ChannelEventListener, Server
   private static final TCLogger                        logger              = TCLogging.getLogger(ChannelManager.class);
   private static final MessageChannelInternal[]        EMPTY_CHANNEL_ARARY = new MessageChannelInternal[] {};
 
-  private final Map<ChannelID, MessageChannelInternal> channels;
+  private final ConcurrentSnapshotMap<ChannelID, MessageChannelInternal> channels;
   private final boolean                                transportDisconnectRemovesChannel;
   private final ServerMessageChannelFactory            channelFactory;
   private final List<ChannelManagerEventListener>      eventListeners      = new CopyOnWriteArrayList<ChannelManagerEventListener>();
 
   public ChannelManagerImpl(boolean transportDisconnectRemovesChannel, ServerMessageChannelFactory channelFactory) {
-    this.channels = new HashMap<ChannelID, MessageChannelInternal>();
+    this.channels = new ConcurrentSnapshotMap<ChannelID, MessageChannelInternal>(EMPTY_CHANNEL_ARARY);
     this.transportDisconnectRemovesChannel = transportDisconnectRemovesChannel;
     this.channelFactory = channelFactory;
   }
@@ -53,10 +52,8 @@ class ChannelManagerImpl implements ChannelManager, ChannelEventListener, Server
   @Override
   public MessageChannelInternal createNewChannel(ChannelID id, ProductID productId) {
     MessageChannelInternal channel = channelFactory.createNewChannel(id, productId);
-    synchronized (this) {
-      channels.put(channel.getChannelID(), channel);
-      channel.addListener(this);
-    }
+    channels.put(channel.getChannelID(), channel);
+    channel.addListener(this);
     return channel;
   }
 
@@ -73,13 +70,13 @@ class ChannelManagerImpl implements ChannelManager, ChannelEventListener, Server
   }
 
   @Override
-  public synchronized MessageChannelInternal getChannel(ChannelID id) {
+  public MessageChannelInternal getChannel(ChannelID id) {
     return channels.get(id);
   }
 
   @Override
-  public synchronized MessageChannelInternal[] getChannels() {
-    return channels.values().toArray(EMPTY_CHANNEL_ARARY);
+  public MessageChannelInternal[] getChannels() {
+    return channels.valuesSnapshot();
   }
 
   @Override
@@ -92,12 +89,12 @@ class ChannelManagerImpl implements ChannelManager, ChannelEventListener, Server
   }
 
   @Override
-  public synchronized Set<ChannelID> getAllChannelIDs() {
+  public Set<ChannelID> getAllChannelIDs() {
     return new HashSet<ChannelID>(channels.keySet());
   }
 
   @Override
-  public synchronized boolean isValidID(ChannelID channelID) {
+  public boolean isValidID(ChannelID channelID) {
     if (channelID == null) { return false; }
 
     final MessageChannel channel = getChannel(channelID);
@@ -126,10 +123,7 @@ class ChannelManagerImpl implements ChannelManager, ChannelEventListener, Server
   }
 
   private void removeChannel(MessageChannel channel) {
-    boolean notfound;
-    synchronized (this) {
-      notfound = (channels.remove(channel.getChannelID()) == null);
-    }
+    boolean notfound = (channels.remove(channel.getChannelID()) == null);
     if (notfound) {
       logger.warn("Remove non-exist channel:" + channel.getChannelID());
       return;
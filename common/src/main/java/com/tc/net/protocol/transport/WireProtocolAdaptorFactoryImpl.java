@@ -21,8 +21,13 @@ package com.tc.net.protocol.transport;
 import com.tc.async.api.Sink;
 import com.tc.net.protocol.ProtocolSwitch;
 import com.tc.net.protocol.TCProtocolAdaptor;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
 
 public class WireProtocolAdaptorFactoryImpl implements WireProtocolAdaptorFactory {
+  private static final int COMPRESSION_MAX_INFLATED = TCPropertiesImpl.getProperties()
+                                                        .getInt(TCPropertiesConsts.NET_CORE_COMPRESSION_MAX_INFLATED,
+                                                                256 * 1024 * 1024);
 
   private final Sink httpSink;
 
@@ -37,7 +42,8 @@ public class WireProtocolAdaptorFactoryImpl implements WireProtocolAdaptorFactor
 
   @Override
   public TCProtocolAdaptor newWireProtocolAdaptor(WireProtocolMessageSink sink) {
-    if (httpSink != null) { return new ProtocolSwitch(new WireProtocolAdaptorImpl(sink), httpSink); }
-    return new WireProtocolAdaptorImpl(sink);
+    if (httpSink != null) { return new ProtocolSwitch(new WireProtocolAdaptorImpl(sink, COMPRESSION_MAX_INFLATED),
+                                                      httpSink); }
+    return new WireProtocolAdaptorImpl(sink, COMPRESSION_MAX_INFLATED);
   }
 }
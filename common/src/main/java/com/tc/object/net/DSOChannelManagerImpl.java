@@ -33,7 +33,7 @@ import com.tc.net.protocol.tcm.MessageChannelInternal;
 import com.tc.net.protocol.tcm.TCMessageType;
 import com.tc.object.msg.ClientHandshakeAckMessage;
 import com.tc.object.msg.ClientHandshakeRefusedMessage;
-import com.tc.util.concurrent.CopyOnWriteSequentialMap;
+import com.tc.util.concurrent.ConcurrentSnapshotMap;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -48,14 +48,9 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class DSOChannelManagerImpl implements DSOChannelManager, DSOChannelManagerMBean {
   private static final TCLogger      logger         = TCLogging.getLogger(DSOChannelManager.class);
 
-  private final CopyOnWriteSequentialMap<NodeID, MessageChannel> activeChannels = new CopyOnWriteSequentialMap<NodeID, MessageChannel>(
-                                                                                      new CopyOnWriteSequentialMap.TypedArrayFactory() {
-                                                                                        @SuppressWarnings("unchecked")
-                                                                                        @Override
-                                                                                        public MessageChannel[] createTypedArray(int size) {
-                                                                                          return new MessageChannel[size];
-                                                                                        }
-                                                                                      });
+  // connects and disconnects do not copy the registry, broadcasts share one snapshot until the next change
+  private final ConcurrentSnapshotMap<NodeID, MessageChannel> activeChannels = new ConcurrentSnapshotMap<NodeID, MessageChannel>(
+                                                                                   new MessageChannel[0]);
   
   private final List<DSOChannelManagerEventListener> eventListeners = new CopyOnWriteArrayList<DSOChannelManagerEventListener>();
 
@@ -97,7 +92,7 @@ public class DSOChannelManagerImpl implements DSOChannelManager, DSOChannelManag
 
   @Override
   public MessageChannel[] getActiveChannels() {
-    return activeChannels.valuesToArray();
+    return activeChannels.valuesSnapshot();
   }
 
   @Override
@@ -45,12 +45,35 @@ public interface TCPropertiesConsts {
    *                                      seda stage
    * stage.sink.capacity                : Capacity of seda stage queue, Integer.MAX_VALUE if not set
    *                                      (experimental, do not change)
+   * handshake.stage.threads            : Number of threads for the client handshake (reconnect) stage
+   * voltron.stage.threads              : Number of threads for the voltron message stage, partitioned by client
+   * respond.stage.threads              : Number of threads sending invoke responses, partitioned by client
    * </code>
    ********************************************************************************************************************/
   public static final String ENTITY_PROCESSOR_THREADS                                    = "server.entity.processor.threads";
   public static final String L2_SEDA_STAGE_SINK_CAPACITY                                    = "l2.seda.stage.sink.capacity";
   String L2_TCCOM_WORKERTHREADS                                                          = "l2.tccom.workerthreads";
   String L2_SEDA_STAGE_WORKERTHREADS                                                     = "l2.seda.stage.workerthreads";
+  String L2_SEDA_HANDSHAKE_STAGE_THREADS                                                 = "l2.seda.handshake.stage.threads";
+  String L2_SEDA_VOLTRON_STAGE_THREADS                                                   = "l2.seda.voltron.stage.threads";
+  String L2_SEDA_RESPOND_STAGE_THREADS                                                   = "l2.seda.respond.stage.threads";
+
+  /*********************************************************************************************************************
+   * <code>
+   * Section : L2 flow control
+   * Description : The active grants each client credits, the number of requests it may have in flight, from how far
+   *               behind it is.  The connected clients share credits.total evenly on an idle server, and the share
+   *               shrinks to credits.min at the targets below.  No client gets more than client.requests.sent.max
+   * credits.total      : Credits shared by all connected clients when the server is idle
+   * credits.min        : Credits granted to each client when the server is overloaded
+   * queue.target       : Requests waiting on the voltron and response stages at which grants reach the minimum
+   * replication.target : Activities waiting on passive acks at which grants reach the minimum
+   * </code>
+   ********************************************************************************************************************/
+  public static final String L2_FLOWCONTROL_CREDITS_TOTAL                                   = "l2.flowcontrol.credits.total";
+  public static final String L2_FLOWCONTROL_CREDITS_MIN                                     = "l2.flowcontrol.credits.min";
+  public static final String L2_FLOWCONTROL_QUEUE_TARGET                                    = "l2.flowcontrol.queue.target";
+  public static final String L2_FLOWCONTROL_REPLICATION_TARGET                              = "l2.flowcontrol.replication.target";
 
   /*********************************************************************************************************************
    * <code>
@@ -58,9 +81,40 @@ public interface TCPropertiesConsts {
    * Description : This section contains configuration for SEDA stages for L1
    * stage.sink.capacity  : Capacity of L1's seda stage queue, Integer.MAX_VALUE if not set
    * pinned.entry.fault.stage.threads : Number of threads for pinned entry fault stage
+   * servermessage.stage.threads : Number of threads delivering server pushed messages, ordered per entity instance
+   * servermessage.ack.batch : Most acknowledgements of server pushed messages sent together in one message
+   * servermessage.ack.delay : Milliseconds an acknowledgement may wait for others to join it, 0 sends each one at once
+   * response.stage.threads : Number of threads completing requests, responses for one transaction stay in order
    * </code>
    ********************************************************************************************************************/
   public static final String L1_SEDA_STAGE_SINK_CAPACITY                                    = "l1.seda.stage.sink.capacity";
+  public static final String L1_SEDA_SERVERMESSAGE_STAGE_THREADS                            = "l1.seda.servermessage.stage.threads";
+  public static final String L1_SEDA_SERVERMESSAGE_ACK_BATCH                                = "l1.seda.servermessage.ack.batch";
+  public static final String L1_SEDA_SERVERMESSAGE_ACK_DELAY                                = "l1.seda.servermessage.ack.delay";
+  public static final String L1_SEDA_RESPONSE_STAGE_THREADS                                 = "l1.seda.response.stage.threads";
+
+  /*********************************************************************************************************************
+   * <code>
+   * Section : Seda stage busy polling (L1 and L2)
+   * Description : Stage worker threads can spin on their queue before blocking, trading cpu for latency
+   * busypoll.spins : Most empty polls before a worker blocks, 0 disables; seda.&lt;stage&gt;.busypoll.spins overrides it
+   *                  for a single stage
+   * </code>
+   ********************************************************************************************************************/
+  public static final String SEDA_BUSYPOLL_SPINS                                            = "seda.busypoll.spins";
+
+  /*********************************************************************************************************************
+   * <code>
+   * Section : Seda stage worker threads (L1 and L2)
+   * Description : Stage workers can run on virtual threads where the JVM provides them, still one worker per queue
+   * stage.virtualthreads : Run stage workers on virtual threads; seda.&lt;stage&gt;.virtualthreads overrides it for a
+   *                        single stage
+   * stage.virtualthreads.queues : Least number of queues, each with its own worker, of a stage with more than one
+   *                               queue when its workers are virtual; replaces the stage's configured thread count
+   * </code>
+   ********************************************************************************************************************/
+  public static final String SEDA_STAGE_VIRTUAL_THREADS                                     = "seda.stage.virtualthreads";
+  public static final String SEDA_STAGE_VIRTUAL_QUEUES                                      = "seda.stage.virtualthreads.queues";
 
   /*********************************************************************************************************************
    * <code>
@@ -100,9 +154,12 @@ public interface TCPropertiesConsts {
    *                                 instance in a cluster with no passives present
    * startuplock.retries.enabled   : If true then L2s will try to lock indefinitely on the data
    *                                 directory while starting up
+   * entity.statestore.directory   : Directory where restartable servers keep the logs of persistent
+   *                                 entity state stores, unset to keep them in memory only
    * </code>
    ********************************************************************************************************************/
   public static final String L2_STARTUPLOCK_RETRIES_ENABLED                                 = "l2.startuplock.retries.enabled";
+  public static final String L2_ENTITY_STATESTORE_DIRECTORY                                 = "l2.entity.statestore.directory";
   public static final String ENTITY_DEFERMENT_QUEUE_SIZE                                    = "server.entity.deferment.queue.size";
   
   /*********************************************************************************************************************
@@ -126,6 +183,7 @@ public interface TCPropertiesConsts {
   
   public static final String CLIENT_MAX_PENDING_REQUESTS                                    = "client.requests.pending.max";
   public static final String CLIENT_MAX_SENT_REQUESTS                                       = "client.requests.sent.max";
+  public static final String CLIENT_SHARED_ENTITY_FETCH                                     = "client.entity.fetch.shared";
 
   public static final String TC_TRANSPORT_HANDSHAKE_TIMEOUT                                 = "tc.transport.handshake.timeout";
   public static final String TC_CONFIG_SOURCEGET_TIMEOUT                                    = "tc.config.getFromSource.timeout";
@@ -170,11 +228,17 @@ public interface TCPropertiesConsts {
    * Section : Common Logging properties for both L1 and L2
    * Description : Logging attributes that can be overridden.
    * maxBackups       - The maximum number of backup log files to keep maxLogFileSize - The maximum size of a log file in megabytes
+   * async.enabled    - Write the log file from a dedicated thread
+   * async.bufferSize - The number of log events which can be waiting for the writer thread
+   * async.overflow   - drop (events below WARN) or block when the buffer is full
    * </code>
    ********************************************************************************************************************/
   public static final String LOGGING_MAXBACKUPS                                             = "logging.maxBackups";
   public static final String LOGGING_MAX_LOGFILE_SIZE                                       = "logging.maxLogFileSize";
   public static final String LOGGING_LONG_GC_THRESHOLD                                      = "logging.longgc.threshold";
+  public static final String LOGGING_ASYNC_ENABLED                                          = "logging.async.enabled";
+  public static final String LOGGING_ASYNC_BUFFER_SIZE                                      = "logging.async.bufferSize";
+  public static final String LOGGING_ASYNC_OVERFLOW                                         = "logging.async.overflow";
 
   /*********************************************************************************************************************
    * <code>
@@ -185,10 +249,12 @@ public interface TCPropertiesConsts {
    * bytebuffer.pooling.enabled           : Enable/disable tc byte buffer pooling
    * bytebuffer.common.pool.maxcount      : Max size of pool for tc byte buffer
    * bytebuffer.threadlocal.pool.maxcount : Thread pool size
+   * invoke.tracing.sample                : int             - trace the phases of 1 in N entity invokes, 0 to disable
    * </code>
    ********************************************************************************************************************/
   public static final String TC_STAGE_MONITOR_ENABLED                                       = "tc.stage.monitor.enabled";
   public static final String TC_STAGE_MONITOR_DELAY                                         = "tc.stage.monitor.delay";
+  public static final String TC_INVOKE_TRACING_SAMPLE                                       = "tc.invoke.tracing.sample";
   public static final String TC_BYTEBUFFER_POOLING_ENABLED                                  = "tc.bytebuffer.pooling.enabled";
   public static final String TC_BYTEBUFFER_COMMON_POOL_MAXCOUNT                             = "tc.bytebuffer.common.pool.maxcount";
   public static final String TC_BYTEBUFFER_THREADLOCAL_POOL_MAXCOUNT                        = "tc.bytebuffer.threadlocal.pool.maxcount";
@@ -255,10 +321,26 @@ public interface TCPropertiesConsts {
    * Section : TCP Settings
    * tcpnodelay : Enable/disable tcp packet batching
    * keepalive  : Enable/disable tcp probe for running/broken connections
+   * rebalance.interval : Milliseconds between moving busy connections between comm worker threads, 0 disables
+   * rebalance.minBytes : Bytes a comm worker must carry in an interval before any of its connections are moved
+   * directwrite.enabled : Let a thread sending into an idle connection write to the socket itself
+   * busypoll.spins : Most empty selectNow() calls a comm thread makes before blocking in select(), 0 disables
+   * compression.enabled : Offer to inflate compressed messages at handshake, and compress large messages to peers
+   *                       which offered the same
+   * compression.threshold : Smallest message payload, in bytes, worth compressing
+   * compression.maxInflated : Largest payload, in bytes, a compressed message from a peer may inflate to; a message
+   *                           claiming more is rejected as a protocol error
    * </code>
    ********************************************************************************************************************/
   public static final String NET_CORE_KEEPALIVE                                             = "net.core.keepalive";
   public static final String NET_CORE_TCP_NO_DELAY                                          = "net.core.tcpnodelay";
+  public static final String NET_CORE_REBALANCE_INTERVAL                                    = "net.core.rebalance.interval";
+  public static final String NET_CORE_REBALANCE_MIN_BYTES                                   = "net.core.rebalance.minBytes";
+  public static final String NET_CORE_DIRECT_WRITE_ENABLED                                  = "net.core.directwrite.enabled";
+  public static final String NET_CORE_BUSYPOLL_SPINS                                        = "net.core.busypoll.spins";
+  public static final String NET_CORE_COMPRESSION_ENABLED                                   = "net.core.compression.enabled";
+  public static final String NET_CORE_COMPRESSION_THRESHOLD                                 = "net.core.compression.threshold";
+  public static final String NET_CORE_COMPRESSION_MAX_INFLATED                              = "net.core.compression.maxInflated";
 
   /*********************************************************************************************************************
    * <code>
@@ -0,0 +1,140 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.stats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A log-linear histogram of durations in nanoseconds.  Each power of two is split into 16 linear sub-buckets so any
+ * recorded value is reported within ~6% of its true value over the whole range of a long.  Recording does not allocate
+ * and is safe to call from multiple threads.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong total = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    counts.incrementAndGet(bucketFor(nanos));
+    total.incrementAndGet();
+    sum.addAndGet(nanos);
+    long current = max.get();
+    while (nanos > current && !max.compareAndSet(current, nanos)) {
+      current = max.get();
+    }
+  }
+
+  public long getCount() {
+    return total.get();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  public long getMean() {
+    long count = total.get();
+    return (count == 0) ? 0 : sum.get() / count;
+  }
+
+  /**
+   * @param percentile between 0 and 100
+   * @return the lower bound of the bucket holding the requested percentile, 0 if nothing was recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    long count = total.get();
+    if (count == 0) {
+      return 0;
+    }
+    long target = Math.max(1, (long)Math.ceil((percentile / 100.0) * count));
+    long seen = 0;
+    for (int x = 0; x < BUCKETS; x++) {
+      seen += counts.get(x);
+      if (seen >= target) {
+        return Math.min(lowerBoundOf(x), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * Adds the recorded values of another histogram to this one.  Used to aggregate the per-queue histograms of a stage.
+   */
+  public void add(LatencyHistogram other) {
+    for (int x = 0; x < BUCKETS; x++) {
+      long c = other.counts.get(x);
+      if (c != 0) {
+        counts.addAndGet(x, c);
+      }
+    }
+    total.addAndGet(other.total.get());
+    sum.addAndGet(other.sum.get());
+    long otherMax = other.max.get();
+    long current = max.get();
+    while (otherMax > current && !max.compareAndSet(current, otherMax)) {
+      current = max.get();
+    }
+  }
+
+  public void reset() {
+    for (int x = 0; x < BUCKETS; x++) {
+      counts.set(x, 0);
+    }
+    total.set(0);
+    sum.set(0);
+    max.set(0);
+  }
+
+  static int bucketFor(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int)value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  static long lowerBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long sub = bucket % SUB_BUCKETS;
+    return (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + getCount()
+        + " mean=" + TimeUnit.NANOSECONDS.toMicros(getMean())
+        + "us p50=" + TimeUnit.NANOSECONDS.toMicros(getValueAtPercentile(50))
+        + "us p99=" + TimeUnit.NANOSECONDS.toMicros(getValueAtPercentile(99))
+        + "us max=" + TimeUnit.NANOSECONDS.toMicros(getMax()) + "us";
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.stats;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sampled tracing of the phases of a request.  A sampled request carries a {@link Trace} (or is tracked here by key when
+ * there is nothing to carry it) which is stamped as the request passes each phase.  When the request is done, the time
+ * between each stamped phase and the previous one is recorded in a histogram for that phase.
+ * <p>
+ * Phases are declared, in order, by an enum.  Phases which a request skips are simply not stamped and the time is
+ * attributed to the next phase which is.
+ */
+public class PhaseTracer<P extends Enum<P>> {
+  // requests tracked by key which never end (the client went away, the send failed) must not accumulate without
+  // bound.  Once the limit is reached traces older than MAX_AGE are evicted, swept at most once per SWEEP_INTERVAL.
+  private static final int MAX_TRACKED = 10000;
+  private static final long MAX_AGE = TimeUnit.MINUTES.toNanos(1);
+  private static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+  private final P[] phases;
+  private final LatencyHistogram[] histograms;
+  private final LatencyHistogram total = new LatencyHistogram();
+  private final int sampleRate;
+  private final Map<Object, Trace> inflight = new ConcurrentHashMap<Object, Trace>();
+  private final int maxTracked;
+  private final long maxAge;
+  private final long sweepInterval;
+  private volatile long lastSweep = System.nanoTime();
+
+  /**
+   * @param phases the phases of a request, in order
+   * @param sampleRate one in sampleRate requests is traced, 0 to disable tracing
+   */
+  public PhaseTracer(Class<P> phases, int sampleRate) {
+    this(phases, sampleRate, MAX_TRACKED, MAX_AGE, SWEEP_INTERVAL);
+  }
+
+  PhaseTracer(Class<P> phases, int sampleRate, int maxTracked, long maxAge, long sweepInterval) {
+    this.maxTracked = maxTracked;
+    this.maxAge = maxAge;
+    this.sweepInterval = sweepInterval;
+    this.phases = phases.getEnumConstants();
+    this.histograms = new LatencyHistogram[this.phases.length];
+    for (int x = 0; x < this.histograms.length; x++) {
+      this.histograms[x] = new LatencyHistogram();
+    }
+    this.sampleRate = Math.max(0, sampleRate);
+  }
+
+  public boolean isEnabled() {
+    return sampleRate > 0;
+  }
+
+  /**
+   * @param sequence a value which identifies the request, typically its transaction id
+   */
+  public boolean isSampled(long sequence) {
+    return sampleRate > 0 && sequence % sampleRate == 0;
+  }
+
+  public Trace newTrace() {
+    return new Trace(this.phases.length);
+  }
+
+  public void complete(Trace trace) {
+    long first = 0;
+    long previous = 0;
+    for (int x = 0; x < trace.stamps.length; x++) {
+      long stamp = trace.stamps[x];
+      if (stamp != 0) {
+        if (previous != 0) {
+          // phases stamped from different threads can race by a hair; never record a negative latency
+          histograms[x].record(Math.max(0, stamp - previous));
+        } else {
+          first = stamp;
+        }
+        previous = stamp;
+      }
+    }
+    if (previous != first) {
+      total.record(Math.max(0, previous - first));
+    }
+  }
+
+  /**
+   * Starts tracking a trace for a request which has no object of its own to carry it.
+   */
+  public void begin(Object key, P phase) {
+    begin(key, phase, System.nanoTime());
+  }
+
+  public void begin(Object key, P phase, long nanos) {
+    long now = System.nanoTime();
+    if (inflight.size() >= maxTracked) {
+      evictStale(now);
+      if (inflight.size() >= maxTracked) {
+        return;
+      }
+    }
+    Trace trace = newTrace();
+    trace.begun = now;
+    trace.stamp(phase, nanos);
+    inflight.put(key, trace);
+  }
+
+  private void evictStale(long now) {
+    if (now - lastSweep < sweepInterval) {
+      return;
+    }
+    lastSweep = now;
+    for (Iterator<Trace> it = inflight.values().iterator(); it.hasNext();) {
+      if (now - it.next().begun > maxAge) {
+        it.remove();
+      }
+    }
+  }
+
+  public void stamp(Object key, P phase) {
+    Trace trace = inflight.get(key);
+    if (trace != null) {
+      trace.stamp(phase);
+    }
+  }
+
+  public void end(Object key, P phase) {
+    Trace trace = inflight.remove(key);
+    if (trace != null) {
+      trace.stamp(phase);
+      complete(trace);
+    }
+  }
+
+  /**
+   * Drops a tracked trace which will never complete, for example because the client went away.
+   */
+  public void abandon(Object key) {
+    inflight.remove(key);
+  }
+
+  /**
+   * @return for each phase, and the whole request, the count and latency percentiles in microseconds
+   */
+  public Map<String, Map<String, Long>> getStatistics() {
+    Map<String, Map<String, Long>> stats = new LinkedHashMap<String, Map<String, Long>>();
+    for (int x = 1; x < phases.length; x++) {
+      stats.put(phases[x - 1].name() + "->" + phases[x].name(), summarize(histograms[x]));
+    }
+    stats.put("TOTAL", summarize(total));
+    return stats;
+  }
+
+  public void reset() {
+    for (LatencyHistogram histogram : histograms) {
+      histogram.reset();
+    }
+    total.reset();
+  }
+
+  private static Map<String, Long> summarize(LatencyHistogram histogram) {
+    Map<String, Long> summary = new LinkedHashMap<String, Long>();
+    summary.put("count", histogram.getCount());
+    summary.put("mean", TimeUnit.NANOSECONDS.toMicros(histogram.getMean()));
+    summary.put("p50", TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(50)));
+    summary.put("p99", TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(99)));
+    summary.put("max", TimeUnit.NANOSECONDS.toMicros(histogram.getMax()));
+    return summary;
+  }
+
+  public static class Trace {
+    private final long[] stamps;
+    private long begun;
+
+    private Trace(int phases) {
+      this.stamps = new long[phases];
+    }
+
+    public void stamp(Enum<?> phase) {
+      stamps[phase.ordinal()] = System.nanoTime();
+    }
+
+    public void stamp(Enum<?> phase, long nanos) {
+      stamps[phase.ordinal()] = nanos;
+    }
+  }
+}
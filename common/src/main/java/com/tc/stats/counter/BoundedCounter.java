@@ -89,6 +89,15 @@ public class BoundedCounter extends CounterImpl {
     return super.increment(amount);
   }
 
+  @Override
+  public void add(long amount) {
+    if (amount < 0) {
+      decrement(amount * -1);
+    } else {
+      increment(amount);
+    }
+  }
+
   @Override
   public synchronized void setValue(long newValue) {
     if (newValue < minBound) {
@@ -37,4 +37,9 @@ public interface Counter {
 
   void setValue(long newValue);
 
+  /**
+   * Adds to the value without reading it back; the cheapest way to record into a counter from a hot path.
+   */
+  void add(long amount);
+
 }
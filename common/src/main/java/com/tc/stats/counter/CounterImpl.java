@@ -70,4 +70,9 @@ public class CounterImpl implements Counter, Serializable {
     value.set(newValue);
   }
 
+  @Override
+  public void add(long amount) {
+    value.addAndGet(amount);
+  }
+
 }
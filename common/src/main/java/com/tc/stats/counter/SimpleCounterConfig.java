@@ -33,6 +33,6 @@ public class SimpleCounterConfig implements CounterConfig {
 
   @Override
   public Counter createCounter() {
-    return new CounterImpl(initialValue);
+    return new StripedCounterImpl(initialValue);
   }
 }
@@ -0,0 +1,142 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.stats.counter;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter whose value is spread over striped cells so that threads recording concurrently do not contend on a single
+ * cache line.  Updates never block; the value is the sum of the cells at the time it is read.
+ * <p>
+ * Until two updates collide the counter is a single {@code AtomicLong}; the cells are only allocated for counters which
+ * are actually contended, so the many per-channel counters which are not cost no more than a {@link CounterImpl}.
+ * <p>
+ * Recording should go through {@link #add(long)}, which does not read the value back.  The {@code increment} and
+ * {@code decrement} methods have to sum every cell to return the new value, and that value is already stale if another
+ * thread is updating concurrently.
+ * <p>
+ * Setting the value is done by adding the difference to the cells rather than clearing them, so an update which races
+ * with {@link #getAndSet(long)} is never lost: it is either part of the value returned or part of the value set.
+ */
+public class StripedCounterImpl implements Counter, Serializable {
+  // one cell per cache line, so that neighbouring cells are not written through the same line
+  private static final int PAD         = 8;
+  // each contended counter costs STRIPES * 64 bytes, so stop at a size well past the point contention is spread out
+  private static final int MAX_STRIPES = 64;
+  private static final int STRIPES     = stripes(Runtime.getRuntime().availableProcessors());
+
+  private final AtomicLong         base = new AtomicLong();
+  private volatile AtomicLongArray cells;
+
+  public StripedCounterImpl() {
+    this(0L);
+  }
+
+  public StripedCounterImpl(long initialValue) {
+    base.set(initialValue);
+  }
+
+  private static int stripes(int processors) {
+    int stripes = 1;
+    while (stripes < processors && stripes < MAX_STRIPES) {
+      stripes <<= 1;
+    }
+    return stripes;
+  }
+
+  @Override
+  public void add(long amount) {
+    AtomicLongArray c = cells;
+    if (c == null) {
+      long current = base.get();
+      if (base.compareAndSet(current, current + amount)) { return; }
+      c = inflate();
+    }
+    long id = Thread.currentThread().getId();
+    int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+    c.getAndAdd(((hash >>> 16) & (STRIPES - 1)) * PAD, amount);
+  }
+
+  private AtomicLongArray inflate() {
+    synchronized (base) {
+      if (cells == null) {
+        cells = new AtomicLongArray(STRIPES * PAD);
+      }
+      return cells;
+    }
+  }
+
+  private long sum() {
+    long sum = base.get();
+    AtomicLongArray c = cells;
+    if (c != null) {
+      for (int i = 0; i < STRIPES * PAD; i += PAD) {
+        sum += c.get(i);
+      }
+    }
+    return sum;
+  }
+
+  @Override
+  public long increment() {
+    add(1);
+    return sum();
+  }
+
+  @Override
+  public long decrement() {
+    add(-1);
+    return sum();
+  }
+
+  @Override
+  public long increment(long amount) {
+    add(amount);
+    return sum();
+  }
+
+  @Override
+  public long decrement(long amount) {
+    add(amount * -1);
+    return sum();
+  }
+
+  @Override
+  public long getValue() {
+    return sum();
+  }
+
+  /**
+   * Only serialized against other sets; concurrent updates proceed and land on one side of the set or the other.
+   */
+  @Override
+  public synchronized long getAndSet(long newValue) {
+    long current = sum();
+    add(newValue - current);
+    return current;
+  }
+
+  @Override
+  public void setValue(long newValue) {
+    getAndSet(newValue);
+  }
+
+}
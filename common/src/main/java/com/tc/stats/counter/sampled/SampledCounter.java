@@ -76,6 +76,11 @@ public interface SampledCounter extends Counter {
       //
     }
 
+    @Override
+    public void add(long amount) {
+      //
+    }
+
     @Override
     public long getAndReset() {
       return 0;
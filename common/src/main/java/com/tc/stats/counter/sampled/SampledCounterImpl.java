@@ -18,14 +18,15 @@
  */
 package com.tc.stats.counter.sampled;
 
-import com.tc.stats.counter.CounterImpl;
+import com.tc.stats.counter.StripedCounterImpl;
 
 import java.util.TimerTask;
 
 /**
- * A counter that keeps sampled values
+ * A counter that keeps sampled values.  Recording threads only touch their own stripe; a sample reads the stripes
+ * and, when resetting, subtracts what it read so that nothing recorded concurrently with the sample is lost.
  */
-public class SampledCounterImpl extends CounterImpl implements SampledCounter {
+public class SampledCounterImpl extends StripedCounterImpl implements SampledCounter {
   protected final boolean                                     resetOnSample;
   private final TimerTask                                     samplerTask;
   private final long                                          intervalMillis;
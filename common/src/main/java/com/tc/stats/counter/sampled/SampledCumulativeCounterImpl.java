@@ -18,21 +18,21 @@
  */
 package com.tc.stats.counter.sampled;
 
-import java.util.concurrent.atomic.AtomicLong;
+import com.tc.stats.counter.StripedCounterImpl;
 
 public class SampledCumulativeCounterImpl extends SampledCounterImpl implements SampledCumulativeCounter {
 
-  private AtomicLong cumulativeCount;
+  private final StripedCounterImpl cumulativeCount;
 
   public SampledCumulativeCounterImpl(SampledCounterConfig config) {
     super(config);
-    cumulativeCount = new AtomicLong(config.getInitialValue());
+    cumulativeCount = new StripedCounterImpl(config.getInitialValue());
   }
 
   @Override
   public long getCumulativeValue() {
     if (resetOnSample) {
-      return cumulativeCount.get();
+      return cumulativeCount.getValue();
     } else {
       return getValue();
     }
@@ -40,26 +40,32 @@ public class SampledCumulativeCounterImpl extends SampledCounterImpl implements
 
   @Override
   public long decrement() {
-    cumulativeCount.decrementAndGet();
+    cumulativeCount.add(-1);
     return super.decrement();
   }
 
   @Override
   public long decrement(long amount) {
-    cumulativeCount.addAndGet(amount * -1);
+    cumulativeCount.add(amount * -1);
     return super.decrement(amount);
   }
 
   @Override
   public long increment() {
-    cumulativeCount.incrementAndGet();
+    cumulativeCount.add(1);
     return super.increment();
   }
 
   @Override
   public long increment(long amount) {
-    cumulativeCount.addAndGet(amount);
+    cumulativeCount.add(amount);
     return super.increment(amount);
   }
 
+  @Override
+  public void add(long amount) {
+    cumulativeCount.add(amount);
+    super.add(amount);
+  }
+
 }
@@ -111,4 +111,9 @@ public class SampledRateCounterImpl extends SampledCounterImpl implements Sample
     throw new UnsupportedOperationException(OPERATION_NOT_SUPPORTED_MSG);
   }
 
+  @Override
+  public void add(long amount) {
+    throw new UnsupportedOperationException(OPERATION_NOT_SUPPORTED_MSG);
+  }
+
 }
@@ -0,0 +1,115 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.util.concurrent;
+
+/**
+ * Spin budget for a single thread which busy polls for work before falling back to a blocking wait. The budget doubles
+ * every time spinning finds work and halves every time it runs out, so a thread on a quiet queue soon stops burning a
+ * core while one on a busy queue keeps spinning.
+ * <p>
+ * Only the owning thread may call {@link #found(int)}, {@link #parked(int)} and {@link #idle(int)}; the statistics can
+ * be read from anywhere.
+ */
+public final class AdaptiveSpinner {
+  private static final int YIELD_EVERY = 64;
+
+  private final int        maxSpins;
+  private final int        minSpins;
+  private int              spins;
+
+  private volatile long    hits;
+  private volatile long    parks;
+  private volatile long    idlePolls;
+
+  /**
+   * @param maxSpins most polls to make before blocking, 0 or less disables spinning
+   */
+  public AdaptiveSpinner(int maxSpins) {
+    this.maxSpins = Math.max(0, maxSpins);
+    this.minSpins = Math.min(this.maxSpins, YIELD_EVERY);
+    this.spins = this.maxSpins;
+  }
+
+  public boolean isEnabled() {
+    return this.maxSpins > 0;
+  }
+
+  /**
+   * @return number of empty polls to make before blocking
+   */
+  public int getSpins() {
+    return this.spins;
+  }
+
+  /**
+   * Called between two empty polls. Gives up the processor now and then so spinning threads can not starve the ones
+   * doing the work.
+   */
+  public void idle(int poll) {
+    if (poll % YIELD_EVERY == YIELD_EVERY - 1) {
+      Thread.yield();
+    }
+  }
+
+  /**
+   * Work showed up after the given number of empty polls.
+   */
+  public void found(int polls) {
+    if (polls == 0) { return; }
+    this.hits++;
+    this.idlePolls += polls;
+    this.spins = Math.min(this.maxSpins, this.spins << 1);
+  }
+
+  /**
+   * The budget ran out after the given number of empty polls and the thread is about to block.
+   */
+  public void parked(int polls) {
+    this.parks++;
+    this.idlePolls += polls;
+    this.spins = Math.max(this.minSpins, this.spins >> 1);
+  }
+
+  /**
+   * @return times spinning found work without having to block
+   */
+  public long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * @return times the budget ran out and the thread blocked
+   */
+  public long getParks() {
+    return this.parks;
+  }
+
+  /**
+   * @return polls which found nothing, roughly the cpu spent on spinning
+   */
+  public long getIdlePolls() {
+    return this.idlePolls;
+  }
+
+  @Override
+  public String toString() {
+    return "spins=" + this.spins + "/" + this.maxSpins + ", hits=" + this.hits + ", parks=" + this.parks
+           + ", idlePolls=" + this.idlePolls;
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.util.concurrent;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A concurrent map which also hands out an array snapshot of its values.  Unlike {@link CopyOnWriteSequentialMap},
+ * updates never copy the map: they bump a modification count and the snapshot is rebuilt by the next reader that
+ * finds it out of date.  A burst of updates therefore costs one copy rather than one per update, and readers between
+ * updates share the same array.
+ * <p>
+ * The arrays returned by {@link #valuesSnapshot()} are shared between callers and must not be modified.  Iteration order
+ * is not defined.
+ */
+public class ConcurrentSnapshotMap<K, V> {
+  private final ConcurrentMap<K, V> map;
+  private final V[]                 empty;
+  private final AtomicLong          modCount = new AtomicLong();
+  private volatile Snapshot<V>      snapshot;
+
+  /**
+   * @param empty a zero length array of the value type, used to type the snapshots
+   */
+  public ConcurrentSnapshotMap(V[] empty) {
+    this(16, empty);
+  }
+
+  public ConcurrentSnapshotMap(int initialCapacity, V[] empty) {
+    this.map = new ConcurrentHashMap<K, V>(initialCapacity, 0.75f, 64);
+    this.empty = empty;
+    this.snapshot = new Snapshot<V>(0, empty);
+  }
+
+  public V get(Object key) {
+    return map.get(key);
+  }
+
+  public boolean containsKey(Object key) {
+    return map.containsKey(key);
+  }
+
+  public int size() {
+    return map.size();
+  }
+
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  public V put(K key, V value) {
+    V old = map.put(key, value);
+    modCount.incrementAndGet();
+    return old;
+  }
+
+  public V remove(Object key) {
+    V old = map.remove(key);
+    if (old != null) {
+      modCount.incrementAndGet();
+    }
+    return old;
+  }
+
+  public void clear() {
+    map.clear();
+    modCount.incrementAndGet();
+  }
+
+  /**
+   * @return a read-only, weakly consistent view of the keys
+   */
+  public Set<K> keySet() {
+    return Collections.unmodifiableSet(map.keySet());
+  }
+
+  /**
+   * @return the values as of some point during this call, shared with other callers so not to be modified
+   */
+  public V[] valuesSnapshot() {
+    // read the count first: a snapshot tagged with it holds at least every update counted before it was read
+    long current = modCount.get();
+    Snapshot<V> last = snapshot;
+    if (last.modCount == current) {
+      return last.values;
+    }
+    V[] values = map.values().toArray(empty);
+    snapshot = new Snapshot<V>(current, values);
+    return values;
+  }
+
+  private static class Snapshot<V> {
+    private final long modCount;
+    private final V[]  values;
+
+    Snapshot(long modCount, V[] values) {
+      this.modCount = modCount;
+      this.values = values;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.util.concurrent;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates virtual threads when the running JDK has them, and daemon platform threads otherwise.
+ * <p>
+ * The builder API is looked up reflectively so this compiles against, and runs on, JDKs without it.
+ */
+public final class VirtualThreads {
+  private static final Method OF_VIRTUAL;
+  private static final Method NAME;
+  private static final Method HANDLER;
+  private static final Method UNSTARTED;
+
+  static {
+    Method ofVirtual = null;
+    Method name = null;
+    Method handler = null;
+    Method unstarted = null;
+    try {
+      Class<?> builder = Class.forName("java.lang.Thread$Builder");
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      name = builder.getMethod("name", String.class);
+      handler = builder.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class);
+      unstarted = builder.getMethod("unstarted", Runnable.class);
+    } catch (Exception e) {
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    NAME = name;
+    HANDLER = handler;
+    UNSTARTED = unstarted;
+  }
+
+  private VirtualThreads() {
+    // no instances
+  }
+
+  public static boolean isSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * Returns an unstarted thread running {@code task}.  A virtual thread can not join a {@link ThreadGroup}, so the
+   * group only becomes its uncaught exception handler.
+   *
+   * @param virtual : Use a virtual thread if the JDK supports them
+   */
+  public static Thread newThread(boolean virtual, ThreadGroup group, String name, Runnable task) {
+    if (virtual && isSupported()) {
+      try {
+        Object builder = OF_VIRTUAL.invoke(null);
+        builder = NAME.invoke(builder, name);
+        if (group != null) {
+          builder = HANDLER.invoke(builder, group);
+        }
+        return (Thread) UNSTARTED.invoke(builder, task);
+      } catch (Exception e) {
+        throw new IllegalStateException("Could not create virtual thread " + name, e);
+      }
+    }
+    Thread thread = new Thread(group, task, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+}
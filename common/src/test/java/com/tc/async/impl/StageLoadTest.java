@@ -0,0 +1,149 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.async.impl;
+
+import com.tc.async.api.AbstractEventHandler;
+import com.tc.async.api.MultiThreadedEventContext;
+import com.tc.async.api.Sink;
+import com.tc.async.api.Stage;
+import com.tc.lang.TCThreadGroup;
+import com.tc.lang.ThrowableHandlerImpl;
+import com.tc.logging.TCLogging;
+import com.tc.properties.TCPropertiesImpl;
+import com.tc.util.concurrent.QueueFactory;
+import com.tc.util.concurrent.VirtualThreads;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import junit.framework.TestCase;
+
+/**
+ * Compares stages on platform and on virtual workers under load.  Many clients each keep one request in flight through
+ * a partitioned stage whose handler blocks for a while, the way an invoke waits on its passives.  The same load runs
+ * through a stage with a hand-tuned count of platform workers and then through one on virtual workers.  Where the JDK
+ * has virtual threads, the virtual stage has to get more requests through; otherwise both runs use platform threads
+ * and only have to make progress.  The stageload.* system properties scale the load up for a longer run by hand.
+ */
+public class StageLoadTest extends TestCase {
+  private static final int  CLIENTS          = Integer.getInteger("stageload.clients", 256);
+  private static final long BLOCK_NANOS      = TimeUnit.MICROSECONDS.toNanos(Long.getLong("stageload.blockMicros", 1000));
+  private static final long WARMUP_MILLIS    = Long.getLong("stageload.warmupMillis", 500);
+  private static final long RUN_MILLIS       = Long.getLong("stageload.runMillis", 2000);
+  private static final int  PLATFORM_WORKERS = Integer.getInteger("stageload.platformWorkers", 16);
+
+  public void testPlatformAgainstVirtualWorkers() throws Exception {
+    long platform = run("loadPlatform", false);
+    long virtual = run("loadVirtual", true);
+    System.out.println(CLIENTS + " clients, handler blocking " + TimeUnit.NANOSECONDS.toMicros(BLOCK_NANOS) + "us");
+    System.out.println("platform workers (" + PLATFORM_WORKERS + "): " + platform + " requests/s");
+    System.out.println((VirtualThreads.isSupported() ? "virtual workers: " : "virtual workers (unsupported, ran on platform threads): ")
+                       + virtual + " requests/s");
+    assertTrue(platform > 0);
+    assertTrue(virtual > 0);
+    if (VirtualThreads.isSupported()) {
+      // the platform stage can have at most PLATFORM_WORKERS requests blocked at once, the virtual one many more
+      assertTrue("virtual " + virtual + " not above platform " + platform, virtual > platform);
+    }
+  }
+
+  private long run(String stageName, boolean virtual) throws Exception {
+    TCPropertiesImpl.getProperties().setProperty("seda." + stageName + ".virtualthreads", Boolean.toString(virtual));
+    StageManagerImpl manager = new StageManagerImpl(new TCThreadGroup(new ThrowableHandlerImpl(TCLogging.getLogger(StageManagerImpl.class))), new QueueFactory<Request>());
+    Stage<Request> stage = manager.createStage(stageName, Request.class, new BlockingHandler(), PLATFORM_WORKERS, 0);
+    stage.start(new ConfigurationContextImpl(null));
+
+    AtomicBoolean running = new AtomicBoolean(true);
+    AtomicLong completed = new AtomicLong();
+    Thread[] clients = new Thread[CLIENTS];
+    for (int i = 0; i < CLIENTS; i++) {
+      clients[i] = new Thread(new Client(i, stage.getSink(), running, completed), stageName + " client " + i);
+      clients[i].setDaemon(true);
+      clients[i].start();
+    }
+    Thread.sleep(WARMUP_MILLIS);
+    long start = completed.get();
+    Thread.sleep(RUN_MILLIS);
+    long end = completed.get();
+    running.set(false);
+    for (Thread client : clients) {
+      client.join();
+    }
+    manager.stopAll();
+    return (end - start) * 1000 / RUN_MILLIS;
+  }
+
+  private static class Request implements MultiThreadedEventContext {
+    private final Integer client;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    Request(int client) {
+      this.client = client;
+    }
+
+    @Override
+    public Object getSchedulingKey() {
+      return client;
+    }
+
+    @Override
+    public boolean flush() {
+      return false;
+    }
+  }
+
+  private static class BlockingHandler extends AbstractEventHandler<Request> {
+    @Override
+    public void handleEvent(Request context) {
+      LockSupport.parkNanos(BLOCK_NANOS);
+      context.done.countDown();
+    }
+  }
+
+  private static class Client implements Runnable {
+    private final int id;
+    private final Sink<Request> sink;
+    private final AtomicBoolean running;
+    private final AtomicLong completed;
+
+    Client(int id, Sink<Request> sink, AtomicBoolean running, AtomicLong completed) {
+      this.id = id;
+      this.sink = sink;
+      this.running = running;
+      this.completed = completed;
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (running.get()) {
+          Request request = new Request(id);
+          sink.addMultiThreaded(request);
+          request.done.await();
+          completed.incrementAndGet();
+        }
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
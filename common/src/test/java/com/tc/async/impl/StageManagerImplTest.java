@@ -26,7 +26,9 @@ import com.tc.lang.TCThreadGroup;
 import com.tc.lang.ThrowableHandlerImpl;
 import com.tc.logging.TCLogger;
 import com.tc.logging.TCLogging;
+import com.tc.properties.TCPropertiesImpl;
 import com.tc.util.concurrent.QueueFactory;
+import com.tc.util.concurrent.VirtualThreads;
 
 import junit.framework.TestCase;
 
@@ -164,6 +166,26 @@ public class StageManagerImplTest extends TestCase {
     stageManager.stopAll();
   }
   
+  public void testVirtualStageQueueCount() throws Exception {
+    TCPropertiesImpl.getProperties().setProperty("seda.virtualPartitioned.virtualthreads", "true");
+    TCPropertiesImpl.getProperties().setProperty("seda.virtualOrdered.virtualthreads", "true");
+    multiThreadedStageManager.createStage("virtualPartitioned", TestMultiThreadedEventContext.class, multiThreadedTestEventHandler, 3, 30);
+    multiThreadedStageManager.createStage("virtualOrdered", TestMultiThreadedEventContext.class, multiThreadedTestEventHandler, 1, 30);
+    StageImpl<TestMultiThreadedEventContext> partitioned = (StageImpl<TestMultiThreadedEventContext>) multiThreadedStageManager.getStage("virtualPartitioned", TestMultiThreadedEventContext.class);
+    StageImpl<TestMultiThreadedEventContext> ordered = (StageImpl<TestMultiThreadedEventContext>) multiThreadedStageManager.getStage("virtualOrdered", TestMultiThreadedEventContext.class);
+    // Only a partitioned stage gets more queues, and only when its workers really are virtual.
+    assertEquals(VirtualThreads.isSupported() ? 256 : 3, partitioned.getQueueStats().length);
+    assertEquals(1, ordered.getQueueStats().length);
+
+    for (int i = 0; i < 9; i++) {
+      partitioned.getSink().addMultiThreaded(new TestMultiThreadedEventContext(Integer.toString(i)));
+    }
+    partitioned.start(new ConfigurationContextImpl(null));
+    ordered.start(new ConfigurationContextImpl(null));
+    multiThreadedTestEventHandler.waitForEventContextCount(9, 60, SECONDS);
+    multiThreadedStageManager.stopAll();
+  }
+
   /*
    * @see TestCase#tearDown()
    */
@@ -18,6 +18,7 @@
  */
 package com.tc.async.impl;
 
+import com.tc.async.api.EventHandler;
 import com.tc.async.api.MultiThreadedEventContext;
 import com.tc.logging.DefaultLoggerProvider;
 import com.tc.logging.TCLoggerProvider;
@@ -184,4 +185,31 @@ public class StageQueueImplTest {
     impl.addMultiThreaded(cxt);
     Assert.assertFalse(cxts.get(5).isEmpty());
   }
+
+  @Test
+  public void testLatencyRecordedWhenMonitored() throws Exception {
+    TCLoggerProvider logger = new DefaultLoggerProvider();
+    QueueFactory<ContextWrapper<Object>> context = mock(QueueFactory.class);
+    when(context.createInstance(Matchers.anyInt())).thenAnswer(new Answer<BlockingQueue<Object>>() {
+      @Override
+      public BlockingQueue<Object> answer(InvocationOnMock invocation) throws Throwable {
+        return new ArrayBlockingQueue<Object>((Integer)invocation.getArguments()[0]);
+      }
+    });
+    StageQueueImpl<Object> impl = new StageQueueImpl<Object>(2, context, logger, "mock", 16);
+    EventHandler<Object> handler = mock(EventHandler.class);
+    MultiThreadedEventContext cxt = mock(MultiThreadedEventContext.class);
+    when(cxt.getSchedulingKey()).thenReturn(1);
+    
+    impl.addMultiThreaded(cxt);
+    impl.getSource(1).poll(0).runWithHandler(handler);
+    assertNull(impl.getQueueStats()[1].getWaitTimes());
+    
+    impl.enableStatsCollection(true);
+    impl.addMultiThreaded(cxt);
+    impl.getSource(1).poll(0).runWithHandler(handler);
+    assertEquals(1, impl.getQueueStats()[1].getWaitTimes().getCount());
+    assertEquals(1, impl.getQueueStats()[1].getServiceTimes().getCount());
+    assertEquals(0, impl.getQueueStats()[0].getServiceTimes().getCount());
+  }
 }
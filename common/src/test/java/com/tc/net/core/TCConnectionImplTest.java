@@ -0,0 +1,261 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.net.core;
+
+import com.tc.bytes.TCByteBuffer;
+import com.tc.bytes.TCByteBufferFactory;
+import com.tc.net.protocol.NullProtocolAdaptor;
+import com.tc.net.protocol.TCNetworkHeader;
+import com.tc.net.protocol.TCNetworkMessage;
+import com.tc.test.TCTestCase;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class TCConnectionImplTest extends TCTestCase {
+
+  private ServerSocketChannel server;
+  private SocketChannel       peer;
+  private SocketChannel       channel;
+  private TCConnectionImpl    connection;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    server = ServerSocketChannel.open();
+    server.socket().bind(new InetSocketAddress("127.0.0.1", 0));
+    peer = SocketChannel.open();
+    // keep the socket buffers small so that a large message can not be written in one go
+    peer.socket().setReceiveBufferSize(4096);
+    peer.connect(server.socket().getLocalSocketAddress());
+    channel = server.accept();
+    channel.socket().setSendBufferSize(4096);
+    channel.configureBlocking(false);
+
+    SocketParams socketParams = new SocketParams();
+    CoreNIOServices commWorker = new CoreNIOServices("test comm", null, socketParams);
+    connection = new TCConnectionImpl(null, new NullProtocolAdaptor(), channel, new TCConnectionManagerImpl(),
+                                      commWorker, socketParams, null);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    channel.close();
+    peer.close();
+    server.close();
+    super.tearDown();
+  }
+
+  public void testDirectWriteFromSendingThread() throws Exception {
+    // the very first write always goes through the comm thread
+    TestMessage first = new TestMessage(bytes(100, 1));
+    connection.putMessage(first);
+    assertFalse(first.sent());
+    connection.doWrite();
+    assertTrue(first.sent());
+    assertTrue(Arrays.equals(first.data, read(first.data.length)));
+
+    // after which the sending thread writes into the idle connection itself
+    TestMessage second = new TestMessage(bytes(100, 2));
+    connection.putMessage(second);
+    assertTrue(second.sent());
+    assertTrue(Arrays.equals(second.data, read(second.data.length)));
+  }
+
+  public void testFallsBackWhenWriterLockHeld() throws Exception {
+    connection.doWrite();
+
+    final CountDownLatch locked = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    Thread writer = new Thread() {
+      @Override
+      public void run() {
+        connection.getWriterLock().lock();
+        try {
+          locked.countDown();
+          release.await();
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        } finally {
+          connection.getWriterLock().unlock();
+        }
+      }
+    };
+    writer.start();
+    assertTrue(locked.await(30, TimeUnit.SECONDS));
+
+    TestMessage message = new TestMessage(bytes(100, 3));
+    connection.putMessage(message);
+    assertFalse(message.sent());
+
+    release.countDown();
+    writer.join();
+
+    // left for the comm thread
+    connection.doWrite();
+    assertTrue(message.sent());
+    assertTrue(Arrays.equals(message.data, read(message.data.length)));
+  }
+
+  public void testDirectWriteKeepsOrderBehindQueuedBytes() throws Exception {
+    connection.doWrite();
+
+    // more than the socket takes without the peer reading, so the rest is left for the comm thread
+    TestMessage large = new TestMessage(bytes(4 * 1024 * 1024, 4));
+    connection.putMessage(large);
+    assertFalse(large.sent());
+
+    // the message queue is empty again, so this one tries to write directly but must not overtake the first
+    TestMessage small = new TestMessage(bytes(100, 5));
+    connection.putMessage(small);
+    assertFalse(small.sent());
+
+    final byte[] received = new byte[large.data.length + small.data.length];
+    final CountDownLatch done = new CountDownLatch(1);
+    Thread reader = new Thread() {
+      @Override
+      public void run() {
+        try {
+          readFully(received);
+          done.countDown();
+        } catch (IOException e) {
+          throw new AssertionError(e);
+        }
+      }
+    };
+    reader.start();
+
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(60);
+    while (!(large.sent() && small.sent())) {
+      assertTrue(System.currentTimeMillis() < deadline);
+      connection.doWrite();
+    }
+    assertTrue(done.await(60, TimeUnit.SECONDS));
+
+    byte[] expected = new byte[received.length];
+    System.arraycopy(large.data, 0, expected, 0, large.data.length);
+    System.arraycopy(small.data, 0, expected, large.data.length, small.data.length);
+    assertTrue(Arrays.equals(expected, received));
+  }
+
+  private static byte[] bytes(int length, int seed) {
+    byte[] data = new byte[length];
+    for (int i = 0; i < length; i++) {
+      data[i] = (byte) (seed + i);
+    }
+    return data;
+  }
+
+  private byte[] read(int length) throws IOException {
+    byte[] data = new byte[length];
+    readFully(data);
+    return data;
+  }
+
+  private void readFully(byte[] data) throws IOException {
+    ByteBuffer buf = ByteBuffer.wrap(data);
+    while (buf.hasRemaining()) {
+      if (peer.read(buf) < 0) { throw new IOException("EOF"); }
+    }
+  }
+
+  private static class TestMessage implements TCNetworkMessage {
+    private final byte[]         data;
+    private final CountDownLatch sent = new CountDownLatch(1);
+
+    TestMessage(byte[] data) {
+      this.data = data;
+    }
+
+    boolean sent() {
+      return sent.getCount() == 0;
+    }
+
+    @Override
+    public void wasSent() {
+      sent.countDown();
+    }
+
+    @Override
+    public TCByteBuffer[] getEntireMessageData() {
+      return new TCByteBuffer[] { TCByteBufferFactory.wrap(data) };
+    }
+
+    @Override
+    public TCByteBuffer[] getPayload() {
+      return getEntireMessageData();
+    }
+
+    @Override
+    public int getTotalLength() {
+      return data.length;
+    }
+
+    @Override
+    public int getDataLength() {
+      return data.length;
+    }
+
+    @Override
+    public int getHeaderLength() {
+      return 0;
+    }
+
+    @Override
+    public TCNetworkHeader getHeader() {
+      return null;
+    }
+
+    @Override
+    public TCNetworkMessage getMessagePayload() {
+      return null;
+    }
+
+    @Override
+    public boolean isSealed() {
+      return true;
+    }
+
+    @Override
+    public void seal() {
+      //
+    }
+
+    @Override
+    public void setSentCallback(Runnable callback) {
+      //
+    }
+
+    @Override
+    public Runnable getSentCallback() {
+      return null;
+    }
+
+    @Override
+    public void recycle() {
+      //
+    }
+  }
+}
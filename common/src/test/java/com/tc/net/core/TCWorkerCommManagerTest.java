@@ -65,7 +65,9 @@ import com.tc.properties.TCPropertiesConsts;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 public class TCWorkerCommManagerTest extends TCTestCase {
@@ -111,6 +113,19 @@ public class TCWorkerCommManagerTest extends TCTestCase {
     super.setUp();
   }
 
+  public void testRebalanceChoosesConnectionClosestToHalfTheGap() {
+    Map<String, Long> traffic = new HashMap<String, Long>();
+    traffic.put("idle", 0L);
+    traffic.put("small", 100L);
+    traffic.put("half", 480L);
+    traffic.put("whole", 1000L);
+    Assert.assertEquals("half", TCWorkerCommManager.chooseConnection(traffic, 1000));
+    // moving the only busy connection would just move the imbalance
+    traffic.remove("small");
+    traffic.remove("half");
+    Assert.assertNull(TCWorkerCommManager.chooseConnection(traffic, 1000));
+  }
+
   public void testReaderandWriterCommThread() throws Exception {
     // comms manager with 4 worker comms
     CommunicationsManager commsMgr = new CommunicationsManagerImpl("Server-TestCommsMgr", new NullMessageMonitor(),
@@ -0,0 +1,62 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.stats;
+
+import junit.framework.TestCase;
+
+public class LatencyHistogramTest extends TestCase {
+
+  public void testBucketsAreContinuous() {
+    for (int bucket = 0; bucket < 900; bucket++) {
+      long lower = LatencyHistogram.lowerBoundOf(bucket);
+      assertEquals(bucket, LatencyHistogram.bucketFor(lower));
+      assertEquals(bucket, LatencyHistogram.bucketFor(LatencyHistogram.lowerBoundOf(bucket + 1) - 1));
+    }
+    assertTrue(LatencyHistogram.bucketFor(Long.MAX_VALUE) >= 0);
+  }
+
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long x = 1; x <= 1000; x++) {
+      histogram.record(x * 1000);
+    }
+    assertEquals(1000, histogram.getCount());
+    assertEquals(1000000, histogram.getMax());
+    assertEquals(500500, histogram.getMean());
+    // within the precision of a sub-bucket
+    assertEquals(500000, histogram.getValueAtPercentile(50), 500000 / 16);
+    assertEquals(990000, histogram.getValueAtPercentile(99), 990000 / 16);
+    assertEquals(1000000, histogram.getValueAtPercentile(100), 1000000 / 16);
+  }
+
+  public void testAddAndReset() {
+    LatencyHistogram one = new LatencyHistogram();
+    LatencyHistogram two = new LatencyHistogram();
+    one.record(10);
+    two.record(20);
+    two.record(-1);
+    one.add(two);
+    assertEquals(3, one.getCount());
+    assertEquals(20, one.getMax());
+    assertEquals(0, one.getValueAtPercentile(1));
+    one.reset();
+    assertEquals(0, one.getCount());
+    assertEquals(0, one.getValueAtPercentile(50));
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.stats;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+public class PhaseTracerTest extends TestCase {
+  private enum Phase {
+    ONE, TWO, THREE
+  }
+
+  public void testDisabledSamplesNothing() {
+    PhaseTracer<Phase> tracer = new PhaseTracer<Phase>(Phase.class, 0);
+    assertFalse(tracer.isEnabled());
+    assertFalse(tracer.isSampled(0));
+  }
+
+  public void testSampling() {
+    PhaseTracer<Phase> tracer = new PhaseTracer<Phase>(Phase.class, 4);
+    assertTrue(tracer.isSampled(8));
+    assertFalse(tracer.isSampled(9));
+  }
+
+  public void testPhasesRecordedBetweenStamps() {
+    PhaseTracer<Phase> tracer = new PhaseTracer<Phase>(Phase.class, 1);
+    long start = TimeUnit.SECONDS.toNanos(1);
+    tracer.begin("key", Phase.ONE, start);
+    // an unknown key is ignored
+    tracer.stamp("other", Phase.TWO);
+    PhaseTracer.Trace trace = tracer.newTrace();
+    trace.stamp(Phase.ONE, start);
+    trace.stamp(Phase.TWO, start + TimeUnit.MILLISECONDS.toNanos(2));
+    trace.stamp(Phase.THREE, start + TimeUnit.MILLISECONDS.toNanos(5));
+    tracer.complete(trace);
+    tracer.abandon("key");
+    tracer.end("key", Phase.THREE);
+
+    Map<String, Map<String, Long>> stats = tracer.getStatistics();
+    assertEquals(1L, stats.get("ONE->TWO").get("count").longValue());
+    assertEquals(2000L, stats.get("ONE->TWO").get("max").longValue());
+    assertEquals(3000L, stats.get("TWO->THREE").get("max").longValue());
+    assertEquals(5000L, stats.get("TOTAL").get("max").longValue());
+    assertEquals(1L, stats.get("TOTAL").get("count").longValue());
+
+    tracer.reset();
+    assertEquals(0L, tracer.getStatistics().get("TOTAL").get("count").longValue());
+  }
+
+  public void testStaleTracesEvictedWhenFull() throws Exception {
+    PhaseTracer<Phase> tracer = new PhaseTracer<Phase>(Phase.class, 1, 2, TimeUnit.MILLISECONDS.toNanos(20), 0);
+    tracer.begin("lost1", Phase.ONE);
+    tracer.begin("lost2", Phase.ONE);
+    // full of recent traces, a new one is dropped
+    tracer.begin("dropped", Phase.ONE);
+    tracer.end("dropped", Phase.THREE);
+    assertEquals(0L, tracer.getStatistics().get("TOTAL").get("count").longValue());
+
+    Thread.sleep(50);
+    // the traces which never ended have gone stale and make room
+    tracer.begin("traced", Phase.ONE);
+    tracer.end("traced", Phase.THREE);
+    assertEquals(1L, tracer.getStatistics().get("TOTAL").get("count").longValue());
+  }
+}
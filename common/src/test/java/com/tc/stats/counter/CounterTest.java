@@ -35,7 +35,43 @@ public class CounterTest extends TestCase {
   }
 
   public void testConcurrency() throws InterruptedException {
-    final Counter counter = new CounterImpl();
+    doConcurrency(new CounterImpl());
+  }
+
+  public void testStripedConcurrency() throws InterruptedException {
+    doConcurrency(new StripedCounterImpl());
+  }
+
+  public void testStriped() {
+    doBasic(new StripedCounterImpl());
+    assertEquals(42L, new StripedCounterImpl(42L).getValue());
+  }
+
+  public void testAdd() {
+    doAdd(new CounterImpl());
+    doAdd(new StripedCounterImpl());
+  }
+
+  public void testBoundedAdd() {
+    Counter counter = new BoundedCounter(0L, 0L, 10L);
+    counter.add(5L);
+    assertEquals(5L, counter.getValue());
+    counter.add(20L);
+    assertEquals(10L, counter.getValue());
+    counter.add(-20L);
+    assertEquals(0L, counter.getValue());
+  }
+
+  private void doAdd(Counter counter) {
+    counter.add(5L);
+    assertEquals(5L, counter.getValue());
+    counter.add(-7L);
+    assertEquals(-2L, counter.getValue());
+    counter.add(2L);
+    assertEquals(0L, counter.getValue());
+  }
+
+  private void doConcurrency(final Counter counter) throws InterruptedException {
     final AtomicLong local = new AtomicLong(0L);
     final AtomicReference<Throwable> error = new AtomicReference<Throwable>(null);
 
@@ -47,7 +83,7 @@ public class CounterTest extends TestCase {
           try {
             Random random = new Random(hashCode());
             for (int n = 0; n < 100000; n++) {
-              int operation = random.nextInt(4);
+              int operation = random.nextInt(5);
 
               switch (operation) {
                 case 0: {
@@ -72,6 +108,12 @@ public class CounterTest extends TestCase {
                   counter.increment(amount);
                   break;
                 }
+                case 4: {
+                  long amount = random.nextLong();
+                  local.addAndGet(amount);
+                  counter.add(amount);
+                  break;
+                }
                 default: {
                   throw new RuntimeException("operation " + operation);
                 }
@@ -98,7 +140,10 @@ public class CounterTest extends TestCase {
   }
   
   public void test() {
-    Counter counter = new CounterImpl();
+    doBasic(new CounterImpl());
+  }
+
+  private void doBasic(Counter counter) {
     assertEquals(0L, counter.getValue());
 
     counter.decrement();
@@ -56,6 +56,9 @@ public class TCPropertiesConstsTest extends TCTestCase {
     
     exemptedProperties.add(TCPropertiesConsts.ENTITY_PROCESSOR_THREADS);
     exemptedProperties.add(TCPropertiesConsts.L2_SEDA_STAGE_WORKERTHREADS);
+    exemptedProperties.add(TCPropertiesConsts.L2_SEDA_HANDSHAKE_STAGE_THREADS);
+    exemptedProperties.add(TCPropertiesConsts.L2_SEDA_VOLTRON_STAGE_THREADS);
+    exemptedProperties.add(TCPropertiesConsts.L2_SEDA_RESPOND_STAGE_THREADS);
     exemptedProperties.add(TCPropertiesConsts.L2_TCCOM_WORKERTHREADS);
   
     exemptedProperties.add(TCPropertiesConsts.CLIENT_MAX_PENDING_REQUESTS);
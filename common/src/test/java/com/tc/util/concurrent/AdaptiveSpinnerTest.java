@@ -0,0 +1,65 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.util.concurrent;
+
+import junit.framework.TestCase;
+
+public class AdaptiveSpinnerTest extends TestCase {
+
+  public void testDisabled() {
+    AdaptiveSpinner spinner = new AdaptiveSpinner(0);
+    assertFalse(spinner.isEnabled());
+    assertEquals(0, spinner.getSpins());
+    assertFalse(new AdaptiveSpinner(-5).isEnabled());
+  }
+
+  public void testBudgetAdapts() {
+    AdaptiveSpinner spinner = new AdaptiveSpinner(1024);
+    assertTrue(spinner.isEnabled());
+    assertEquals(1024, spinner.getSpins());
+
+    spinner.parked(1024);
+    assertEquals(512, spinner.getSpins());
+    for (int i = 0; i < 20; i++) {
+      spinner.parked(spinner.getSpins());
+    }
+    // never drops below the floor
+    assertEquals(64, spinner.getSpins());
+
+    spinner.found(10);
+    assertEquals(128, spinner.getSpins());
+    for (int i = 0; i < 20; i++) {
+      spinner.found(1);
+    }
+    assertEquals(1024, spinner.getSpins());
+
+    assertEquals(21, spinner.getHits());
+    assertEquals(21, spinner.getParks());
+  }
+
+  public void testImmediateWorkIsNotAHit() {
+    AdaptiveSpinner spinner = new AdaptiveSpinner(100);
+    spinner.parked(100);
+    int spins = spinner.getSpins();
+    spinner.found(0);
+    assertEquals(0, spinner.getHits());
+    assertEquals(spins, spinner.getSpins());
+    assertEquals(100, spinner.getIdlePolls());
+  }
+}
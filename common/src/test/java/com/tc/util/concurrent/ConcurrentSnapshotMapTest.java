@@ -0,0 +1,95 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.util.concurrent;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import junit.framework.TestCase;
+
+public class ConcurrentSnapshotMapTest extends TestCase {
+
+  public void testSnapshotIsSharedUntilChanged() {
+    ConcurrentSnapshotMap<Integer, String> map = new ConcurrentSnapshotMap<Integer, String>(new String[0]);
+    assertEquals(0, map.valuesSnapshot().length);
+
+    map.put(1, "one");
+    map.put(2, "two");
+    String[] first = map.valuesSnapshot();
+    assertEquals(new HashSet<String>(Arrays.asList("one", "two")), new HashSet<String>(Arrays.asList(first)));
+    assertSame(first, map.valuesSnapshot());
+
+    map.remove(1);
+    String[] second = map.valuesSnapshot();
+    assertNotSame(first, second);
+    assertEquals(Arrays.asList("two"), Arrays.asList(second));
+    // the earlier snapshot is left as it was
+    assertEquals(2, first.length);
+  }
+
+  public void testRemovingAbsentKeyKeepsSnapshot() {
+    ConcurrentSnapshotMap<Integer, String> map = new ConcurrentSnapshotMap<Integer, String>(new String[0]);
+    map.put(1, "one");
+    String[] snapshot = map.valuesSnapshot();
+    assertNull(map.remove(2));
+    assertSame(snapshot, map.valuesSnapshot());
+  }
+
+  public void testMapOperations() {
+    ConcurrentSnapshotMap<Integer, String> map = new ConcurrentSnapshotMap<Integer, String>(new String[0]);
+    assertTrue(map.isEmpty());
+    assertNull(map.put(1, "one"));
+    assertEquals("one", map.put(1, "uno"));
+    assertEquals("uno", map.get(1));
+    assertTrue(map.containsKey(1));
+    assertEquals(1, map.size());
+    assertEquals(new HashSet<Integer>(Arrays.asList(1)), new HashSet<Integer>(map.keySet()));
+    try {
+      map.keySet().remove(1);
+      fail();
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertEquals(0, map.valuesSnapshot().length);
+  }
+
+  public void testConcurrentUpdatesAreSeen() throws Exception {
+    final ConcurrentSnapshotMap<Integer, Integer> map = new ConcurrentSnapshotMap<Integer, Integer>(new Integer[0]);
+    Thread[] writers = new Thread[4];
+    for (int i = 0; i < writers.length; i++) {
+      final int base = i * 1000;
+      writers[i] = new Thread() {
+        @Override
+        public void run() {
+          for (int j = 0; j < 1000; j++) {
+            map.put(base + j, base + j);
+            map.valuesSnapshot();
+          }
+        }
+      };
+      writers[i].start();
+    }
+    for (Thread writer : writers) {
+      writer.join();
+    }
+    assertEquals(4000, map.valuesSnapshot().length);
+  }
+}
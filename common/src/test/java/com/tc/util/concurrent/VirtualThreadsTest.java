@@ -0,0 +1,75 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.util.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import junit.framework.TestCase;
+
+public class VirtualThreadsTest extends TestCase {
+
+  public void testPlatformThread() throws Exception {
+    ThreadGroup group = new ThreadGroup("test");
+    Thread thread = VirtualThreads.newThread(false, group, "platform", new Runnable() {
+      @Override
+      public void run() {
+        // nothing
+      }
+    });
+    assertEquals("platform", thread.getName());
+    assertTrue(thread.isDaemon());
+    assertSame(group, thread.getThreadGroup());
+  }
+
+  public void testRunsTask() throws Exception {
+    final CountDownLatch ran = new CountDownLatch(1);
+    final AtomicReference<String> name = new AtomicReference<String>();
+    Thread thread = VirtualThreads.newThread(true, new ThreadGroup("test"), "worker", new Runnable() {
+      @Override
+      public void run() {
+        name.set(Thread.currentThread().getName());
+        ran.countDown();
+      }
+    });
+    thread.start();
+    assertTrue(ran.await(10, TimeUnit.SECONDS));
+    assertEquals("worker", name.get());
+    thread.join();
+  }
+
+  public void testUncaughtGoesToGroup() throws Exception {
+    final CountDownLatch caught = new CountDownLatch(1);
+    ThreadGroup group = new ThreadGroup("test") {
+      @Override
+      public void uncaughtException(Thread t, Throwable e) {
+        caught.countDown();
+      }
+    };
+    Thread thread = VirtualThreads.newThread(true, group, "failing", new Runnable() {
+      @Override
+      public void run() {
+        throw new RuntimeException("expected");
+      }
+    });
+    thread.start();
+    assertTrue(caught.await(10, TimeUnit.SECONDS));
+  }
+}
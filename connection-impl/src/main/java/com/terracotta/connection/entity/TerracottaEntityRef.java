@@ -73,7 +73,7 @@ public class TerracottaEntityRef<T extends Entity, C, U> implements EntityRef<T,
   }
 
   @Override
-  public synchronized T fetchEntity(U userData) throws EntityNotFoundException, EntityVersionMismatchException {
+  public T fetchEntity(U userData) throws EntityNotFoundException, EntityVersionMismatchException {
     EntityClientEndpoint endpoint = null;
     try {
       final ClientInstanceID clientInstanceID = new ClientInstanceID(this.nextClientInstanceID.getAndIncrement());
@@ -115,6 +115,11 @@ public class DiagnosticClientEntityManager implements ClientEntityManager {
 
   }
 
+  @Override
+  public void credits(int granted) {
+
+  }
+
   @Override
   public void pause() {
 
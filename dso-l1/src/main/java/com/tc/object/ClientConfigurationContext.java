@@ -33,11 +33,13 @@ public class ClientConfigurationContext extends ConfigurationContextImpl {
   public static final String             CLUSTER_MEMBERSHIP_EVENT_STAGE              = "cluster_membership_event_stage";
   public static final String             VOLTRON_ENTITY_RESPONSE_STAGE                      = "request_ack_stage";
   public static final String             VOLTRON_ENTITY_MULTI_RESPONSE_STAGE                      = "multi_request_ack_stage";
+  public static final String             VOLTRON_ENTITY_TRANSACTION_RESPONSE_STAGE                = "transaction_response_stage";
   public static final String             SERVER_ENTITY_MESSAGE_STAGE                 = "server_entity_message_stage";
   public static final String             SERVER_ENTITY_MESSAGE_SENDER_STAGE                 = "server_entity_message_sender_stage";
 
   public static final int                MAX_PENDING_REQUESTS                        = TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.CLIENT_MAX_PENDING_REQUESTS, 5000);
   public static final int                MAX_SENT_REQUESTS                        = TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.CLIENT_MAX_SENT_REQUESTS, 200);
+  public static final boolean            SHARED_ENTITY_FETCH                      = TCPropertiesImpl.getProperties().getBoolean(TCPropertiesConsts.CLIENT_SHARED_ENTITY_FETCH, false);
   
   private final ClientEntityManager       entityManager;
   private final ClientHandshakeManager    clientHandshakeManager;
@@ -56,6 +56,7 @@ import com.tc.net.protocol.tcm.TCMessageType;
 import com.tc.net.protocol.tcm.UnknownNameException;
 import com.tc.object.msg.ClientEntityReferenceContext;
 import com.tc.object.msg.ClientHandshakeMessage;
+import com.tc.object.request.TransactionResponse;
 import com.tc.object.session.SessionID;
 import com.tc.object.tx.TransactionID;
 import com.tc.stats.Stats;
@@ -67,11 +68,13 @@ import java.nio.ByteBuffer;
 import java.util.Collections;
 
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import org.terracotta.exception.EntityNotFoundException;
@@ -84,11 +87,15 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
   private final ClientMessageChannel channel;
   private final ConcurrentMap<TransactionID, InFlightMessage> inFlightMessages;
   private final Sink<InFlightMessage> outbound;
-  private final Semaphore requestTickets;
+  private final RequestCredits requestTickets;
   private final AtomicLong currentTransactionID;
 
   private final ClientEntityStateManager stateManager;
   private final ConcurrentMap<ClientInstanceID, EntityClientEndpointImpl<?, ?>> objectStoreMap;
+  // with shared fetches, each (entity, version) has one server reference which all the local instances go through
+  private final boolean shareFetches;
+  private final Map<SharedFetchKey, SharedFetch> sharedFetches;
+  private final ConcurrentMap<ClientInstanceID, SharedFetch> sharedInstances;
     
   private final StageManager stages;
   
@@ -98,15 +105,22 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
   private boolean wasBusy = false;
   
   public ClientEntityManagerImpl(ClientMessageChannel channel, StageManager mgr) {
+    this(channel, mgr, ClientConfigurationContext.SHARED_ENTITY_FETCH);
+  }
+
+  ClientEntityManagerImpl(ClientMessageChannel channel, StageManager mgr, boolean shareFetches) {
     this.logger = new ClientIDLogger(channel, TCLogging.getLogger(ClientEntityManager.class));
     
     this.channel = channel;
 
     this.inFlightMessages = new ConcurrentHashMap<TransactionID, InFlightMessage>();
-    this.requestTickets = new Semaphore(ClientConfigurationContext.MAX_SENT_REQUESTS);
+    this.requestTickets = new RequestCredits(ClientConfigurationContext.MAX_SENT_REQUESTS);
     this.currentTransactionID = new AtomicLong();
     this.stateManager = new ClientEntityStateManager();
     this.objectStoreMap = new ConcurrentHashMap<ClientInstanceID, EntityClientEndpointImpl<?, ?>>(10240, 0.75f, 128);
+    this.shareFetches = shareFetches;
+    this.sharedFetches = new HashMap<SharedFetchKey, SharedFetch>();
+    this.sharedInstances = new ConcurrentHashMap<ClientInstanceID, SharedFetch>();
     this.stages = mgr;
     
     this.outbound = createSendStage();
@@ -223,26 +237,41 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
   @SuppressWarnings("rawtypes")
   @Override
   public EntityClientEndpoint fetchEntity(EntityID entity, long version, ClientInstanceID instance, MessageCodec<? extends EntityMessage, ? extends EntityResponse> codec, Runnable closeHook) throws EntityException {
-    return internalLookup(entity, version, instance, codec, closeHook);
+    if (shareFetches) {
+      return sharedLookup(entity, version, instance, codec, closeHook);
+    } else {
+      return internalLookup(entity, version, instance, codec, closeHook);
+    }
   }
 
   @Override
   public void handleMessage(ClientInstanceID clientInstance, byte[] message) {
+    SharedFetch shared = this.sharedInstances.get(clientInstance);
+    if (shared != null) {
+      // the server only knows the shared reference so every local instance behind it sees the message
+      for (EntityClientEndpointImpl<?, ?> local : shared.locals) {
+        deliverMessage(local, message);
+      }
+      return;
+    }
     EntityClientEndpoint<?, ?> endpoint = this.objectStoreMap.get(clientInstance);
     if (endpoint != null) {
-      EntityClientEndpointImpl<?, ?> endpointImpl = (EntityClientEndpointImpl<?, ?>) endpoint;
-      try {
-        endpointImpl.handleMessage(message);
-      } catch (MessageCodecException e) {
-        // For now (at least), we will fail on this codec exception since it indicates a serious bug in the entity
-        // implementation.
-        Assert.fail(e.getLocalizedMessage());
-      }
+      deliverMessage((EntityClientEndpointImpl<?, ?>) endpoint, message);
     } else {
       logger.info("Instance " + clientInstance + " not found. Ignoring message.");
     }
   }
 
+  private void deliverMessage(EntityClientEndpointImpl<?, ?> endpointImpl, byte[] message) {
+    try {
+      endpointImpl.handleMessage(message);
+    } catch (MessageCodecException e) {
+      // For now (at least), we will fail on this codec exception since it indicates a serious bug in the entity
+      // implementation.
+      Assert.fail(e.getLocalizedMessage());
+    }
+  }
+
   @Override
   public byte[] createEntity(EntityID entityID, long version, byte[] config) throws EntityException {
     // A create needs to be replicated.
@@ -297,7 +326,12 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
     out.duplicateAndIndent().indent().print(this.stateManager.getCurrentState()).flush();
     out.duplicateAndIndent().indent().print("inFlightMessages size: ").print(Integer.valueOf(this.inFlightMessages.size())).flush();
     out.duplicateAndIndent().indent().print("outbound size: ").print(Integer.valueOf(outbound.size())).flush();
+    out.duplicateAndIndent().indent().print("request credits: ").print(requestTickets).flush();
     out.duplicateAndIndent().indent().print("objectStoreMap size: ").print(Integer.valueOf(this.objectStoreMap.size())).flush();
+    if (shareFetches) {
+      out.duplicateAndIndent().indent().print("shared fetches: ").print(Integer.valueOf(this.sharedInstances.size())).flush();
+    }
+    out.duplicateAndIndent().indent().print("invoke latencies: ").print(InFlightMessage.getTraceStatistics()).flush();
     return out;
   }
 
@@ -352,6 +386,11 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
     requestTickets.release();
   }
 
+  @Override
+  public void credits(int granted) {
+    requestTickets.grant(granted);
+  }
+
   @Override
   public synchronized void pause() {
     stateManager.pause();
@@ -371,6 +410,11 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
       EntityID entityID = endpoint.getEntityID();
       long entityVersion = endpoint.getVersion();
       byte[] extendedReconnectData = endpoint.getExtendedReconnectData();
+      SharedFetch shared = this.sharedInstances.get(descriptor.getClientInstanceID());
+      if (shared != null && !shared.locals.isEmpty()) {
+        // the shared reference has no delegate of its own, reconnect with what the oldest local instance provides
+        extendedReconnectData = shared.locals.get(0).getExtendedReconnectData();
+      }
       ClientEntityReferenceContext context = new ClientEntityReferenceContext(entityID, entityVersion, descriptor.getClientInstanceID(), extendedReconnectData);
       handshakeMessage.addReconnectReference(context);
     }
@@ -383,6 +427,12 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
     flush = new FlushResponse();
     responderMulti.getSink().addSingleThreaded(flush);
     flush.waitForAccess();
+    // The responses read above are completed on workers keyed by transaction.  Drain every one of them too, or
+    // transactions which already completed or retired would be resent below.
+    Stage<TransactionResponse> transactionResponder = stages.getStage(ClientConfigurationContext.VOLTRON_ENTITY_TRANSACTION_RESPONSE_STAGE, TransactionResponse.class);
+    TransactionResponse transactionFlush = TransactionResponse.createFlush();
+    transactionResponder.getSink().addMultiThreaded(transactionFlush);
+    transactionFlush.waitForFlush();
     // Walk the inFlightMessages, adding them all to the handshake, since we need them to be replayed.
     for (InFlightMessage inFlight : this.inFlightMessages.values()) {
       VoltronEntityMessage message = inFlight.getMessage();
@@ -411,8 +461,18 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
         logger.error("error in shutdown", t);
       }
     }
+    for (SharedFetch shared : this.sharedInstances.values()) {
+      for (EntityClientEndpoint<?, ?> local : shared.locals) {
+        try {
+          local.didCloseUnexpectedly();
+        } catch (Throwable t) {
+          logger.error("error in shutdown", t);
+        }
+      }
+    }
     // And then drop them.
     this.objectStoreMap.clear();
+    this.sharedInstances.clear();
     notifyAll();
   }
   
@@ -476,6 +536,121 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
     return resolvedEndpoint;
   }
 
+  /**
+   * Only the first local instance of an entity fetches it from the server.  Its instance ID names the server reference,
+   * which is shared by every later instance and released when the last of them closes.
+   */
+  private <M extends EntityMessage, R extends EntityResponse> EntityClientEndpoint<M, R> sharedLookup(EntityID entity, long version, ClientInstanceID instance, MessageCodec<M, R> codec, Runnable closeHook) throws EntityException {
+    SharedFetchKey key = new SharedFetchKey(entity, version);
+    SharedFetch shared;
+    synchronized (this.sharedFetches) {
+      shared = this.sharedFetches.get(key);
+      if (shared == null) {
+        shared = new SharedFetch();
+        this.sharedFetches.put(key, shared);
+      }
+      shared.users += 1;
+    }
+    boolean added = false;
+    try {
+      synchronized (shared) {
+        if (shared.primary == null) {
+          // a failed fetch leaves this unset, so whoever is waiting behind it tries again
+          shared.primary = (EntityClientEndpointImpl<?, ?>) internalLookup(entity, version, instance, codec, null);
+          this.sharedInstances.put(instance, shared);
+        }
+      }
+      SharedRelease release = new SharedRelease(key, shared, closeHook);
+      EntityClientEndpointImpl<M, R> local = new EntityClientEndpointImpl<M, R>(entity, version, shared.primary.getEntityDescriptor(), this, shared.primary.getEntityConfiguration(), codec, release);
+      release.local = local;
+      shared.locals.add(local);
+      added = true;
+      return local;
+    } finally {
+      if (!added) {
+        synchronized (this.sharedFetches) {
+          shared.users -= 1;
+          if (shared.users == 0) {
+            this.sharedFetches.remove(key);
+          }
+        }
+      }
+    }
+  }
+
+  private static class SharedFetchKey {
+    private final EntityID entity;
+    private final long version;
+
+    SharedFetchKey(EntityID entity, long version) {
+      this.entity = entity;
+      this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      SharedFetchKey that = (SharedFetchKey) o;
+      return version == that.version && entity.equals(that.entity);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * entity.hashCode() + (int) (version ^ (version >>> 32));
+    }
+  }
+
+  private static class SharedFetch {
+    private final List<EntityClientEndpointImpl<?, ?>> locals = new CopyOnWriteArrayList<EntityClientEndpointImpl<?, ?>>();
+    // guarded by the sharedFetches map
+    private int users;
+    // guarded by this
+    private EntityClientEndpointImpl<?, ?> primary;
+  }
+
+  private class SharedRelease implements Runnable {
+    private final SharedFetchKey key;
+    private final SharedFetch shared;
+    private final Runnable closeHook;
+    private EntityClientEndpointImpl<?, ?> local;
+
+    SharedRelease(SharedFetchKey key, SharedFetch shared, Runnable closeHook) {
+      this.key = key;
+      this.shared = shared;
+      this.closeHook = closeHook;
+    }
+
+    @Override
+    public void run() {
+      boolean last;
+      shared.locals.remove(local);
+      synchronized (sharedFetches) {
+        shared.users -= 1;
+        last = shared.users == 0;
+        if (last) {
+          // a fetch from here on makes a new server reference rather than joining the one being released
+          sharedFetches.remove(key);
+        }
+      }
+      if (last) {
+        EntityClientEndpointImpl<?, ?> primary;
+        synchronized (shared) {
+          primary = shared.primary;
+        }
+        sharedInstances.remove(primary.getEntityDescriptor().getClientInstanceID());
+        primary.close();
+      }
+      if (closeHook != null) {
+        closeHook.run();
+      }
+    }
+  }
+
   private void internalRelease(EntityDescriptor entityDescriptor, Runnable closeHook) throws EntityException {
     // See if the connection has already been closed.
     ConnectionClosedException alreadyClosed = null;
@@ -678,6 +853,16 @@ public class ClientEntityManagerImpl implements ClientEntityManager {
       throw new UnsupportedOperationException("Not supported yet.");
     }
 
+    @Override
+    public int getCredits() {
+      return -1;
+    }
+
+    @Override
+    public void setCredits(int credits) {
+      throw new UnsupportedOperationException("Not supported yet.");
+    }
+
     public synchronized void waitForAccess() {
       boolean interrupted = false;
       while (!accessed) {
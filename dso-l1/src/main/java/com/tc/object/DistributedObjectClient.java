@@ -88,6 +88,9 @@ import com.tc.object.msg.ListRegisteredServicesMessage;
 import com.tc.object.msg.ListRegisteredServicesResponseMessage;
 import com.tc.object.request.MultiRequestReceiveHandler;
 import com.tc.object.request.RequestReceiveHandler;
+import com.tc.object.request.ResponseDispatcher;
+import com.tc.object.request.TransactionResponse;
+import com.tc.object.request.TransactionResponseHandler;
 import com.tc.object.servermessage.ServerMessageReceiveHandler;
 import com.tc.object.session.SessionManager;
 import com.tc.object.session.SessionManagerImpl;
@@ -314,11 +317,19 @@ public class DistributedObjectClient implements TCClient {
     DSO_LOGGER.debug("Created channel.");
 
     this.clientEntityManager = this.clientBuilder.createClientEntityManager(this.channel, this.communicationStageManager);
-    RequestReceiveHandler receivingHandler = new RequestReceiveHandler(this.clientEntityManager);
-    MultiRequestReceiveHandler mutil = new MultiRequestReceiveHandler(this.clientEntityManager);
+    // responses are read in order and then completed on workers keyed by transaction, so the application threads
+    // waiting on them are not all woken by one thread
+    final int transactionResponseThreads = Math.max(1, tcProperties.getInt(TCPropertiesConsts.L1_SEDA_RESPONSE_STAGE_THREADS));
+    Stage<TransactionResponse> transactionResponseStage = this.communicationStageManager.createStage(ClientConfigurationContext.VOLTRON_ENTITY_TRANSACTION_RESPONSE_STAGE, TransactionResponse.class, new TransactionResponseHandler(this.clientEntityManager), transactionResponseThreads, maxSize);
+    ResponseDispatcher responseDispatcher = new ResponseDispatcher(this.clientEntityManager, transactionResponseStage.getSink());
+    RequestReceiveHandler receivingHandler = new RequestReceiveHandler(responseDispatcher);
+    MultiRequestReceiveHandler mutil = new MultiRequestReceiveHandler(responseDispatcher);
     Stage<VoltronEntityResponse> entityResponseStage = this.communicationStageManager.createStage(ClientConfigurationContext.VOLTRON_ENTITY_RESPONSE_STAGE, VoltronEntityResponse.class, receivingHandler, 1, maxSize);
     Stage<VoltronEntityMultiResponse> multiResponseStage = this.communicationStageManager.createStage(ClientConfigurationContext.VOLTRON_ENTITY_MULTI_RESPONSE_STAGE, VoltronEntityMultiResponse.class, mutil, 1, maxSize);
-    Stage<Void> serverMessageStage = this.communicationStageManager.createStage(ClientConfigurationContext.SERVER_ENTITY_MESSAGE_STAGE, Void.class, new ServerMessageReceiveHandler<Void>(channel), 1, maxSize);
+    // pushes are keyed by entity instance so a slow listener only holds up its own instance
+    final int serverMessageThreads = Math.max(1, tcProperties.getInt(TCPropertiesConsts.L1_SEDA_SERVERMESSAGE_STAGE_THREADS));
+    Stage<Void> serverMessageStage = this.communicationStageManager.createStage(ClientConfigurationContext.SERVER_ENTITY_MESSAGE_STAGE, Void.class, new ServerMessageReceiveHandler<Void>(channel,
+        tcProperties.getInt(TCPropertiesConsts.L1_SEDA_SERVERMESSAGE_ACK_BATCH), tcProperties.getLong(TCPropertiesConsts.L1_SEDA_SERVERMESSAGE_ACK_DELAY)), serverMessageThreads, maxSize);
 
     TerracottaOperatorEventLogging.setNodeNameProvider(new ClientNameProvider(this.cluster));
 
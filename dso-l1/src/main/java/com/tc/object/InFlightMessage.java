@@ -25,13 +25,19 @@ import com.tc.entity.NetworkVoltronEntityMessage;
 import com.tc.entity.VoltronEntityMessage;
 import com.tc.net.protocol.tcm.TCMessage;
 import com.tc.object.tx.TransactionID;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
+import com.tc.stats.PhaseTracer;
 import com.tc.util.Assert;
 
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 /**
@@ -41,6 +47,19 @@ import java.util.concurrent.TimeoutException;
  * make unit testing more direct.
  */
 public class InFlightMessage implements InvokeFuture<byte[]> {
+  public enum Phase {
+    SENT,
+    RECEIVED,
+    COMPLETED,
+    RETIRED
+  }
+
+  /**
+   * Round trip latency of sampled invokes, as seen by the client.  Enabled with {@code tc.invoke.tracing.sample}.
+   */
+  private static final PhaseTracer<Phase> TRACER = new PhaseTracer<Phase>(Phase.class,
+      TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.TC_INVOKE_TRACING_SAMPLE, 0));
+
   private final VoltronEntityMessage message;
   /**
    * The set of pending ACKs determines when the caller returns from the send, in order to preserve ordering in the
@@ -52,6 +71,9 @@ public class InFlightMessage implements InvokeFuture<byte[]> {
   // Note that the point where we wait for acks isn't exposed outside the InvokeFuture interface so this set of waiting
   // threads only applies to those threads waiting to get a response.
   private final Set<Thread> waitingThreads;
+  // a lock rather than the monitor, so that a virtual thread waiting here does not pin its carrier thread
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
 
   private boolean isSent;
   private EntityException exception;
@@ -59,6 +81,7 @@ public class InFlightMessage implements InvokeFuture<byte[]> {
   private boolean canSetResult;
   private boolean getCanComplete;
   private final boolean blockGetOnRetired;
+  private PhaseTracer.Trace trace;
 
   public InFlightMessage(VoltronEntityMessage message, Set<VoltronEntityMessage.Acks> acks, boolean shouldBlockGetOnRetire) {
     this.message = message;
@@ -85,121 +108,181 @@ public class InFlightMessage implements InvokeFuture<byte[]> {
   public boolean send() {
     Assert.assertFalse(this.isSent);
     this.isSent = true;
+    if (TRACER.isEnabled() && this.message.getVoltronType() == VoltronEntityMessage.Type.INVOKE_ACTION
+        && TRACER.isSampled(this.message.getTransactionID().toLong())) {
+      this.trace = TRACER.newTrace();
+      this.trace.stamp(Phase.SENT);
+    }
     return ((TCMessage)this.message).send();
   }
   
-  public synchronized void waitForAcks() {
-    boolean interrupted = false;
-    while (!this.pendingAcks.isEmpty()) {
-      try {
-        wait();
-      } catch (InterruptedException e) {
-        interrupted = true;
+  public void waitForAcks() {
+    lock.lock();
+    try {
+      // keeps waiting through an interrupt, leaving the thread's interrupt status set
+      while (!this.pendingAcks.isEmpty()) {
+        changed.awaitUninterruptibly();
       }
-    }
-    if (interrupted) {
-      Thread.currentThread().interrupt();
+    } finally {
+      lock.unlock();
     }
   }
 
-  public synchronized void sent() {
-    if (this.pendingAcks.remove(VoltronEntityMessage.Acks.SENT)) {
-      if (this.pendingAcks.isEmpty()) {
-        notifyAll();
+  public void sent() {
+    lock.lock();
+    try {
+      if (this.pendingAcks.remove(VoltronEntityMessage.Acks.SENT)) {
+        if (this.pendingAcks.isEmpty()) {
+          changed.signalAll();
+        }
       }
+    } finally {
+      lock.unlock();
     }
   }
 
-  public synchronized void received() {
-    if (this.pendingAcks.remove(VoltronEntityMessage.Acks.RECEIVED)) {
-      if (this.pendingAcks.isEmpty()) {
-        notifyAll();
+  public void received() {
+    lock.lock();
+    try {
+      if (this.trace != null) {
+        this.trace.stamp(Phase.RECEIVED);
+      }
+      if (this.pendingAcks.remove(VoltronEntityMessage.Acks.RECEIVED)) {
+        if (this.pendingAcks.isEmpty()) {
+          changed.signalAll();
+        }
       }
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
-  public synchronized void interrupt() {
-    for (Thread waitingThread : this.waitingThreads) {
-      waitingThread.interrupt();
+  public void interrupt() {
+    lock.lock();
+    try {
+      for (Thread waitingThread : this.waitingThreads) {
+        waitingThread.interrupt();
+      }
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
-  public synchronized boolean isDone() {
-    return this.getCanComplete;
+  public boolean isDone() {
+    lock.lock();
+    try {
+      return this.getCanComplete;
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized byte[] get() throws InterruptedException, EntityException {
-    Thread callingThread = Thread.currentThread();
-    boolean didAdd = this.waitingThreads.add(callingThread);
-    // We can't have already been waiting.
-    Assert.assertTrue(didAdd);
-    
+  public byte[] get() throws InterruptedException, EntityException {
+    lock.lock();
     try {
-      while (!this.getCanComplete) {
-        wait();
+      Thread callingThread = Thread.currentThread();
+      boolean didAdd = this.waitingThreads.add(callingThread);
+      // We can't have already been waiting.
+      Assert.assertTrue(didAdd);
+
+      try {
+        while (!this.getCanComplete) {
+          changed.await();
+        }
+      } finally {
+        // We will hit this path on interrupt, for example.
+        this.waitingThreads.remove(callingThread);
+      }
+
+      // If we didn't throw due to interruption, we fall through here.
+      if (exception != null) {
+        throw ExceptionUtils.addLocalStackTraceToEntityException(exception);
+      } else {
+        return value;
       }
     } finally {
-      // We will hit this path on interrupt, for example.
-      this.waitingThreads.remove(callingThread);
-    }
-    
-    // If we didn't throw due to interruption, we fall through here.
-    if (exception != null) {
-      throw ExceptionUtils.addLocalStackTraceToEntityException(exception);
-    } else {
-      return value;
+      lock.unlock();
     }
   }
 
   @Override
-  public synchronized byte[] getWithTimeout(long timeout, TimeUnit unit) throws InterruptedException, EntityException, TimeoutException {
-    Thread callingThread = Thread.currentThread();
-    boolean didAdd = this.waitingThreads.add(callingThread);
-    // We can't have already been waiting.
-    Assert.assertTrue(didAdd);
-    
-    long end = System.nanoTime() + unit.toNanos(timeout);
+  public byte[] getWithTimeout(long timeout, TimeUnit unit) throws InterruptedException, EntityException, TimeoutException {
+    lock.lock();
     try {
-      while (!this.getCanComplete) {
-        long timing = end - System.nanoTime();
-        if (timing <= 0) {
-          throw new TimeoutException();
-        } else {
-          wait(timing / TimeUnit.MILLISECONDS.toNanos(1), (int)(timing % TimeUnit.MILLISECONDS.toNanos(1))); 
+      Thread callingThread = Thread.currentThread();
+      boolean didAdd = this.waitingThreads.add(callingThread);
+      // We can't have already been waiting.
+      Assert.assertTrue(didAdd);
+
+      long timing = unit.toNanos(timeout);
+      try {
+        while (!this.getCanComplete) {
+          if (timing <= 0) {
+            throw new TimeoutException();
+          } else {
+            timing = changed.awaitNanos(timing);
+          }
         }
+      } finally {
+        this.waitingThreads.remove(callingThread);
+      }
+      if (exception != null) {
+        throw ExceptionUtils.addLocalStackTraceToEntityException(exception);
+      } else {
+        return value;
       }
     } finally {
-      this.waitingThreads.remove(callingThread);
+      lock.unlock();
     }
-    if (exception != null) {
-      throw ExceptionUtils.addLocalStackTraceToEntityException(exception);
-    } else {
-      return value;
+  }
+
+  public void setResult(byte[] value, EntityException error) {
+    lock.lock();
+    try {
+      if (this.trace != null) {
+        this.trace.stamp(Phase.COMPLETED);
+      }
+      this.pendingAcks.remove(VoltronEntityMessage.Acks.COMPLETED);
+      if (this.canSetResult) {
+        this.exception = error;
+        this.value = value;
+        if (!this.blockGetOnRetired) {
+          this.getCanComplete = true;
+          changed.signalAll();
+        }
+        // Determine if this can be over-written - only if we are waiting for the retired.
+        this.canSetResult = this.blockGetOnRetired;
+      }
+    } finally {
+      lock.unlock();
     }
   }
 
-  public synchronized void setResult(byte[] value, EntityException error) {
-    this.pendingAcks.remove(VoltronEntityMessage.Acks.COMPLETED);
-    if (this.canSetResult) {
-      this.exception = error;
-      this.value = value;
-      if (!this.blockGetOnRetired) {
+  public void retired() {
+    lock.lock();
+    try {
+      this.pendingAcks.remove(VoltronEntityMessage.Acks.RETIRED);
+      if (this.trace != null) {
+        this.trace.stamp(Phase.RETIRED);
+        TRACER.complete(this.trace);
+        this.trace = null;
+      }
+      if (this.blockGetOnRetired) {
         this.getCanComplete = true;
-        notifyAll();
       }
-      // Determine if this can be over-written - only if we are waiting for the retired.
-      this.canSetResult = this.blockGetOnRetired;
+      changed.signalAll();
+    } finally {
+      lock.unlock();
     }
   }
 
-  public synchronized void retired() {
-    this.pendingAcks.remove(VoltronEntityMessage.Acks.RETIRED);
-    if (this.blockGetOnRetired) {
-      this.getCanComplete = true;
-    }
-    notifyAll();
+  /**
+   * @return the per-phase latency of sampled invokes, all zero unless tracing is enabled
+   */
+  public static Map<String, Map<String, Long>> getTraceStatistics() {
+    return TRACER.getStatistics();
   }
 }
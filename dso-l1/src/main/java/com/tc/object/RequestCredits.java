@@ -0,0 +1,75 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.object;
+
+/**
+ * Bounds the number of requests a client has in flight.  The bound starts at the configured maximum and then follows
+ * the credits granted by the server, so a busy server can slow its clients down and an idle one can let them send more,
+ * though never more than the configured maximum.
+ */
+class RequestCredits {
+  private final int max;
+  private int limit;
+  private int inFlight;
+
+  RequestCredits(int max) {
+    this.max = Math.max(1, max);
+    this.limit = this.max;
+  }
+
+  /**
+   * Blocks until a request may be sent.
+   */
+  synchronized void acquire() throws InterruptedException {
+    while (inFlight >= limit) {
+      wait();
+    }
+    inFlight++;
+  }
+
+  synchronized void release() {
+    inFlight--;
+    notify();
+  }
+
+  /**
+   * Replaces the bound, capped at the configured maximum.  Requests already in flight beyond a lowered bound are left
+   * alone, new ones wait for them.
+   */
+  synchronized void grant(int credits) {
+    int old = limit;
+    limit = Math.max(1, Math.min(max, credits));
+    if (limit > old) {
+      notifyAll();
+    }
+  }
+
+  synchronized int getLimit() {
+    return limit;
+  }
+
+  synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "RequestCredits{" + "inFlight=" + inFlight + ", limit=" + limit + '}';
+  }
+}
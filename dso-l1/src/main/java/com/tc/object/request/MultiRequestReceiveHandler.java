@@ -50,5 +50,9 @@ public class MultiRequestReceiveHandler extends AbstractEventHandler<VoltronEnti
     for (TransactionID retires : response.getRetiredTransactions()) {
       handler.retired(retires);
     }
+    int credits = response.getCredits();
+    if (credits >= 0) {
+      handler.credits(credits);
+    }
   }
 }
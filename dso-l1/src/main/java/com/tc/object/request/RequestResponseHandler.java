@@ -57,4 +57,9 @@ public interface RequestResponseHandler {
    * This is the last message in the sequence, coming after either a "complete" or "failed".
    */
   void retired(TransactionID id);
+
+  /**
+   * Called when the server grants the number of requests which may be in flight at once.
+   */
+  void credits(int granted);
 }
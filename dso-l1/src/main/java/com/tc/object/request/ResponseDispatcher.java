@@ -0,0 +1,71 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.object.request;
+
+import org.terracotta.exception.EntityException;
+
+import com.tc.async.api.Sink;
+import com.tc.object.tx.TransactionID;
+
+
+/**
+ * Stands in for the request tracking handler on the stages which take response messages apart.  Each transaction's
+ * acknowledgements are queued, keyed by transaction, on a multi-threaded stage so that waking the waiting application
+ * threads is not limited to the one thread reading responses off the connection.  Credits are not tied to a transaction
+ * and are passed straight through.
+ */
+public class ResponseDispatcher implements RequestResponseHandler {
+  private final RequestResponseHandler handler;
+  private final Sink<TransactionResponse> sink;
+
+  public ResponseDispatcher(RequestResponseHandler handler, Sink<TransactionResponse> sink) {
+    this.handler = handler;
+    this.sink = sink;
+  }
+
+  @Override
+  public void received(TransactionID id) {
+    sink.addMultiThreaded(new TransactionResponse(TransactionResponse.Type.RECEIVED, id, null, null));
+  }
+
+  @Override
+  public void complete(TransactionID id) {
+    sink.addMultiThreaded(new TransactionResponse(TransactionResponse.Type.COMPLETED, id, null, null));
+  }
+
+  @Override
+  public void complete(TransactionID id, byte[] value) {
+    sink.addMultiThreaded(new TransactionResponse(TransactionResponse.Type.COMPLETED, id, value, null));
+  }
+
+  @Override
+  public void failed(TransactionID id, EntityException e) {
+    sink.addMultiThreaded(new TransactionResponse(TransactionResponse.Type.FAILED, id, null, e));
+  }
+
+  @Override
+  public void retired(TransactionID id) {
+    sink.addMultiThreaded(new TransactionResponse(TransactionResponse.Type.RETIRED, id, null, null));
+  }
+
+  @Override
+  public void credits(int granted) {
+    handler.credits(granted);
+  }
+}
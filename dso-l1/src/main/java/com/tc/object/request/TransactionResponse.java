@@ -0,0 +1,123 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.object.request;
+
+import org.terracotta.exception.EntityException;
+
+import com.tc.async.api.MultiThreadedEventContext;
+import com.tc.object.tx.TransactionID;
+
+import java.util.concurrent.CountDownLatch;
+
+
+/**
+ * One acknowledgement or result for a single transaction, split out of the response message that carried it.  These are
+ * scheduled by transaction so that every transaction sees its received, completed and retired in order while different
+ * transactions are dispatched on different threads.
+ */
+public class TransactionResponse implements MultiThreadedEventContext {
+  enum Type {
+    RECEIVED,
+    COMPLETED,
+    FAILED,
+    RETIRED,
+    FLUSH
+  }
+
+  private final Type type;
+  private final TransactionID id;
+  private final byte[] value;
+  private final EntityException failure;
+  private final CountDownLatch flushed;
+
+  TransactionResponse(Type type, TransactionID id, byte[] value, EntityException failure) {
+    this.type = type;
+    this.id = id;
+    this.value = value;
+    this.failure = failure;
+    this.flushed = (type == Type.FLUSH) ? new CountDownLatch(1) : null;
+  }
+
+  /**
+   * @return a response which passes through every queue of the stage, so that once it is dispatched everything queued
+   * ahead of it has been dispatched too
+   */
+  public static TransactionResponse createFlush() {
+    return new TransactionResponse(Type.FLUSH, null, null, null);
+  }
+
+  /**
+   * Waits for a flush response to be dispatched.
+   */
+  public void waitForFlush() {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        flushed.await();
+        break;
+      } catch (InterruptedException ie) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  void dispatch(RequestResponseHandler handler) {
+    switch (type) {
+      case RECEIVED:
+        handler.received(id);
+        break;
+      case COMPLETED:
+        if (value == null) {
+          handler.complete(id);
+        } else {
+          handler.complete(id, value);
+        }
+        break;
+      case FAILED:
+        handler.failed(id, failure);
+        break;
+      case RETIRED:
+        handler.retired(id);
+        break;
+      case FLUSH:
+        flushed.countDown();
+        break;
+      default:
+        throw new AssertionError(type);
+    }
+  }
+
+  @Override
+  public Object getSchedulingKey() {
+    return id;
+  }
+
+  @Override
+  public boolean flush() {
+    return type == Type.FLUSH;
+  }
+
+  @Override
+  public String toString() {
+    return "TransactionResponse{" + "type=" + type + ", id=" + id + '}';
+  }
+}
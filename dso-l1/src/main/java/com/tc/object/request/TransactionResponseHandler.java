@@ -0,0 +1,39 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.object.request;
+
+import com.tc.async.api.AbstractEventHandler;
+import com.tc.async.api.EventHandlerException;
+
+
+/**
+ * Delivers the per-transaction responses queued by {@link ResponseDispatcher} to the handler that tracks the requests.
+ */
+public class TransactionResponseHandler extends AbstractEventHandler<TransactionResponse> {
+  private final RequestResponseHandler handler;
+
+  public TransactionResponseHandler(RequestResponseHandler handler) {
+    this.handler = handler;
+  }
+
+  @Override
+  public void handleEvent(TransactionResponse response) throws EventHandlerException {
+    response.dispatch(handler);
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.object.servermessage;
+
+import com.tc.entity.ServerEntityResponseMessage;
+import com.tc.logging.TCLogger;
+import com.tc.logging.TCLogging;
+import com.tc.net.protocol.tcm.ClientMessageChannel;
+import com.tc.net.protocol.tcm.TCMessageType;
+
+import java.util.Arrays;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Coalesces the acknowledgements of server messages which asked for a response.  Pending acks go out together in one
+ * message once the batch is full, or once the oldest of them has waited for the flush delay.
+ */
+class ServerMessageAcks {
+  private static final TCLogger      logger = TCLogging.getLogger(ServerMessageAcks.class);
+
+  private final ClientMessageChannel channel;
+  private final int                  maxBatch;
+  private final long                 delay;
+  private final long[]               pending;
+  private int                        count;
+  private boolean                    scheduled;
+  private Timer                      timer;
+
+  ServerMessageAcks(ClientMessageChannel channel, int maxBatch, long delay) {
+    this.channel = channel;
+    this.maxBatch = Math.max(1, maxBatch);
+    this.delay = delay;
+    this.pending = new long[this.maxBatch];
+  }
+
+  void ack(long responseId) {
+    long[] batch = null;
+    synchronized (this) {
+      pending[count++] = responseId;
+      if (count == maxBatch || delay <= 0) {
+        batch = drain();
+      } else if (!scheduled) {
+        scheduled = true;
+        if (timer == null) {
+          timer = new Timer("Server message acks", true);
+        }
+        timer.schedule(new TimerTask() {
+          @Override
+          public void run() {
+            flush();
+          }
+        }, delay);
+      }
+    }
+    if (batch != null) {
+      send(batch);
+    }
+  }
+
+  void flush() {
+    long[] batch = null;
+    synchronized (this) {
+      scheduled = false;
+      if (count > 0) {
+        batch = drain();
+      }
+    }
+    if (batch != null) {
+      send(batch);
+    }
+  }
+
+  synchronized void shutdown() {
+    if (timer != null) {
+      timer.cancel();
+      timer = null;
+    }
+  }
+
+  private long[] drain() {
+    long[] batch = Arrays.copyOf(pending, count);
+    count = 0;
+    return batch;
+  }
+
+  private void send(long[] batch) {
+    ServerEntityResponseMessage response = (ServerEntityResponseMessage) channel.createMessage(TCMessageType.SERVER_ENTITY_RESPONSE_MESSAGE);
+    response.setResponseIds(batch);
+    if (!response.send()) {
+      // the channel is closed, the server stops waiting on this client's acks when it goes away
+      logger.debug("Dropped acks for " + batch.length + " server messages on closed channel " + channel);
+    }
+  }
+}
@@ -23,22 +23,26 @@ import com.tc.async.api.AbstractEventHandler;
 import com.tc.async.api.ConfigurationContext;
 import com.tc.async.api.EventHandlerException;
 import com.tc.entity.ServerEntityMessage;
-import com.tc.entity.ServerEntityResponseMessage;
 import com.tc.net.protocol.tcm.ClientMessageChannel;
-import com.tc.net.protocol.tcm.TCMessageType;
 import com.tc.object.ClientConfigurationContext;
 import com.tc.object.ClientEntityManager;
 import com.tc.object.ClientInstanceID;
-import com.tc.object.EntityDescriptor;
-import com.tc.util.Assert;
 
 
 public class ServerMessageReceiveHandler<EC> extends AbstractEventHandler<EC> {
   private ClientEntityManager clientEntityManager;
-  private final ClientMessageChannel clientMessageChannel;
+  private final ServerMessageAcks acks;
 
   public ServerMessageReceiveHandler(ClientMessageChannel clientMessageChannel) {
-    this.clientMessageChannel = clientMessageChannel;
+    this(clientMessageChannel, 1, 0);
+  }
+
+  /**
+   * @param ackBatch most acknowledgements sent together in one message
+   * @param ackDelay milliseconds an acknowledgement may wait for others to join it, 0 sends each one right away
+   */
+  public ServerMessageReceiveHandler(ClientMessageChannel clientMessageChannel, int ackBatch, long ackDelay) {
+    this.acks = new ServerMessageAcks(clientMessageChannel, ackBatch, ackDelay);
   }
 
   @Override
@@ -48,10 +52,14 @@ public class ServerMessageReceiveHandler<EC> extends AbstractEventHandler<EC> {
     clientEntityManager.handleMessage(clientInstance, message.getMessage());
     Long responseId = message.getResponseId();
     if (responseId != null) {
-      ServerEntityResponseMessage response = (ServerEntityResponseMessage) clientMessageChannel.createMessage(TCMessageType.SERVER_ENTITY_RESPONSE_MESSAGE);
-      response.setResponseId(responseId);
-      Assert.assertTrue(response.send());
-    };
+      acks.ack(responseId);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    acks.shutdown();
+    acks.flush();
   }
 
   @Override
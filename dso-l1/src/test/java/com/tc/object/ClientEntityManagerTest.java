@@ -67,6 +67,8 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import org.mockito.Mockito;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -241,6 +243,36 @@ public class ClientEntityManagerTest extends TestCase {
     assertFalse(didRelease);
   }
 
+  // Test that shared fetches of one entity make a single server reference, released by the last close.
+  public void testSharedFetchReleasedByLastClose() throws Exception {
+    final ClientEntityManagerImpl sharing = new ClientEntityManagerImpl(this.channel, this.stageMgr, true);
+    final byte[] resultObject = new byte[8];
+    ByteBuffer.wrap(resultObject).putLong(1L);
+    when(channel.createMessage(Mockito.eq(TCMessageType.VOLTRON_ENTITY_MESSAGE))).then(new Answer<TCMessage>() {
+      @Override
+      public TCMessage answer(InvocationOnMock invocation) throws Throwable {
+        return new TestRequestBatchMessage(sharing, resultObject, null, true);
+      }
+    });
+    TestFetcher first = new TestFetcher(sharing, this.entityID, 1L, this.instance);
+    first.start();
+    first.join();
+    TestFetcher second = new TestFetcher(sharing, this.entityID, 1L, new ClientInstanceID(2));
+    second.start();
+    second.join();
+    assertTrue(didFindEndpoint(first));
+    assertTrue(didFindEndpoint(second));
+    assertNotSame(first.getResult(), second.getResult());
+    // only the first fetch went to the server
+    verify(channel, times(1)).createMessage(TCMessageType.VOLTRON_ENTITY_MESSAGE);
+
+    first.close();
+    verify(channel, times(1)).createMessage(TCMessageType.VOLTRON_ENTITY_MESSAGE);
+    second.close();
+    // the last close releases the server reference
+    verify(channel, times(2)).createMessage(TCMessageType.VOLTRON_ENTITY_MESSAGE);
+  }
+
   // That that we can shut down while in a paused state without locking up.
   public void testShutdownWhilePaused() throws Exception {
     // We will create a runnable which will attempt to fetch the entity (and we will get this stuck in "WAITING" on pause).
@@ -577,10 +609,29 @@ public class ClientEntityManagerTest extends TestCase {
       throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
 
+    @Override
+    public void setArrivalTime(long nanos) {
+    }
+
+    @Override
+    public long getArrivalTime() {
+      return 0;
+    }
+
     @Override
     public EntityMessage getEntityMessage() {
       throw new UnsupportedOperationException();
     }
+
+    @Override
+    public Object getSchedulingKey() {
+      return getSource();
+    }
+
+    @Override
+    public boolean flush() {
+      return false;
+    }
   }
   
   private static class FakeSink implements Sink<Object> {
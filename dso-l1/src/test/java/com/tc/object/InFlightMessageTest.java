@@ -46,8 +46,11 @@ public class InFlightMessageTest extends TestCase {
     
     // Start the thread: it will begin progressing to the get().
     thread.start();
-    // Wait for the other thread to enter the monitor.
+    // Wait for the other thread to enter get() and then to park waiting for the result.
     message.waitOnEnter();
+    while (thread.getState() != Thread.State.WAITING) {
+      Thread.yield();
+    }
     // We can now interrupt the message and know that the other thread will receive the interrupt.
     message.interrupt();
     try {
@@ -97,10 +100,12 @@ public class InFlightMessageTest extends TestCase {
     }
 
     @Override
-    public synchronized byte[] get() throws InterruptedException, EntityException {
-      // Notify anyone waiting so that they know we now have the monitor and are going to block in get().
-      this.didEnter = true;
-      notifyAll();
+    public byte[] get() throws InterruptedException, EntityException {
+      // Notify anyone waiting so that they know we are going to block in get().
+      synchronized (this) {
+        this.didEnter = true;
+        notifyAll();
+      }
       // Call the super to actually block.
       return super.get();
     }
@@ -0,0 +1,84 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.object;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+public class RequestCreditsTest {
+
+  @Test
+  public void testGrantRaisesAndLowersLimit() throws Exception {
+    final RequestCredits credits = new RequestCredits(3);
+    credits.grant(2);
+    credits.acquire();
+    credits.acquire();
+    assertEquals(2, credits.getInFlight());
+
+    final CountDownLatch sent = new CountDownLatch(1);
+    Thread sender = new Thread() {
+      @Override
+      public void run() {
+        try {
+          credits.acquire();
+          sent.countDown();
+        } catch (InterruptedException ie) {
+          // test fails below
+        }
+      }
+    };
+    sender.start();
+    assertFalse(sent.await(200, TimeUnit.MILLISECONDS));
+
+    credits.grant(3);
+    assertTrue(sent.await(5, TimeUnit.SECONDS));
+    assertEquals(3, credits.getInFlight());
+
+    // a lower grant holds new requests back until enough have retired
+    credits.grant(1);
+    credits.release();
+    credits.release();
+    assertEquals(1, credits.getInFlight());
+    credits.release();
+    credits.acquire();
+    assertEquals(1, credits.getInFlight());
+  }
+
+  @Test
+  public void testGrantNeverDropsToZero() {
+    RequestCredits credits = new RequestCredits(10);
+    credits.grant(0);
+    assertEquals(1, credits.getLimit());
+  }
+
+  @Test
+  public void testGrantCappedAtMaximum() {
+    RequestCredits credits = new RequestCredits(10);
+    credits.grant(1024);
+    assertEquals(10, credits.getLimit());
+    credits.grant(5);
+    assertEquals(5, credits.getLimit());
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.object.request;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import org.terracotta.exception.EntityException;
+
+import com.tc.async.api.Sink;
+import com.tc.async.api.Stage;
+import com.tc.async.impl.ConfigurationContextImpl;
+import com.tc.async.impl.StageManagerImpl;
+import com.tc.lang.TCThreadGroup;
+import com.tc.lang.ThrowableHandlerImpl;
+import com.tc.logging.TCLogging;
+import com.tc.object.tx.TransactionID;
+import com.tc.util.concurrent.QueueFactory;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+
+public class ResponseDispatcherTest {
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testResponsesAreKeyedByTransaction() {
+    RequestResponseHandler handler = mock(RequestResponseHandler.class);
+    Sink<TransactionResponse> sink = mock(Sink.class);
+    ResponseDispatcher dispatcher = new ResponseDispatcher(handler, sink);
+    TransactionID one = new TransactionID(1);
+    TransactionID two = new TransactionID(2);
+    byte[] value = new byte[] { 1 };
+
+    dispatcher.received(one);
+    dispatcher.received(two);
+    dispatcher.complete(one, value);
+    dispatcher.complete(two);
+    dispatcher.retired(one);
+    dispatcher.retired(two);
+    verifyZeroInteractions(handler);
+
+    ArgumentCaptor<TransactionResponse> queued = ArgumentCaptor.forClass(TransactionResponse.class);
+    verify(sink, times(6)).addMultiThreaded(queued.capture());
+    List<TransactionResponse> responses = queued.getAllValues();
+    for (TransactionResponse response : responses) {
+      response.dispatch(handler);
+    }
+    assertEquals(one, responses.get(0).getSchedulingKey());
+    assertEquals(two, responses.get(1).getSchedulingKey());
+
+    InOrder order = inOrder(handler);
+    order.verify(handler).received(one);
+    order.verify(handler).complete(one, value);
+    order.verify(handler).retired(one);
+    order = inOrder(handler);
+    order.verify(handler).received(two);
+    order.verify(handler).complete(two);
+    order.verify(handler).retired(two);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCreditsArePassedStraightThrough() {
+    RequestResponseHandler handler = mock(RequestResponseHandler.class);
+    Sink<TransactionResponse> sink = mock(Sink.class);
+    new ResponseDispatcher(handler, sink).credits(12);
+    verify(handler).credits(12);
+    verifyZeroInteractions(sink);
+  }
+
+  @Test
+  public void testFlushWaitsForEveryQueue() throws Exception {
+    StageManagerImpl stages = new StageManagerImpl(new TCThreadGroup(new ThrowableHandlerImpl(TCLogging.getLogger(ResponseDispatcherTest.class))), new QueueFactory<TransactionResponse>());
+    SlowRetirement handler = new SlowRetirement();
+    Stage<TransactionResponse> stage = stages.createStage("transaction responses", TransactionResponse.class, new TransactionResponseHandler(handler), 4, 0);
+    stage.start(new ConfigurationContextImpl(null));
+    ResponseDispatcher dispatcher = new ResponseDispatcher(handler, stage.getSink());
+    for (int i = 1; i <= 200; ++i) {
+      dispatcher.retired(new TransactionID(i));
+    }
+
+    TransactionResponse flush = TransactionResponse.createFlush();
+    stage.getSink().addMultiThreaded(flush);
+    flush.waitForFlush();
+    assertEquals(200, handler.retired.get());
+    stages.stopAll();
+  }
+
+  private static class SlowRetirement implements RequestResponseHandler {
+    private final AtomicInteger retired = new AtomicInteger();
+
+    @Override
+    public void received(TransactionID id) {
+    }
+
+    @Override
+    public void complete(TransactionID id) {
+    }
+
+    @Override
+    public void complete(TransactionID id, byte[] value) {
+    }
+
+    @Override
+    public void failed(TransactionID id, EntityException e) {
+    }
+
+    @Override
+    public void retired(TransactionID id) {
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+      retired.incrementAndGet();
+    }
+
+    @Override
+    public void credits(int granted) {
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.object.servermessage;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.tc.entity.ServerEntityResponseMessage;
+import com.tc.net.protocol.tcm.ClientMessageChannel;
+import com.tc.net.protocol.tcm.TCMessageType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ServerMessageAcksTest {
+  private ClientMessageChannel channel;
+  private final List<long[]> sent = new ArrayList<long[]>();
+
+  @Before
+  public void setUp() {
+    channel = mock(ClientMessageChannel.class);
+    when(channel.createMessage(TCMessageType.SERVER_ENTITY_RESPONSE_MESSAGE)).thenAnswer(new Answer<ServerEntityResponseMessage>() {
+      @Override
+      public ServerEntityResponseMessage answer(InvocationOnMock invocation) {
+        ServerEntityResponseMessage message = mock(ServerEntityResponseMessage.class);
+        doAnswer(new Answer<Void>() {
+          @Override
+          public Void answer(InvocationOnMock invocation) {
+            synchronized (sent) {
+              sent.add((long[]) invocation.getArguments()[0]);
+              sent.notifyAll();
+            }
+            return null;
+          }
+        }).when(message).setResponseIds(any(long[].class));
+        when(message.send()).thenReturn(true);
+        return message;
+      }
+    });
+  }
+
+  @Test
+  public void testNoDelaySendsEachAck() {
+    ServerMessageAcks acks = new ServerMessageAcks(channel, 10, 0);
+    acks.ack(1);
+    acks.ack(2);
+    assertEquals(2, sent.size());
+    assertArrayEquals(new long[] { 1 }, sent.get(0));
+    assertArrayEquals(new long[] { 2 }, sent.get(1));
+  }
+
+  @Test
+  public void testFullBatchIsSentTogether() {
+    ServerMessageAcks acks = new ServerMessageAcks(channel, 3, 60000);
+    acks.ack(1);
+    acks.ack(2);
+    assertTrue(sent.isEmpty());
+    acks.ack(3);
+    assertEquals(1, sent.size());
+    assertArrayEquals(new long[] { 1, 2, 3 }, sent.get(0));
+    acks.shutdown();
+  }
+
+  @Test
+  public void testPartialBatchIsFlushedAfterDelay() throws Exception {
+    ServerMessageAcks acks = new ServerMessageAcks(channel, 100, 10);
+    acks.ack(7);
+    acks.ack(8);
+    synchronized (sent) {
+      long deadline = System.currentTimeMillis() + 10000;
+      while (sent.isEmpty() && System.currentTimeMillis() < deadline) {
+        sent.wait(100);
+      }
+    }
+    assertEquals(1, sent.size());
+    assertArrayEquals(new long[] { 7, 8 }, sent.get(0));
+    acks.shutdown();
+  }
+}
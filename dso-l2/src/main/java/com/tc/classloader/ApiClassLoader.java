@@ -25,21 +25,28 @@ import java.net.URLClassLoader;
  * @author vmad
  */
 public class ApiClassLoader extends URLClassLoader {
+    static {
+        registerAsParallelCapable();
+    }
+
     public ApiClassLoader(URL[] urls, ClassLoader parent) {
         super(urls, parent);
     }
 
     @Override
     protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
-      Class<?> clazz = findLoadedClass(name);
-      if(clazz == null) {
-          // try to find the class using given jars first,
-          // if not found, try loading using parent classloader.
-          try {
-              clazz = findClass(name);
-          } catch (ClassNotFoundException ignore) {
-              clazz = super.loadClass(name, resolve);
-          }
+      Class<?> clazz;
+      synchronized (getClassLoadingLock(name)) {
+        clazz = findLoadedClass(name);
+        if(clazz == null) {
+            // try to find the class using given jars first,
+            // if not found, try loading using parent classloader.
+            try {
+                clazz = findClass(name);
+            } catch (ClassNotFoundException ignore) {
+                clazz = super.loadClass(name, resolve);
+            }
+        }
       }
 
       if(clazz != null && resolve) {
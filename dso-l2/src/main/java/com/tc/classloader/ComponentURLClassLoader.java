@@ -20,13 +20,21 @@ package com.tc.classloader;
 
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  *
  */
 public class ComponentURLClassLoader extends URLClassLoader {
 
+  static {
+    registerAsParallelCapable();
+  }
+
   private final CommonComponentChecker commonComponentChecker;
+//  classes this loader handed out from its parents, so the parent lookup and the common component check are done once
+  private final ConcurrentMap<String, Class<?>> delegated = new ConcurrentHashMap<String, Class<?>>();
 
   public ComponentURLClassLoader(URL[] urls, ClassLoader parent, CommonComponentChecker commonComponentChecker) {
     super(urls, parent);
@@ -34,23 +42,31 @@ public class ComponentURLClassLoader extends URLClassLoader {
   }
 
   @Override
-  protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
-    Class<?> target = findLoadedClass(name);
+  protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+    Class<?> target = delegated.get(name);
+    if (target == null) {
+      synchronized (getClassLoadingLock(name)) {
+        target = findLoadedClass(name);
 //  if it's already loaded in this loader, return it, decision has already been made about where 
 //  to load in previous iteration
-    if (target == null) {
-      target = super.loadClass(name, resolve);
+        if (target == null) {
+          target = super.loadClass(name, false);
 // if the class is not found, ClassNotFoundException will be thrown and that is fine, class is nowhere
-      if (!commonComponentChecker.check(target)) {
+          if (!commonComponentChecker.check(target)) {
 //  not a common class as designated by annotation, see if the class is in this specific class loader for preference if it is
-        try {
-          target = findClass(name);
-        } catch (ClassNotFoundException notfound) {
+            try {
+              target = findClass(name);
+            } catch (ClassNotFoundException notfound) {
 //  it's not here in this loader, revert back to the common (already set)
-        }
-      } else {
+            }
+          } else {
   //  this is a designated common component, return it no matter where it came from 
   //  (default implementation always uses the parent classloader if the class is available there)
+          }
+          if (target.getClassLoader() != this) {
+            delegated.put(name, target);
+          }
+        }
       }
     }
     
@@ -25,9 +25,12 @@ import com.tc.logging.TCLogging;
 
 import java.io.*;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 /**
@@ -60,32 +63,26 @@ public class ServiceLocator {
       HashMap<String, String> urls = new HashMap<String, String>();
       Enumeration<URL> urlEnumeration = loader.getResources(
           METAINFCONST + interfaceName);
-      StringBuilder sb = new StringBuilder();
       while (urlEnumeration.hasMoreElements()) {
         URL x = urlEnumeration.nextElement();
-        InputStream s = x.openStream();
-        int i;
-        while ((i = s.read()) != -1) {
-          sb.append((char) i);
-        }
-        s.close();
-        String[] splits = sb.toString().split("\n");
-        for (String split : splits) {
-          String trim = split.replaceAll("\n", "").trim();
-          if(split.startsWith("#") || trim.isEmpty()) {
-            continue;
-          }
-          String urlString = x.toExternalForm();
-          if (urlString.startsWith("jar:")) {
-      //  strip the jar file notation from the URL, start index of 4 is for 'jar:'
-            urlString = urlString.substring(4, urlString.indexOf("!"));
-          } else {
-      //  strip the meta file information from the path
-            urlString = urlString.substring(0, urlString.indexOf(METAINFCONST));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(x.openStream(), "UTF-8"))) {
+          String line;
+          while ((line = reader.readLine()) != null) {
+            String trim = line.trim();
+            if(trim.startsWith("#") || trim.isEmpty()) {
+              continue;
+            }
+            String urlString = x.toExternalForm();
+            if (urlString.startsWith("jar:")) {
+        //  strip the jar file notation from the URL, start index of 4 is for 'jar:'
+              urlString = urlString.substring(4, urlString.indexOf("!"));
+            } else {
+        //  strip the meta file information from the path
+              urlString = urlString.substring(0, urlString.indexOf(METAINFCONST));
+            }
+            urls.put(trim, urlString);
           }
-          urls.put(trim, urlString);
         }
-        sb.setLength(0);
       }
       if(LOG.isDebugEnabled()) {
         LOG.debug("The list of implementation to URL to find them is " + urls.toString());
@@ -136,7 +133,11 @@ public class ServiceLocator {
     if(LOG.isDebugEnabled()) {
       LOG.debug("Discovering " + interfaceName + " with parent classloader " + parent.getClass().getName());
     }
-    ClassLoader apiLoader = getApiClassLoader(parent);
+    ApiClassLoader apiLoader = getApiClassLoader(parent);
+    return getDiscoveryIndex(apiLoader).getImplementations(interfaceName);
+  }
+  
+  private static List<Class<?>> loadImplementations(ApiClassLoader apiLoader, String interfaceName) {
     Map<String, String> urls = discoverImplementations(apiLoader, interfaceName);
     ArrayList<Class<?>> implementations = new ArrayList<Class<?>>();
     if (null == urls || urls.isEmpty()) {
@@ -147,7 +148,7 @@ public class ServiceLocator {
     }
     for (Map.Entry<String, String> entry : urls.entrySet()) {
       try {
-        ComponentURLClassLoader loader = new ComponentURLClassLoader(new URL[] {new URL(entry.getValue())}, getApiClassLoader(parent), new AnnotationOrDirectoryStrategyChecker());
+        ComponentURLClassLoader loader = new ComponentURLClassLoader(new URL[] {new URL(entry.getValue())}, apiLoader, new AnnotationOrDirectoryStrategyChecker());
         implementations.add(Class.forName(entry.getKey(), false, loader));
       } catch (MalformedURLException e) {
         throw new RuntimeException(e);
@@ -159,6 +160,71 @@ public class ServiceLocator {
     return implementations;
   }
   
+  private static final Map<ApiClassLoader, DiscoveryIndex> INDEXES = new HashMap<ApiClassLoader, DiscoveryIndex>();
+  
+  /**
+   * The index for the api loader, rebuilt if any of the jars visible to it has changed since it was built.
+   */
+  private static synchronized DiscoveryIndex getDiscoveryIndex(ApiClassLoader apiLoader) {
+    long stamp = stampJars(apiLoader);
+    DiscoveryIndex index = INDEXES.get(apiLoader);
+    if (index == null || index.stamp != stamp) {
+      if (index != null) {
+        LOG.info("plugin jars have changed, rebuilding the service discovery index");
+      }
+      index = new DiscoveryIndex(apiLoader, stamp);
+      INDEXES.put(apiLoader, index);
+    }
+    return index;
+  }
+  
+  /**
+   * Combines the timestamp and size of every file on the url class path from the loader up to, not including, 
+   * the system loader.
+   */
+  private static long stampJars(ClassLoader loader) {
+    long stamp = 17;
+    ClassLoader system = ClassLoader.getSystemClassLoader();
+    for (ClassLoader check = loader; check != null && check != system; check = check.getParent()) {
+      if (check instanceof URLClassLoader) {
+        for (URL url : ((URLClassLoader)check).getURLs()) {
+          if ("file".equals(url.getProtocol())) {
+            File file;
+            try {
+              file = new File(url.toURI());
+            } catch (URISyntaxException | IllegalArgumentException bad) {
+              file = new File(url.getPath());
+            }
+            stamp = 31 * stamp + url.hashCode();
+            stamp = 31 * stamp + file.lastModified();
+            stamp = 31 * stamp + file.length();
+          }
+        }
+      }
+    }
+    return stamp;
+  }
+  
+  /**
+   * Implementations found for each service interface through one api loader.  Finding them scans the services 
+   * files of every plugin jar and defines the implementation in its own component loader, so it is done once per 
+   * interface rather than on every lookup.
+   */
+  private static class DiscoveryIndex {
+    private final ApiClassLoader apiLoader;
+    private final long stamp;
+    private final ConcurrentMap<String, List<Class<?>>> implementations = new ConcurrentHashMap<String, List<Class<?>>>();
+
+    DiscoveryIndex(ApiClassLoader apiLoader, long stamp) {
+      this.apiLoader = apiLoader;
+      this.stamp = stamp;
+    }
+    
+    List<Class<?>> getImplementations(String interfaceName) {
+      return implementations.computeIfAbsent(interfaceName, name->Collections.unmodifiableList(loadImplementations(apiLoader, name)));
+    }
+  }
+  
   private static final Map<ClassLoader, ApiClassLoader> API_LOADERS = new HashMap<ClassLoader, ApiClassLoader>();
   
   private static synchronized ApiClassLoader getApiClassLoader(ClassLoader parent) {
@@ -180,9 +246,9 @@ public class ServiceLocator {
       chainCheck = ClassLoader.getSystemClassLoader();
     }
 // see if there is already a class
-    LOG.warn("storing a new API class loader for parent " + chainCheck);
     ApiClassLoader loader = API_LOADERS.get(chainCheck);
     if (loader == null) {
+      LOG.warn("storing a new API class loader for parent " + chainCheck);
       loader = createApiClassLoader(chainCheck);
       API_LOADERS.put(chainCheck, loader);
     }
@@ -0,0 +1,261 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.l2.logging;
+
+import org.apache.log4j.Appender;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.Filter;
+import org.apache.log4j.spi.LoggingEvent;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An {@link Appender} which hands events to a dedicated writer thread through a bounded, lock-free ring so that the
+ * threads doing the logging never wait on file I/O or on each other.  The writer drains the ring in batches and only
+ * flushes the target (if it is {@link Flushable}) once a batch has been written.
+ * <p>
+ * When the ring is full the {@link Overflow} policy decides what happens to the logging thread: either events below
+ * WARN are dropped (and the number dropped is reported once there is room again) while more severe ones wait, or every
+ * event waits for room.
+ */
+public class NonBlockingAppender extends AppenderSkeleton {
+
+  public enum Overflow {
+    DROP, BLOCK
+  }
+
+  private static final long               WRITER_PARK_NANOS   = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final long               PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final Appender                  target;
+  private final Overflow                  overflow;
+  private final int                       mask;
+  // bounded multi-producer ring, single consumer: a slot is free for position p when its sequence equals p and holds
+  // an event for position p when its sequence equals p + 1
+  private final AtomicReferenceArray<LoggingEvent> slots;
+  private final AtomicLongArray           sequences;
+  private final AtomicLong                producerPosition    = new AtomicLong();
+  private long                            consumerPosition;
+  private volatile long                   writtenPosition;
+  private final AtomicLong                dropped             = new AtomicLong();
+  private final Thread                    writer;
+  private final Thread                    shutdownHook;
+  private volatile boolean                writerParked;
+  private volatile boolean                stopped;
+
+  public NonBlockingAppender(Appender target, int capacity, Overflow overflow) {
+    this.target = target;
+    this.overflow = overflow;
+    int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+    this.mask = size - 1;
+    this.slots = new AtomicReferenceArray<LoggingEvent>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int x = 0; x < size; x++) {
+      this.sequences.set(x, x);
+    }
+    this.writer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        writeLoop();
+      }
+    }, "Log Writer - " + target.getName());
+    this.writer.setDaemon(true);
+    this.writer.start();
+    // the writer is a daemon, make sure what was logged right before exit still reaches the file
+    this.shutdownHook = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        awaitWritten(TimeUnit.SECONDS.toNanos(5));
+      }
+    }, "Log Writer Shutdown - " + target.getName());
+    Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+  }
+
+  /**
+   * Waits for everything handed off so far to be written and flushed, or for the timeout to pass.
+   */
+  void awaitWritten(long timeoutNanos) {
+    long goal = producerPosition.get();
+    long end = System.nanoTime() + timeoutNanos;
+    while (writtenPosition < goal && writer.isAlive() && System.nanoTime() < end) {
+      LockSupport.unpark(writer);
+      LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+    }
+  }
+
+  /**
+   * Overridden to avoid the synchronization in {@link AppenderSkeleton#doAppend(LoggingEvent)}.
+   */
+  @Override
+  public void doAppend(LoggingEvent event) {
+    if (closed || !isAsSevereAsThreshold(event.getLevel())) { return; }
+    for (Filter filter = getFirstFilter(); filter != null; filter = filter.getNext()) {
+      int decision = filter.decide(event);
+      if (decision == Filter.DENY) {
+        return;
+      } else if (decision == Filter.ACCEPT) {
+        break;
+      }
+    }
+    append(event);
+  }
+
+  @Override
+  protected void append(LoggingEvent event) {
+    // capture everything which depends on the logging thread, or on mutable arguments, before the handoff
+    event.getNDC();
+    event.getThreadName();
+    event.getMDCCopy();
+    event.getRenderedMessage();
+    event.getThrowableStrRep();
+
+    boolean mayDrop = overflow == Overflow.DROP && !event.getLevel().isGreaterOrEqual(Level.WARN);
+    while (!offer(event)) {
+      if (mayDrop || stopped) {
+        dropped.incrementAndGet();
+        return;
+      }
+      wakeWriter();
+      LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+    }
+    wakeWriter();
+  }
+
+  private boolean offer(LoggingEvent event) {
+    while (true) {
+      long position = producerPosition.get();
+      int index = (int) position & mask;
+      long sequence = sequences.get(index);
+      if (sequence == position) {
+        if (producerPosition.compareAndSet(position, position + 1)) {
+          slots.lazySet(index, event);
+          sequences.set(index, position + 1);
+          return true;
+        }
+      } else if (sequence < position) {
+        // full
+        return false;
+      }
+      // another producer claimed this position, retry
+    }
+  }
+
+  private LoggingEvent poll() {
+    int index = (int) consumerPosition & mask;
+    if (sequences.get(index) != consumerPosition + 1) { return null; }
+    LoggingEvent event = slots.get(index);
+    slots.lazySet(index, null);
+    sequences.set(index, consumerPosition + mask + 1);
+    consumerPosition += 1;
+    return event;
+  }
+
+  private void wakeWriter() {
+    if (writerParked) {
+      LockSupport.unpark(writer);
+    }
+  }
+
+  private void writeLoop() {
+    while (true) {
+      boolean wrote = drain();
+      if (wrote) {
+        continue;
+      }
+      if (stopped) {
+        break;
+      }
+      writerParked = true;
+      // re-check after publishing the flag so a producer which missed it cannot leave an event stranded
+      if (sequences.get((int) consumerPosition & mask) != consumerPosition + 1) {
+        LockSupport.parkNanos(this, WRITER_PARK_NANOS);
+      }
+      writerParked = false;
+    }
+    drain();
+  }
+
+  private boolean drain() {
+    boolean wrote = false;
+    LoggingEvent event;
+    while ((event = poll()) != null) {
+      try {
+        target.doAppend(event);
+      } catch (RuntimeException e) {
+        // the writer thread must survive a misbehaving target
+        errorHandler.error("failed to append to " + target.getName(), e, 0);
+      }
+      wrote = true;
+    }
+    long lost = dropped.getAndSet(0);
+    if (lost > 0) {
+      target.doAppend(new LoggingEvent(getClass().getName(), Logger.getLogger(getClass()),
+                                       Level.WARN, lost + " log messages below WARN were dropped because the logging "
+                                                   + "buffer was full", null));
+      wrote = true;
+    }
+    if (wrote && target instanceof Flushable) {
+      try {
+        ((Flushable) target).flush();
+      } catch (IOException ioe) {
+        errorHandler.error("failed to flush " + target.getName(), ioe, 0);
+      }
+    }
+    writtenPosition = consumerPosition;
+    return wrote;
+  }
+
+  @Override
+  public boolean requiresLayout() {
+    return false;
+  }
+
+  /**
+   * Writes out everything already handed off and closes the target.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (closed) { return; }
+      closed = true;
+    }
+    try {
+      Runtime.getRuntime().removeShutdownHook(shutdownHook);
+    } catch (IllegalStateException alreadyShuttingDown) {
+      // the hook is already running
+    }
+    stopped = true;
+    LockSupport.unpark(writer);
+    try {
+      writer.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+    target.close();
+  }
+
+}
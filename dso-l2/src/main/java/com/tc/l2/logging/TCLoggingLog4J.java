@@ -74,6 +74,10 @@ public class TCLoggingLog4J implements TCLoggingService {
   private static final int          DEFAULT_MAX_LOG_FILE_SIZE          = 512;
   private static final String       MAX_BACKUPS_PROPERTY               = "maxBackups";
   private static final int          DEFAULT_MAX_BACKUPS                = 20;
+  private static final String       ASYNC_ENABLED_PROPERTY             = "async.enabled";
+  private static final String       ASYNC_BUFFER_SIZE_PROPERTY         = "async.bufferSize";
+  private static final int          DEFAULT_ASYNC_BUFFER_SIZE          = 8192;
+  private static final String       ASYNC_OVERFLOW_PROPERTY            = "async.overflow";
   private static final String       LOG4J_CUSTOM_FILENAME              = ".tc.custom.log4j.properties";
   public static final String        LOG4J_PROPERTIES_FILENAME          = ".tc.dev.log4j.properties";
 
@@ -425,9 +429,21 @@ public class TCLoggingLog4J implements TCLoggingService {
         // This makes us start with a new file each time.
         newFileAppender.rollOver();
 
+        Appender fileAppender = newFileAppender;
+        if (props.getBoolean(ASYNC_ENABLED_PROPERTY, true)) {
+          // writes, flushes and roll overs happen on the writer thread, never on the thread doing the logging
+          newFileAppender.setImmediateFlush(false);
+          String overflow = props.getProperty(ASYNC_OVERFLOW_PROPERTY, true);
+          fileAppender = new NonBlockingAppender(newFileAppender,
+                                                 props.getInt(ASYNC_BUFFER_SIZE_PROPERTY, DEFAULT_ASYNC_BUFFER_SIZE),
+                                                 overflow == null ? NonBlockingAppender.Overflow.DROP
+                                                     : NonBlockingAppender.Overflow.valueOf(overflow.trim().toUpperCase()));
+          fileAppender.setName("async file appender");
+        }
+
         // Note: order of operations is very important here. We start the new appender before we close and remove the
         // old one so that you don't drop any log records.
-        Appender oldFileAppender = delegateFileAppender.setDelegate(newFileAppender);
+        Appender oldFileAppender = delegateFileAppender.setDelegate(fileAppender);
 
         if (oldFileAppender != null) {
           oldFileAppender.close();
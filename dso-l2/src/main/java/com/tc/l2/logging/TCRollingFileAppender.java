@@ -26,10 +26,11 @@ import org.apache.log4j.helpers.LogLog;
 import org.apache.log4j.spi.LoggingEvent;
 
 import java.io.File;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 
-public class TCRollingFileAppender extends RollingFileAppender {
+public class TCRollingFileAppender extends RollingFileAppender implements Flushable {
   private static final PatternLayout DUMP_PATTERN_LAYOUT  = new PatternLayout(TCLoggingLog4J.DUMP_PATTERN);
 
   private String                     fileNamePrefix       = "";
@@ -56,6 +57,16 @@ public class TCRollingFileAppender extends RollingFileAppender {
     }
   }
 
+  /**
+   * Used when writes are batched by a {@link NonBlockingAppender} instead of flushed one by one.
+   */
+  @Override
+  public synchronized void flush() {
+    if (qw != null) {
+      qw.flush();
+    }
+  }
+
   @Override
   public void rollOver() {
 
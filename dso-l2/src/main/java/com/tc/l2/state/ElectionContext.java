@@ -32,10 +32,16 @@ public class ElectionContext {
   private final WeightGeneratorFactory factory;
   private final Consumer<NodeID> winner;
   private final State currentState;
+  private final boolean lastActive;
 
   public ElectionContext(NodeID node, boolean isNew, WeightGeneratorFactory factory, State currentState, Consumer<NodeID> winner) {
+    this(node, isNew, false, factory, currentState, winner);
+  }
+
+  public ElectionContext(NodeID node, boolean isNew, boolean lastActive, WeightGeneratorFactory factory, State currentState, Consumer<NodeID> winner) {
     this.node = node;
     this.isNew = isNew;
+    this.lastActive = lastActive;
     this.factory = factory;
     this.winner = winner;
     this.currentState = currentState;
@@ -49,6 +55,14 @@ public class ElectionContext {
     return isNew;
   }
 
+  /**
+   * @return true if the persisted cluster state says this node went down as the active and no election has concluded
+   *         since it started
+   */
+  public boolean wasLastActive() {
+    return lastActive;
+  }
+
   public WeightGeneratorFactory getFactory() {
     return factory;
   }
@@ -56,6 +56,7 @@ public class ElectionManagerImpl implements ElectionManager {
   private Enrollment            myVote               = null;
   private State                 serverState;
   private Enrollment            winner;
+  private boolean               lastActive;
 
   private final long            electionTime;
   private final int             expectedServers;
@@ -81,7 +82,7 @@ public class ElectionManagerImpl implements ElectionManager {
     return new AbstractEventHandler<ElectionContext> () {
       @Override
       public void handleEvent(ElectionContext context) throws EventHandlerException {
-          context.setWinner(runElection(context.getNode(), context.isNew(), context.getFactory(), context.getCurrentState()));
+          context.setWinner(runElection(context.getNode(), context.isNew(), context.wasLastActive(), context.getFactory(), context.getCurrentState()));
       }
     };
   }
@@ -92,7 +93,7 @@ public class ElectionManagerImpl implements ElectionManager {
     if (state == ELECTION_IN_PROGRESS) {
       Enrollment vote = msg.getEnrollment();
       Enrollment old = votes.put(vote.getNodeID(), vote);
-      if (votes.size() == expectedServers) {
+      if (votes.size() == expectedServers || isDecidedByQuorum()) {
         this.state = ELECTION_VOTED;
         notify();
       }
@@ -143,14 +144,11 @@ public class ElectionManagerImpl implements ElectionManager {
     debugInfo("Handling election result");
     if (state == ELECTION_COMPLETE && !this.winner.equals(msg.getEnrollment())) {
       // conflict
-      L2StateMessage resultConflict = L2StateMessage.createResultConflictMessage(msg, this.winner, currentState);
-      logger.warn("WARNING :: Election result conflict : Winner local = " + this.winner + " :  remote winner = "
-                  + msg.getEnrollment());
-      try {
-        groupManager.sendTo(msg.messageFrom(), resultConflict);
-      } catch (GroupException e) {
-        logger.error("Error sending Election result conflict message : " + resultConflict);
-      }
+      sendResultConflict(msg, this.winner, currentState);
+    } else if ((state == ELECTION_IN_PROGRESS || state == ELECTION_VOTED) && !beatsAllVotes(msg.getEnrollment())) {
+      // The sender may have ended its election on a quorum without this node's vote, and a stale claim to have been
+      // the last active must not win over a vote this node knows beats it
+      sendResultConflict(msg, countVotes(), currentState);
     } else {
       // Agree to the result, abort the election if necessary
       if (state == ELECTION_IN_PROGRESS) {
@@ -166,6 +164,27 @@ public class ElectionManagerImpl implements ElectionManager {
     }
   }
 
+  private void sendResultConflict(L2StateMessage msg, Enrollment localWinner, State currentState) {
+    L2StateMessage resultConflict = L2StateMessage.createResultConflictMessage(msg, localWinner, currentState);
+    logger.warn("WARNING :: Election result conflict : Winner local = " + localWinner + " :  remote winner = "
+                + msg.getEnrollment());
+    try {
+      groupManager.sendTo(msg.messageFrom(), resultConflict);
+    } catch (GroupException e) {
+      logger.error("Error sending Election result conflict message : " + resultConflict);
+    }
+  }
+
+  /**
+   * @return true if the given enrollment beats every vote cast in the current election, other than its own node's
+   */
+  private boolean beatsAllVotes(Enrollment announced) {
+    for (Enrollment vote : votes.values()) {
+      if (!vote.getNodeID().equals(announced.getNodeID()) && !announced.wins(vote)) { return false; }
+    }
+    return true;
+  }
+
   private void basicAbort(L2StateMessage msg) {
     reset(msg.getEnrollment());
     logger.info("Aborted Election : Winner is : " + this.winner);
@@ -193,15 +212,18 @@ public class ElectionManagerImpl implements ElectionManager {
     notifyAll();
   }
 
-  private NodeID runElection(NodeID myNodeId, boolean isNew, WeightGeneratorFactory weightsFactory, State currentState) {
+  private NodeID runElection(NodeID myNodeId, boolean isNew, boolean wasLastActive, WeightGeneratorFactory weightsFactory, State currentState) {
     NodeID winnerID = ServerID.NULL_ID;
     int count = 0;
+    boolean endEarly = wasLastActive;
     while (winnerID.isNull()) {
       if (count++ > 0) {
         logger.info("Requesting Re-election !!! count = " + count);
+        // the early end was contested, wait for every vote this time
+        endEarly = false;
       }
       try {
-        winnerID = doElection(myNodeId, isNew, weightsFactory, currentState);
+        winnerID = doElection(myNodeId, isNew, endEarly, weightsFactory, currentState);
       } catch (InterruptedException e) {
         logger.error("Interrupted during election : ", e);
         reset(null);
@@ -227,23 +249,48 @@ public class ElectionManagerImpl implements ElectionManager {
     }
   }
 
-  private synchronized void electionStarted(Enrollment e, State serverState) {
+  private synchronized void electionStarted(Enrollment e, State serverState, boolean wasLastActive) {
     if (this.state == ELECTION_IN_PROGRESS) { throw new AssertionError("Election Already in Progress"); }
     this.state = ELECTION_IN_PROGRESS;
     this.myVote = e;
     this.serverState = serverState;
+    this.lastActive = wasLastActive;
     this.winner = null;
     this.votes.clear();
     this.votes.put(e.getNodeID(), e); // Cast my vote
-    logger.info("Election Started : " + e);
+    logger.info("Election Started : " + e + " last active : " + wasLastActive);
+    if (isDecidedByQuorum()) {
+      this.state = ELECTION_VOTED;
+    }
+  }
+
+  /**
+   * The weights of servers that have not voted yet cannot be bounded, so in general an election has to wait for every
+   * expected vote or for the election time to run out. The exception is the node that went down as the active: once a
+   * strict majority of the expected servers (itself included) has voted and its own vote beats all of them, it stops
+   * waiting and announces the result.
+   * <p>
+   * The persisted state saying this node was the last active may be stale, so the claim only shortens the wait and
+   * never decides the result: every peer still in its own election compares the announced enrollment against the votes
+   * it holds, its own included, and answers with a conflict rather than agreeing if any of them wins (see
+   * {@link #handleElectionResultMessage}). A conflict sends this node back into an election which waits for every
+   * vote. With two expected servers a majority is both of them, so there is nothing to end early.
+   */
+  private boolean isDecidedByQuorum() {
+    if (lastActive && votes.size() > expectedServers / 2 && countVotes() == myVote) {
+      logger.info("Election decided by quorum of " + votes.size() + " of " + expectedServers + " votes for last active "
+                  + myVote);
+      return true;
+    }
+    return false;
   }
 
-  private NodeID doElection(NodeID myNodeId, boolean isNew, WeightGeneratorFactory weightsFactory, State currentState)
+  private NodeID doElection(NodeID myNodeId, boolean isNew, boolean wasLastActive, WeightGeneratorFactory weightsFactory, State currentState)
       throws GroupException, InterruptedException {
 
     // Step 1: publish to cluster NodeID, weight and election start
     Enrollment e = EnrollmentFactory.createEnrollment(myNodeId, isNew, weightsFactory);
-    electionStarted(e, currentState);
+    electionStarted(e, currentState, wasLastActive);
 
     L2StateMessage msg = L2StateMessage.createElectionStartedMessage(e, currentState);
     debugInfo("Sending my election vote to all members");
@@ -154,9 +154,11 @@ public class StateManagerImpl implements StateManager {
     // Only new L2 if the DB was empty (no previous state) and the current state is START (as in before any elections
     // concluded)
     boolean isNew = state == START_STATE && startState == null;
+    // The last active may conclude as soon as a majority has voted for it rather than waiting out the election time
+    boolean lastActive = state == START_STATE && ACTIVE_COORDINATOR.equals(startState);
     if (getActiveNodeID().isNull()) {
-      debugInfo("Running election - isNew: " + isNew);
-      electionSink.addSingleThreaded(new ElectionContext(myNodeID, isNew, weightsFactory, state, (nodeid)-> {
+      debugInfo("Running election - isNew: " + isNew + " lastActive: " + lastActive);
+      electionSink.addSingleThreaded(new ElectionContext(myNodeID, isNew, lastActive, weightsFactory, state, (nodeid)-> {
         boolean rerun = false;
         if (nodeid == myNodeID) {
           debugInfo("Won Election, moving to active state. myNodeID/winner=" + myNodeID);
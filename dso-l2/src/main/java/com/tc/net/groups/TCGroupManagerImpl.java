@@ -21,6 +21,7 @@ package com.tc.net.groups;
 import com.tc.async.api.Sink;
 import com.tc.async.api.Stage;
 import com.tc.async.api.StageManager;
+import com.tc.bytes.TCByteBuffer;
 import com.tc.config.NodesStore;
 import com.tc.config.ReloadConfigChangeContext;
 import com.tc.config.TopologyChangeListener;
@@ -501,6 +502,7 @@ public class TCGroupManagerImpl implements GroupManager<AbstractGroupMessage>, C
   @Override
   public void sendAll(AbstractGroupMessage msg, Set<? extends NodeID> nodeIDs) {
     final boolean debug = msg instanceof L2StateMessage;
+    List<TCGroupMember> targets = new ArrayList<>();
     for (TCGroupMember m : members.values()) {
       if (!nodeIDs.contains(m.getPeerNodeID())) {
         if (debug) {
@@ -516,11 +518,27 @@ public class TCGroupManagerImpl implements GroupManager<AbstractGroupMessage>, C
             debugInfo("Sending msg to " + m.getPeerNodeID() + ", " + msg + ", channel: " + m.getChannel());
           }
         }
-        m.sendIgnoreNotReady(msg);
+        targets.add(m);
       } else {
         logger.warn("Ignored sending msg to a not ready member=" + m + ", msg=" + msg);
       }
     }
+    broadcast(msg, targets);
+  }
+
+  /**
+   * Serializes the message once and hands the same buffers to every member channel. The channel sends only queue the
+   * message for the comms layer, so the members are written to in parallel by the network threads.
+   */
+  private static void broadcast(AbstractGroupMessage msg, List<TCGroupMember> targets) {
+    if (targets.size() == 1) {
+      targets.get(0).sendIgnoreNotReady(msg);
+    } else if (!targets.isEmpty()) {
+      TCByteBuffer[] serialized = TCGroupMessageWrapper.serialize(msg);
+      for (TCGroupMember m : targets) {
+        m.sendIgnoreNotReady(msg, serialized);
+      }
+    }
   }
 
   @Override
@@ -893,8 +911,14 @@ public class TCGroupManagerImpl implements GroupManager<AbstractGroupMessage>, C
     // sendAll(msg, manager.members.keySet());
     // }
 
-    public synchronized void sendAll(AbstractGroupMessage msg, Set<? extends NodeID> nodeIDs) {
+    public void sendAll(AbstractGroupMessage msg, Set<? extends NodeID> nodeIDs) {
+      // Register every member before the first send so responses can be taken while the rest are still going out
+      TCGroupManagerImpl.broadcast(msg, expectResponsesFrom(msg, nodeIDs));
+    }
+
+    private synchronized List<TCGroupMember> expectResponsesFrom(AbstractGroupMessage msg, Set<? extends NodeID> nodeIDs) {
       final boolean debug = msg instanceof L2StateMessage;
+      List<TCGroupMember> targets = new ArrayList<>();
       for (TCGroupMember m : manager.getMembers()) {
         if (!nodeIDs.contains(m.getPeerNodeID())) {
           if (debug) {
@@ -912,11 +936,12 @@ public class TCGroupManagerImpl implements GroupManager<AbstractGroupMessage>, C
               debugInfo("Sending msg to " + m.getPeerNodeID() + ", msg: " + msg + ", channel: " + m.getChannel());
             }
           }
-          m.sendIgnoreNotReady(msg);
+          targets.add(m);
         } else {
           logger.warn("SendAllAndWait to a not ready member " + m);
         }
       }
+      return targets;
     }
 
     public synchronized void addResponseFrom(ServerID nodeID, AbstractGroupMessage gmsg) {
@@ -18,6 +18,7 @@
  */
 package com.tc.net.groups;
 
+import com.tc.bytes.TCByteBuffer;
 import com.tc.net.ServerID;
 import com.tc.net.protocol.tcm.MessageChannel;
 
@@ -33,6 +34,8 @@ public interface TCGroupMember {
   
   public void sendIgnoreNotReady(AbstractGroupMessage msg);
 
+  public void sendIgnoreNotReady(AbstractGroupMessage msg, TCByteBuffer[] serialized);
+
   public void setTCGroupManager(TCGroupManagerImpl manager);
 
   public TCGroupManagerImpl getTCGroupManager();
@@ -18,6 +18,7 @@
  */
 package com.tc.net.groups;
 
+import com.tc.bytes.TCByteBuffer;
 import com.tc.l2.L2DebugLogging;
 import com.tc.l2.L2DebugLogging.LogLevel;
 import com.tc.logging.TCLogger;
@@ -75,12 +76,25 @@ public class TCGroupMemberImpl implements TCGroupMember, ChannelEventListener {
     // We can expose this callback if the caller is interested but for now we ignore it (at the moment, we are only looking
     //  at batching passive replication responses).
     Runnable sentCallback = null;
-    sendMessage(msg, sentCallback);
+    sendMessage(msg, null, sentCallback);
+  }
+
+  @Override
+  public void sendIgnoreNotReady(AbstractGroupMessage msg, TCByteBuffer[] serialized) {
+    if (!channel.isOpen()) {
+      logger.warn("Attempting send to a not ready member " + this + ", msg will not be sent: " + msg);
+      return;
+    }
+    sendMessage(msg, serialized, null);
   }
 
   private void sendMessage(AbstractGroupMessage msg, Runnable sentCallback) {
+    sendMessage(msg, null, sentCallback);
+  }
+
+  private void sendMessage(AbstractGroupMessage msg, TCByteBuffer[] serialized, Runnable sentCallback) {
     TCGroupMessageWrapper wrapper = (TCGroupMessageWrapper) channel.createMessage(TCMessageType.GROUP_WRAPPER_MESSAGE);
-    wrapper.setGroupMessage(msg);
+    wrapper.setGroupMessage(msg, serialized);
     if (null != sentCallback) {
       wrapper.setSentCallback(sentCallback);
     }
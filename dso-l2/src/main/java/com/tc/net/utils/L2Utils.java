@@ -53,6 +53,33 @@ public class L2Utils {
     return TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.L2_SEDA_STAGE_WORKERTHREADS, def);
   }
 
+  /**
+   * Number of worker threads for the client handshake stage.  Handshakes are sharded by client so this bounds how many
+   * reconnecting clients have their reconnect data processed concurrently after a failover.
+   * <p/>{@code l2.seda.handshake.stage.threads} configuration property overrides this value.
+   */
+  public static int getOptimalHandshakeStageWorkerThreads() {
+    return TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.L2_SEDA_HANDSHAKE_STAGE_THREADS, getOptimalStageWorkerThreads());
+  }
+
+  /**
+   * Number of worker threads for the voltron message stage.  The stage is partitioned by client so admission of requests
+   * from different clients scales with this count while each client's requests stay in order.
+   * <p/>{@code l2.seda.voltron.stage.threads} configuration property overrides this value.
+   */
+  public static int getOptimalVoltronStageWorkerThreads() {
+    return TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.L2_SEDA_VOLTRON_STAGE_THREADS, getOptimalStageWorkerThreads());
+  }
+
+  /**
+   * Number of worker threads for the stage sending invoke responses back to clients.  The stage is partitioned by
+   * client so a slow connection only delays the clients hashed to the same thread.
+   * <p/>{@code l2.seda.respond.stage.threads} configuration property overrides this value.
+   */
+  public static int getOptimalResponseStageWorkerThreads() {
+    return TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.L2_SEDA_RESPOND_STAGE_THREADS, getOptimalStageWorkerThreads());
+  }
+
   /**
    * Calculates the optimal number of worker threads for the apply stage.
    * <p/>{@code l2.seda.apply.stage.threads} configuration property overrides this value.
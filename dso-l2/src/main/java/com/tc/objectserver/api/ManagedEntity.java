@@ -32,6 +32,7 @@ import org.terracotta.entity.EntityMessage;
 import org.terracotta.entity.EntityResponse;
 
 import org.terracotta.entity.StateDumpable;
+import org.terracotta.entity.state.NonMutatingMessageStrategy;
 import org.terracotta.exception.EntityException;
 
 
@@ -78,6 +79,15 @@ public interface ManagedEntity extends StateDumpable {
   boolean isDestroyed();
   
   boolean isActive();
+
+  /**
+   * Asks an active entity's ConcurrencyStrategy, if it implements {@link NonMutatingMessageStrategy}, whether an invoke
+   * never changes the entity's state.
+   *
+   * @param data the payload of an invoke
+   * @return true if the invoke can skip transaction order persistence and replication
+   */
+  boolean isNonMutating(MessagePayload data);
   
   boolean isRemoveable();
   
@@ -51,6 +51,7 @@ public abstract class AbstractServerEntityRequestResponse implements ServerEntit
   private boolean alsoRetire = false;
 
   private volatile Future<Void> transactionOrderPersistenceFuture;
+  private volatile boolean nonMutating;
 
   public AbstractServerEntityRequestResponse(ServerEntityAction action, TransactionID transaction, TransactionID oldest, ClientID src) {
     this.action = action;
@@ -169,6 +170,18 @@ public abstract class AbstractServerEntityRequestResponse implements ServerEntit
   public void setTransactionOrderPersistenceFuture(Future<Void> transactionOrderPersistenceFuture) {
     this.transactionOrderPersistenceFuture = transactionOrderPersistenceFuture;
   }
+
+  /**
+   * Marks an invoke the entity says never changes its state.  Its order is not persisted and it is not sent to the
+   * passives, so nothing about it waits on either.  Must be called before the request is scheduled.
+   */
+  public void markNonMutating() {
+    this.nonMutating = true;
+  }
+
+  public boolean isNonMutating() {
+    return this.nonMutating;
+  }
   
   @Override
   public synchronized void retired() {
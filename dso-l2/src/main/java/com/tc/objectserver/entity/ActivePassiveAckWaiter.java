@@ -28,6 +28,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 /**
@@ -41,6 +43,9 @@ public class ActivePassiveAckWaiter {
   private final Set<NodeID> completedPending;
   private final Map<NodeID, ReplicationResultCode> results;
   private final PassiveReplicationBroker parent;
+  // a lock rather than the monitor so a virtual thread parked here releases its carrier
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
 
   public ActivePassiveAckWaiter(Set<NodeID> allPassiveNodes, PassiveReplicationBroker parent) {
     this.start =  Collections.unmodifiableSet(allPassiveNodes);
@@ -51,23 +56,29 @@ public class ActivePassiveAckWaiter {
     this.parent = parent;
   }
 
-  public synchronized void waitForReceived() {
+  public void waitForReceived() {
+    lock.lock();
     try {
       while (!this.receivedPending.isEmpty()) {
-        wait();
+        changed.await();
       }
     } catch (InterruptedException ie) {
       throw new RuntimeException(ie);
+    } finally {
+      lock.unlock();
     }
   }
 
-  public synchronized void waitForCompleted() {
+  public void waitForCompleted() {
+    lock.lock();
     try {
       while (!this.completedPending.isEmpty()) {
-        wait();
-     }
+        changed.await();
+      }
     } catch (InterruptedException ie) {
       throw new RuntimeException(ie);
+    } finally {
+      lock.unlock();
     }
   }
   
@@ -88,19 +99,29 @@ public class ActivePassiveAckWaiter {
     return false;
   }
 
-  public synchronized boolean isCompleted() {
-    return this.completedPending.isEmpty();
+  public boolean isCompleted() {
+    lock.lock();
+    try {
+      return this.completedPending.isEmpty();
+    } finally {
+      lock.unlock();
+    }
   }
 
-  public synchronized void didReceiveOnPassive(NodeID onePassive) {
-    boolean didContain = this.receivedPending.remove(onePassive);
-    // We must have contained this passive in order to receive.
-    if (!didContain) {
-      Assert.assertTrue(onePassive + " " + toString(), this.receivedByComplete.contains(onePassive));
-    }    
-    // Wake everyone up if this changed something.
-    if (this.receivedPending.isEmpty()) {
-      notifyAll();
+  public void didReceiveOnPassive(NodeID onePassive) {
+    lock.lock();
+    try {
+      boolean didContain = this.receivedPending.remove(onePassive);
+      // We must have contained this passive in order to receive.
+      if (!didContain) {
+        Assert.assertTrue(onePassive + " " + toString(), this.receivedByComplete.contains(onePassive));
+      }
+      // Wake everyone up if this changed something.
+      if (this.receivedPending.isEmpty()) {
+        changed.signalAll();
+      }
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -112,27 +133,32 @@ public class ActivePassiveAckWaiter {
    * @param payload
    * @return True if this was the last outstanding completion required and the waiter is now done.
    */
-  public synchronized boolean didCompleteOnPassive(NodeID onePassive, boolean isNormalComplete, ReplicationResultCode payload) {
-    // Note that we will try to remove from the received set, but usually it will already have been removed.
-    boolean didContainInReceived = this.receivedPending.remove(onePassive);
-    if (didContainInReceived) {
-      this.receivedByComplete.add(onePassive);
-    }
-    // We know that it must still be in the completed set, though.
-    boolean didContainInCompleted = this.completedPending.remove(onePassive);
-    // We must have contained this passive in order to complete.
-    if (isNormalComplete) {
-      // In the unexpected case, we are just making sure this node is removed from all waiters, even though it might have
-      // already completed on some of them.
-      Assert.assertTrue(didContainInCompleted);
-      this.results.put(onePassive, payload);
-    }
-    boolean isDoneWaiting = this.completedPending.isEmpty();
-    // Wake everyone up if this changed something.
-    if ((didContainInReceived && this.receivedPending.isEmpty()) || isDoneWaiting) {
-      notifyAll();
+  public boolean didCompleteOnPassive(NodeID onePassive, boolean isNormalComplete, ReplicationResultCode payload) {
+    lock.lock();
+    try {
+      // Note that we will try to remove from the received set, but usually it will already have been removed.
+      boolean didContainInReceived = this.receivedPending.remove(onePassive);
+      if (didContainInReceived) {
+        this.receivedByComplete.add(onePassive);
+      }
+      // We know that it must still be in the completed set, though.
+      boolean didContainInCompleted = this.completedPending.remove(onePassive);
+      // We must have contained this passive in order to complete.
+      if (isNormalComplete) {
+        // In the unexpected case, we are just making sure this node is removed from all waiters, even though it might have
+        // already completed on some of them.
+        Assert.assertTrue(didContainInCompleted);
+        this.results.put(onePassive, payload);
+      }
+      boolean isDoneWaiting = this.completedPending.isEmpty();
+      // Wake everyone up if this changed something.
+      if ((didContainInReceived && this.receivedPending.isEmpty()) || isDoneWaiting) {
+        changed.signalAll();
+      }
+      return isDoneWaiting;
+    } finally {
+      lock.unlock();
     }
-    return isDoneWaiting;
   }
 
   @Override
@@ -220,6 +220,13 @@ public class ActiveToPassiveReplication implements PassiveReplicationBroker, Gro
     }
   }
 
+  /**
+   * @return replicated activities still waiting on acks from passives
+   */
+  public int outstandingReplications() {
+    return waiters.size();
+  }
+
   @Override
   public Set<NodeID> passives() {
     return passiveNodes;
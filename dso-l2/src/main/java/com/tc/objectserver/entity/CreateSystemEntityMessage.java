@@ -84,4 +84,14 @@ public class CreateSystemEntityMessage implements VoltronEntityMessage {
   public EntityMessage getEntityMessage() {
     return null;
   }
+
+  @Override
+  public Object getSchedulingKey() {
+    return getSource();
+  }
+
+  @Override
+  public boolean flush() {
+    return false;
+  }
 }
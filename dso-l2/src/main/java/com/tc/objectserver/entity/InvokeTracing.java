@@ -0,0 +1,122 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.objectserver.entity;
+
+import com.tc.net.ClientID;
+import com.tc.object.tx.TransactionID;
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
+import com.tc.stats.PhaseTracer;
+
+import java.util.Map;
+
+/**
+ * Sampled phase tracing of entity invokes through the active.  Enabled with {@code tc.invoke.tracing.sample}, each
+ * sampled invoke is stamped as it moves through the server and the time spent in each phase is aggregated.
+ */
+public class InvokeTracing {
+  public enum Phase {
+    /** handed to the server by the network layer */
+    ARRIVED,
+    /** hydrated and picked up by the voltron message stage */
+    VOLTRON_STAGE,
+    /** order persisted, replicated and queued on the entity */
+    SCHEDULED,
+    /** picked up by the entity's request processor */
+    EXECUTING,
+    /** all passives acknowledged receipt of the replicated invoke */
+    PASSIVES_RECEIVED,
+    /** the entity finished the invoke */
+    EXECUTED,
+    /** the response went out to the client */
+    RESPONDED
+  }
+
+  private static final PhaseTracer<Phase> TRACER = new PhaseTracer<>(Phase.class, 
+      TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.TC_INVOKE_TRACING_SAMPLE, 0));
+
+  public static boolean isEnabled() {
+    return TRACER.isEnabled();
+  }
+
+  public static void begin(ClientID client, TransactionID transaction, long arrived) {
+    if (isSampled(client, transaction)) {
+      Key key = new Key(client, transaction);
+      if (arrived != 0) {
+        TRACER.begin(key, Phase.ARRIVED, arrived);
+        TRACER.stamp(key, Phase.VOLTRON_STAGE);
+      } else {
+        TRACER.begin(key, Phase.VOLTRON_STAGE);
+      }
+    }
+  }
+
+  public static void stamp(ClientID client, TransactionID transaction, Phase phase) {
+    if (isSampled(client, transaction)) {
+      TRACER.stamp(new Key(client, transaction), phase);
+    }
+  }
+
+  public static void end(ClientID client, TransactionID transaction, Phase phase) {
+    if (isSampled(client, transaction)) {
+      TRACER.end(new Key(client, transaction), phase);
+    }
+  }
+
+  /**
+   * Drops the trace of an invoke which will never be responded to, because its client is gone.
+   */
+  public static void abandon(ClientID client, TransactionID transaction) {
+    if (isSampled(client, transaction)) {
+      TRACER.abandon(new Key(client, transaction));
+    }
+  }
+
+  private static boolean isSampled(ClientID client, TransactionID transaction) {
+    return client != null && transaction != null && !transaction.isNull() && TRACER.isSampled(transaction.toLong());
+  }
+
+  public static Map<String, Map<String, Long>> getStatistics() {
+    return TRACER.getStatistics();
+  }
+
+  private static final class Key {
+    private final ClientID client;
+    private final TransactionID transaction;
+
+    private Key(ClientID client, TransactionID transaction) {
+      this.client = client;
+      this.transaction = transaction;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * client.hashCode() + transaction.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof Key) {
+        Key other = (Key)obj;
+        return client.equals(other.client) && transaction.equals(other.transaction);
+      }
+      return false;
+    }
+  }
+}
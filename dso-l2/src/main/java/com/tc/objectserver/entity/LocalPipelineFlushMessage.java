@@ -87,4 +87,15 @@ public class LocalPipelineFlushMessage implements VoltronEntityMessage {
     // No instance for this type.
     return null;
   }
+
+  @Override
+  public boolean flush() {
+//  the voltron stage is partitioned by client, a pipeline flush has to follow everything already queued in every partition
+    return true;
+  }
+
+  @Override
+  public Object getSchedulingKey() {
+    return getSource();
+  }
 }
@@ -60,12 +60,14 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.terracotta.entity.ConcurrencyStrategy;
 import org.terracotta.entity.EntityResponse;
 import org.terracotta.entity.MessageCodec;
+import org.terracotta.entity.state.NonMutatingMessageStrategy;
 import org.terracotta.exception.EntityAlreadyExistsException;
 import org.terracotta.exception.EntityException;
 import org.terracotta.exception.EntityNotFoundException;
@@ -268,8 +270,8 @@ public class ManagedEntityImpl implements ManagedEntity {
   }
 //  synchronized here because this method must be mutually exclusive with clearQueue
   private synchronized SchedulingRunnable scheduleInOrder(ServerEntityRequest request, ResultCapture results, MessagePayload payload, Runnable r, int ckey) {
-// this all makes sense because this is only called by the PTH single thread
-// deferCleared is cleared by one of the request queues
+// on the active, this is called by the PTH threads which are partitioned by client.  the synchronization here
+// orders requests from different clients on this entity.  deferCleared is cleared by one of the request queues
     if (isInActiveState) {
       Assert.assertTrue(Thread.currentThread().getName().contains(ServerConfigurationContext.VOLTRON_MESSAGE_STAGE));
     } else {
@@ -474,8 +476,15 @@ public class ManagedEntityImpl implements ManagedEntity {
    * @param message 
    */
   private void invoke(ServerEntityRequest request, ResultCapture response, MessagePayload message, int concurrencyKey) {
+    boolean traced = InvokeTracing.isEnabled() && request.getAction() == ServerEntityAction.INVOKE_ACTION;
+    if (traced) {
+      InvokeTracing.stamp(request.getNodeID(), request.getTransaction(), InvokeTracing.Phase.EXECUTING);
+    }
     if (request.requiresReceived()) {
       response.waitForReceived(); // waits for received on passives
+      if (traced) {
+        InvokeTracing.stamp(request.getNodeID(), request.getTransaction(), InvokeTracing.Phase.PASSIVES_RECEIVED);
+      }
     }  
     response.received(); // call received locally
     
@@ -488,6 +497,9 @@ public class ManagedEntityImpl implements ManagedEntity {
         switch (request.getAction()) {
           case INVOKE_ACTION:
             performAction(request, response, message);
+            if (traced) {
+              InvokeTracing.stamp(request.getNodeID(), request.getTransaction(), InvokeTracing.Phase.EXECUTED);
+            }
             break;
           case REQUEST_SYNC_ENTITY:
             performSync(response, request.replicateTo(executor.passives()), concurrencyKey);
@@ -584,6 +596,21 @@ public class ManagedEntityImpl implements ManagedEntity {
     return this.isInActiveState;
   }
   
+  @Override
+  @SuppressWarnings("unchecked")
+  public boolean isNonMutating(MessagePayload data) {
+    ConcurrencyStrategy<EntityMessage> strategy = this.concurrencyStrategy;
+    if (!this.isInActiveState || !(strategy instanceof NonMutatingMessageStrategy)) {
+      return false;
+    }
+    try {
+      return ((NonMutatingMessageStrategy<EntityMessage>)strategy).isNonMutating(data.decodeMessage(raw->codec.decodeMessage(raw)));
+    } catch (MessageCodecException codecException) {
+      // let the invoke take the normal path, where the decode failure is reported to the client
+      return false;
+    }
+  }
+
   @Override
   public boolean isRemoveable() {
     return this.isDestroyed && runnables.isEmpty() && runnables.deferCleared;
@@ -605,6 +632,7 @@ public class ManagedEntityImpl implements ManagedEntity {
         Assert.assertTrue(!isInActiveState || clientEntityStateManager.verifyNoReferences(entityDescriptor.getEntityID()));
         Assert.assertFalse(this.isDestroyed);
         commonServerEntity.destroy();
+        this.registry.entityDestroyed();
         this.retirementManager.entityWasDestroyed();
         if (this.isInActiveState) {
           this.activeServerEntity = null;
@@ -1027,6 +1055,8 @@ public class ManagedEntityImpl implements ManagedEntity {
     private final Runnable original;
     private final int concurrency;
     private ActivePassiveAckWaiter  waitFor;
+    // parks a virtual stage thread without pinning its carrier, unlike waiting on this monitor
+    private final CountDownLatch scheduled = new CountDownLatch(1);
 
     public SchedulingRunnable(ServerEntityRequest request, MessagePayload payload, Runnable r, int concurrency) {
       this.request = request;
@@ -1035,7 +1065,7 @@ public class ManagedEntityImpl implements ManagedEntity {
       this.concurrency = concurrency;
     }
         
-    private synchronized void start() {
+    private void start() {
       if (concurrency == ConcurrencyStrategy.MANAGEMENT_KEY) {
         runnables.activate();
       }
@@ -1059,9 +1089,13 @@ public class ManagedEntityImpl implements ManagedEntity {
         if (loc != ExecutionStrategy.Location.IGNORE) {
           replicate = loc.runOnPassive();
         }
+        if (request instanceof AbstractServerEntityRequestResponse && ((AbstractServerEntityRequestResponse)request).isNonMutating()) {
+          // a passive has nothing to apply for an invoke which never changes the entity
+          replicate = false;
+        }
       } 
       waitFor = executor.scheduleRequest(id, version, fetchID, request, payload, this, replicate, concurrency);
-      this.notifyAll();
+      scheduled.countDown();
     }
     
     public void run() {
@@ -1086,11 +1120,9 @@ public class ManagedEntityImpl implements ManagedEntity {
       }
     }
     
-    private synchronized ActivePassiveAckWaiter waitForPassives() {
+    private ActivePassiveAckWaiter waitForPassives() {
       try {
-        while (waitFor == null) {
-          this.wait();
-        }
+        scheduled.await();
         return waitFor;
       } catch (InterruptedException e) {
         throw new RuntimeException(e);
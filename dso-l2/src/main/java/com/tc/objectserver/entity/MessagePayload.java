@@ -50,18 +50,18 @@ public class MessagePayload {
 
 
   private final byte[] raw;
-  private EntityMessage message;
+  // decoded at most once, by whichever thread first needs it, and safely published to the others
+  private volatile EntityMessage message;
   private final int concurrency;
   private final int referenceCount;
   private final boolean replicate;
   private final boolean canBeBusy;
-  private String debugId;
+  private volatile String debugId;
   
   // NOTE:  ReferenceCount is a special-case for synchronizing the creation of an existing entity.
   private MessagePayload(byte[] raw, EntityMessage message, int concurrency, int referenceCount, boolean replicate, boolean canBeBusy) {
     this.raw = raw;
     this.message = message;
-    this.debugId = (message != null) ? message.toString() : "";
     this.concurrency = concurrency;
     this.referenceCount = referenceCount;
     this.replicate = replicate;
@@ -76,8 +76,22 @@ public class MessagePayload {
     this.debugId = debugId;
   }
   
+  /**
+   * The debug id is only built when something asks for it, typically a debug log statement.  Building it eagerly 
+   * means a toString() of every message.  Nothing is cached until the message is decoded, so asking early does not
+   * hide the id of the decoded message.
+   */
   public String getDebugId() {
-    return debugId;
+    String id = debugId;
+    if (id == null) {
+      EntityMessage decoded = message;
+      if (decoded == null) {
+        return "";
+      }
+      id = decoded.toString();
+      debugId = id;
+    }
+    return id;
   }
   
   public boolean canBeBusy() {
@@ -93,11 +107,17 @@ public class MessagePayload {
   }
 
   public EntityMessage decodeMessage(MessageDecoder codec) throws MessageCodecException {
-    if (message == null) {
-      message = codec.decode(raw);
-      setDebugId(message.toString());
+    EntityMessage decoded = message;
+    if (decoded == null) {
+      synchronized (this) {
+        decoded = message;
+        if (decoded == null) {
+          decoded = codec.decode(raw);
+          message = decoded;
+        }
+      }
     }
-    return message;
+    return decoded;
   }
   
   public int getConcurrency() {
@@ -114,6 +134,6 @@ public class MessagePayload {
 
   @Override
   public String toString() {
-    return "MessagePayload{" + "debugId=" + debugId + '}';
+    return "MessagePayload{" + "debugId=" + getDebugId() + '}';
   }
 }
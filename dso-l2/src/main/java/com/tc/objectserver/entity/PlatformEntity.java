@@ -79,6 +79,11 @@ public class PlatformEntity implements ManagedEntity {
     return isActive;
   }
 
+  @Override
+  public boolean isNonMutating(MessagePayload data) {
+    return false;
+  }
+
   @Override
   public boolean isRemoveable() {
     return false;
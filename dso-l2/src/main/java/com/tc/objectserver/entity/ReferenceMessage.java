@@ -95,4 +95,14 @@ public class ReferenceMessage implements VoltronEntityMessage {
   public String toString() {
     return "ReferenceMessage{" + "clientID=" + clientID + ", entityDescriptor=" + entityDescriptor + ", type=" + type + '}';
   }
-}
\ No newline at end of file
+
+  @Override
+  public Object getSchedulingKey() {
+    return getSource();
+  }
+
+  @Override
+  public boolean flush() {
+    return false;
+  }
+}
@@ -123,12 +123,14 @@ public class RequestProcessor {
     
     // Handle our replicated message creations as special-cases, if they aren't normal invokes.
     SyncReplicationActivity activity = null;
+    // the debug id is only ever logged by the passive so don't build it or ship it unless debugging
+    String debugId = PLOGGER.isDebugEnabled() ? payload.getDebugId() : null;
     if (SyncReplicationActivity.ActivityType.ORDERING_PLACEHOLDER == actionCode) {
-      activity = SyncReplicationActivity.createOrderingPlaceholder(fetchID, src, tid, oldest, payload.getDebugId());
+      activity = SyncReplicationActivity.createOrderingPlaceholder(fetchID, src, tid, oldest, debugId);
     } else if (SyncReplicationActivity.ActivityType.SYNC_ENTITY_CONCURRENCY_BEGIN == actionCode) {
       activity = SyncReplicationActivity.createStartEntityKeyMessage(id, version, fetchID, concurrency);
     } else if (SyncReplicationActivity.ActivityType.INVOKE_ACTION == actionCode) {
-      activity = SyncReplicationActivity.createInvokeMessage(fetchID, src, tid, oldest, actionCode, payload.getRawPayload(), concurrency, payload.getDebugId());
+      activity = SyncReplicationActivity.createInvokeMessage(fetchID, src, tid, oldest, actionCode, payload.getRawPayload(), concurrency, debugId);
     } else {
       // Normal replication.
       activity = SyncReplicationActivity.createLifecycleMessage(id, version, fetchID, src, tid, oldest, actionCode, payload.getRawPayload());
@@ -84,7 +84,8 @@ public class ServerEntityRequestResponse extends AbstractServerEntityRequestResp
 
   @Override
   public boolean requiresReceived() {
-    return requiresReceived;
+    // a non-mutating invoke needs no ordering placeholder on the passives, nor to wait for one
+    return requiresReceived && !isNonMutating();
   }
  
   @Override
@@ -42,6 +42,9 @@ public class VoltronMessageSink implements TCMessageSink {
   public void putMessage(TCMessage message) { 
     if (message instanceof NetworkVoltronEntityMessage) {
       ((NetworkVoltronEntityMessage)message).setMessageCodecSupplier(codecSupplier);
+      if (InvokeTracing.isEnabled()) {
+        ((NetworkVoltronEntityMessage)message).setArrivalTime(System.nanoTime());
+      }
     }
     HydrateContext<VoltronEntityMessage> context = new HydrateContext<>(message, destSink);
     hydrateSink.addMultiThreaded(context);
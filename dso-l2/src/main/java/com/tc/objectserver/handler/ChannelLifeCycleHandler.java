@@ -95,7 +95,7 @@ public class ChannelLifeCycleHandler implements DSOChannelManagerEventListener {
         List<VoltronEntityMessage> msg = clientEvents.clientDisconnected(clientID);
         if (!msg.isEmpty()) {
           collector.expectedReleases(clientID, msg.stream().map(m->m.getEntityDescriptor()).collect(Collectors.toList()));
-          msg.forEach(m->processTransactionSink.addSingleThreaded(m));
+          msg.forEach(m->processTransactionSink.addMultiThreaded(m));
         }
         if (wasActive) {
           notifyClientRemoved(clientID);
@@ -184,7 +184,8 @@ public class ChannelLifeCycleHandler implements DSOChannelManagerEventListener {
 
       @Override
       public Object getSchedulingKey() {
-        return 0;
+//  the process transaction stage is partitioned by client, run behind everything already queued from this client
+        return clientID;
       }
 
       @Override
@@ -0,0 +1,77 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.objectserver.handler;
+
+import com.tc.properties.TCPropertiesConsts;
+import com.tc.properties.TCPropertiesImpl;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Decides how many requests each client may have in flight, from how far behind the server is.  The server has a total
+ * budget of credits which the connected clients share evenly, so the requests outstanding across all of them stay
+ * bounded however many connect.  The budget shrinks linearly from its total, on an idle server, to nothing once the
+ * requests queued for processing or the activities waiting on passive acks reach their targets, but every client keeps
+ * at least the minimum and never gets more than a client may send at once.  Grants are sent back to clients on every
+ * multi response.
+ */
+public class CreditGranter {
+  private final int         totalCredits;
+  private final int         minCredits;
+  private final int         maxCredits;
+  private final int         queueTarget;
+  private final int         replicationTarget;
+  private final IntSupplier queued;
+  private final IntSupplier replicating;
+  private final IntSupplier clients;
+
+  public CreditGranter(IntSupplier queued, IntSupplier replicating, IntSupplier clients) {
+    this(queued, replicating, clients,
+         TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.L2_FLOWCONTROL_CREDITS_TOTAL, 4096),
+         TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.L2_FLOWCONTROL_CREDITS_MIN, 16),
+         TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.CLIENT_MAX_SENT_REQUESTS, 200),
+         TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.L2_FLOWCONTROL_QUEUE_TARGET, 10000),
+         TCPropertiesImpl.getProperties().getInt(TCPropertiesConsts.L2_FLOWCONTROL_REPLICATION_TARGET, 10000));
+  }
+
+  CreditGranter(IntSupplier queued, IntSupplier replicating, IntSupplier clients, int totalCredits, int minCredits,
+                int maxCredits, int queueTarget, int replicationTarget) {
+    this.queued = queued;
+    this.replicating = replicating;
+    this.clients = clients;
+    this.totalCredits = Math.max(1, totalCredits);
+    this.maxCredits = Math.max(1, maxCredits);
+    this.minCredits = Math.max(1, Math.min(minCredits, this.maxCredits));
+    this.queueTarget = Math.max(1, queueTarget);
+    this.replicationTarget = Math.max(1, replicationTarget);
+  }
+
+  /**
+   * @return the number of requests a client may currently have in flight
+   */
+  public int grant() {
+    double load = Math.max(queued.getAsInt() / (double) queueTarget,
+                           replicating.getAsInt() / (double) replicationTarget);
+    if (load >= 1.0) {
+      return minCredits;
+    }
+    int share = (int) Math.round(totalCredits * (1.0 - load) / Math.max(1, clients.getAsInt()));
+    return Math.min(maxCredits, Math.max(minCredits, share));
+  }
+}
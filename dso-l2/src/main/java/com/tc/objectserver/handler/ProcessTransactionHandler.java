@@ -22,7 +22,9 @@ import com.tc.async.api.AbstractEventHandler;
 import com.tc.async.api.ConfigurationContext;
 import com.tc.async.api.EventHandlerException;
 import com.tc.async.api.Sink;
+import com.tc.async.api.SpecializedEventContext;
 import com.tc.async.api.Stage;
+import com.tc.entity.NetworkVoltronEntityMessage;
 import com.tc.entity.ResendVoltronEntityMessage;
 import com.tc.entity.VoltronEntityAppliedResponse;
 import com.tc.entity.VoltronEntityMessage;
@@ -43,6 +45,7 @@ import com.tc.objectserver.api.EntityManager;
 import com.tc.objectserver.api.ManagedEntity;
 import com.tc.objectserver.api.ServerEntityAction;
 import com.tc.objectserver.core.api.ServerConfigurationContext;
+import com.tc.objectserver.entity.InvokeTracing;
 import com.tc.objectserver.entity.MessagePayload;
 import com.tc.objectserver.api.Retiree;
 import com.tc.objectserver.entity.ReconnectListener;
@@ -54,17 +57,21 @@ import com.tc.objectserver.persistence.TransactionOrderPersistor;
 import com.tc.util.Assert;
 import com.tc.util.SparseList;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.LinkedList;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
-import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import org.terracotta.entity.EntityMessage;
 import org.terracotta.entity.MessageCodecException;
@@ -83,18 +90,30 @@ public class ProcessTransactionHandler implements ReconnectListener {
   private final EntityManager entityManager;
   private final DSOChannelManager dsoChannelManager;
   
-  // Data required for handling transaction resends.
-  private List<ReferenceMessage> references;
+  // Data required for handling transaction resends.  Reconnecting clients are handled concurrently so 
+  // references and new resends are kept per client and replayed in ClientID order to stay deterministic.
+  private SortedMap<ClientID, List<ReferenceMessage>> references;
   private SparseList<ResendVoltronEntityMessage> resendReplayList;
-  private List<ResendVoltronEntityMessage> resendNewList;
+  private SortedMap<ClientID, List<ResendVoltronEntityMessage>> resendNewList;
   private boolean reconnecting = true;
+  private volatile boolean resendsProcessed = false;
+  
+  // The voltron stage is partitioned by client.  Persisting the global order of a message and scheduling it on its 
+  // entity must be atomic with respect to other clients targeting the same entity, otherwise the order replayed on 
+  // restart would not match the order the entity actually executed.  Striped by entity to keep contention low.
+  private static final int ORDERING_STRIPES = 64;
+  private final Object[] orderingLocks = new Object[ORDERING_STRIPES];
   
   private Sink<TCMessage> multiSend;
+  private volatile CreditGranter creditGranter;
   private ConcurrentHashMap<ClientID, TCMessage> invokeReturn = new ConcurrentHashMap<>();
-  private ConcurrentHashMap<TransactionID, Future<Void>> transactionOrderPersistenceFutures = new ConcurrentHashMap<>();
+  private ConcurrentHashMap<TransactionID, CompletableFuture<Void>> transactionOrderPersistenceFutures = new ConcurrentHashMap<>();
+  // The response stage is partitioned by client.  Responses which are waiting on the persistence of their transaction
+  // order are parked here, per client, instead of blocking the stage thread and every other client sharing it.
+  private final ConcurrentHashMap<ClientID, Deque<TCMessage>> waitingForPersistence = new ConcurrentHashMap<>();
   
   private void sendMultiResponse(VoltronEntityMultiResponse response) {
-    multiSend.addSingleThreaded(response);
+    multiSend.addMultiThreaded(response);
   }
   
   @Override
@@ -106,32 +125,130 @@ public class ProcessTransactionHandler implements ReconnectListener {
   private final AbstractEventHandler<TCMessage> multiSender = new AbstractEventHandler<TCMessage>() {
     @Override
     public void handleEvent(TCMessage context) throws EventHandlerException {
-      NodeID destinationID = context.getDestinationNodeID();
-      invokeReturn.remove((ClientID)destinationID, context);
+      ClientID destinationID = (ClientID)context.getDestinationNodeID();
+      invokeReturn.remove(destinationID, context);
       if(context instanceof VoltronEntityMultiResponse) {
-        VoltronEntityMultiResponse voltronEntityMultiResponse = (com.tc.entity.VoltronEntityMultiResponse) context;
-        voltronEntityMultiResponse.stopAdding();
-        for (TransactionID transactionID : voltronEntityMultiResponse.getReceivedTransactions()) {
-          waitForTransactionOrderPersistenceFuture(transactionID);
+        ((VoltronEntityMultiResponse)context).stopAdding();
+        CreditGranter granter = creditGranter;
+        if (granter != null) {
+          ((VoltronEntityMultiResponse)context).setCredits(granter.grant());
         }
-      } else if(context instanceof VoltronEntityAppliedResponse) {
-        waitForTransactionOrderPersistenceFuture(((VoltronEntityAppliedResponse)context).getTransactionID());
-      } else {
+      } else if(!(context instanceof VoltronEntityAppliedResponse)) {
         Assert.fail("Unexpected message type: " + context.getClass());
       }
-      boolean didSend = context.send();
-      if (!didSend) {
-        // It is possible for this send to fail.  Typically, it means that the client has disconnected.
-        LOGGER.warn("Failed to send message to: " + destinationID);
-      } else if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("sent " + context);
+      Deque<TCMessage> parked = waitingForPersistence.get(destinationID);
+      if (parked != null) {
+//  earlier responses to this client are still waiting on persistence, keep the order
+        parked.addLast(context);
+      } else {
+        CompletableFuture<Void> pending = firstIncompletePersistence(context);
+        if (pending == null) {
+          sendResponse(destinationID, context);
+        } else {
+          parked = new ArrayDeque<>();
+          parked.addLast(context);
+          waitingForPersistence.put(destinationID, parked);
+          continueAfter(pending, destinationID);
+        }
       }
     }
   };
+  
+  private void sendResponse(NodeID destinationID, TCMessage context) {
+    boolean didSend = context.send();
+    if (!didSend) {
+      // It is possible for this send to fail.  Typically, it means that the client has disconnected.
+      LOGGER.warn("Failed to send message to: " + destinationID);
+    } else if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("sent " + context);
+    }
+    if (InvokeTracing.isEnabled() && destinationID instanceof ClientID) {
+      traceResponded((ClientID)destinationID, context);
+    }
+  }
+  
+  private static void traceResponded(ClientID destinationID, TCMessage context) {
+    if (context instanceof VoltronEntityMultiResponse) {
+      for (TransactionID transactionID : ((VoltronEntityMultiResponse)context).getResults().keySet()) {
+        InvokeTracing.end(destinationID, transactionID, InvokeTracing.Phase.RESPONDED);
+      }
+    } else if (context instanceof VoltronEntityAppliedResponse) {
+      InvokeTracing.end(destinationID, ((VoltronEntityAppliedResponse)context).getTransactionID(), InvokeTracing.Phase.RESPONDED);
+    }
+  }
+  
+  /**
+   * Continues once the persistence of the transaction order completes, without blocking any thread on it.  The parked
+   * responses for the client are then drained back on the response stage thread which owns that client, and a failed
+   * persistence is thrown there so it takes the server down like any other stage failure.
+   */
+  private void continueAfter(CompletableFuture<Void> pending, ClientID destinationID) {
+    pending.whenComplete((result, failure) -> {
+      if (failure != null) {
+        LOGGER.error("Failed to persist transaction order for " + destinationID, failure);
+      }
+      multiSend.addSpecialized(new SpecializedEventContext() {
+        @Override
+        public void execute() throws EventHandlerException {
+          if (failure != null) {
+            throw new EventHandlerException("Failed to persist transaction order for " + destinationID, failure);
+          }
+          drainParked(destinationID);
+        }
+
+        @Override
+        public Object getSchedulingKey() {
+          return destinationID;
+        }
+
+        @Override
+        public boolean flush() {
+          return false;
+        }
+      });
+    });
+  }
+  
+  private void drainParked(ClientID destinationID) {
+    Deque<TCMessage> parked = waitingForPersistence.get(destinationID);
+    Assert.assertNotNull(parked);
+    while (!parked.isEmpty()) {
+      TCMessage next = parked.peekFirst();
+      CompletableFuture<Void> pending = firstIncompletePersistence(next);
+      if (pending != null) {
+        continueAfter(pending, destinationID);
+        return;
+      }
+      sendResponse(destinationID, parked.removeFirst());
+    }
+    waitingForPersistence.remove(destinationID);
+  }
+  
+  private CompletableFuture<Void> firstIncompletePersistence(TCMessage context) {
+    if (context instanceof VoltronEntityMultiResponse) {
+      for (TransactionID transactionID : ((VoltronEntityMultiResponse)context).getReceivedTransactions()) {
+        CompletableFuture<Void> pending = checkTransactionOrderPersistenceFuture(transactionID);
+        if (pending != null) {
+          return pending;
+        }
+      }
+      return null;
+    } else {
+      return checkTransactionOrderPersistenceFuture(((VoltronEntityAppliedResponse)context).getTransactionID());
+    }
+  }
+  
   public AbstractEventHandler<TCMessage> getMultiResponseSender() {
     return multiSender;
   }
   
+  /**
+   * Once set, every multi response tells its client how many requests it may have in flight.
+   */
+  public void setCreditGranter(CreditGranter granter) {
+    this.creditGranter = granter;
+  }
+  
   private final AbstractEventHandler<VoltronEntityMessage> voltronHandler = new AbstractEventHandler<VoltronEntityMessage>() {
     @Override
     public void handleEvent(VoltronEntityMessage message) throws EventHandlerException {
@@ -151,7 +268,16 @@ public class ProcessTransactionHandler implements ReconnectListener {
       TransactionID oldestTransactionOnClient = message.getOldestTransactionOnClient();
       boolean requestedReceived = message.doesRequestReceived();
 
+      boolean traced = InvokeTracing.isEnabled() && action == ServerEntityAction.INVOKE_ACTION;
+      if (traced) {
+        long arrived = (message instanceof NetworkVoltronEntityMessage) ? ((NetworkVoltronEntityMessage)message).getArrivalTime() : 0;
+        InvokeTracing.begin(sourceNodeID, transactionID, arrived);
+      }
+
       ProcessTransactionHandler.this.addMessage(sourceNodeID, descriptor, action, MessagePayload.commonMessagePayloadBusy(extendedData, entityMessage, doesRequireReplication), transactionID, oldestTransactionOnClient, requestedReceived);
+      if (traced) {
+        InvokeTracing.stamp(sourceNodeID, transactionID, InvokeTracing.Phase.SCHEDULED);
+      }
     }
 
     @Override
@@ -182,9 +308,12 @@ public class ProcessTransactionHandler implements ReconnectListener {
     this.entityManager = entityManager;
     this.stateManagerCleanup = stateManagerCleanup;
     
-    this.references = new LinkedList<>();
+    this.references = new TreeMap<>();
     this.resendReplayList = new SparseList<>();
-    this.resendNewList = new LinkedList<>();
+    this.resendNewList = new TreeMap<>();
+    for (int x=0;x<this.orderingLocks.length;x++) {
+      this.orderingLocks[x] = new Object();
+    }
   }
   /**
    * This is a confusing method used in a confusing way.  This is used to snapshot the current
@@ -233,8 +362,32 @@ public class ProcessTransactionHandler implements ReconnectListener {
       }
     }
   }
-// only the process transaction thread will add messages here except for on reconnect
+  private Object orderingLockFor(EntityDescriptor descriptor) {
+    Object key = null;
+    if (descriptor.isIndexed()) {
+//  an entity can be addressed by either its EntityID (lifecycle) or FetchID (invoke), use the EntityID when possible
+      key = descriptor.getFetchID();
+      try {
+        Optional<ManagedEntity> entity = entityManager.getEntity(descriptor);
+        if (entity.isPresent()) {
+          key = entity.get().getID();
+        }
+      } catch (EntityException ee) {
+//  lookups by index do not check versions so this is not expected, just use the FetchID
+      }
+    } else {
+      key = descriptor.getEntityID();
+    }
+    return this.orderingLocks[Math.abs(key.hashCode() % this.orderingLocks.length)];
+  }
+// the process transaction threads will add messages here, partitioned by source client, except for on reconnect
   private void addMessage(ClientID sourceNodeID, EntityDescriptor descriptor, ServerEntityAction action, MessagePayload entityMessage, TransactionID transactionID, TransactionID oldestTransactionOnClient, boolean requiresReceived) {
+    synchronized (orderingLockFor(descriptor)) {
+      addMessageInOrder(sourceNodeID, descriptor, action, entityMessage, transactionID, oldestTransactionOnClient, requiresReceived);
+    }
+  }
+
+  private void addMessageInOrder(ClientID sourceNodeID, EntityDescriptor descriptor, ServerEntityAction action, MessagePayload entityMessage, TransactionID transactionID, TransactionID oldestTransactionOnClient, boolean requiresReceived) {
     // Version error or duplicate creation requests will manifest as exceptions here so catch them so we can send them back
     //  over the wire as an error in the request.
     
@@ -242,15 +395,31 @@ public class ProcessTransactionHandler implements ReconnectListener {
     boolean isReplicatedMessage = false;
     // In the general case, however, we need to pass this as a real ServerEntityRequest, into the entityProcessor.
     ServerEntityRequestResponse serverEntityRequest = new ServerEntityRequestResponse(descriptor, action, transactionID, oldestTransactionOnClient, sourceNodeID, ()->safeGetChannel(sourceNodeID), requiresReceived, isReplicatedMessage);
+    // An invoke its entity marks as non-mutating has nothing to replay after a failover, so it is neither ordered nor
+    //  replicated.  The entity is looked up here once for the invoke path below.
+    Optional<ManagedEntity> invoked = null;
+    if (ServerEntityAction.INVOKE_ACTION == action) {
+      try {
+        invoked = entityManager.getEntity(descriptor);
+        if (invoked.isPresent() && invoked.get().isNonMutating(entityMessage)) {
+          serverEntityRequest.markNonMutating();
+        }
+      } catch (EntityException ee) {
+        // reported by the lookup below
+        invoked = null;
+      }
+    }
     // Before we pass this on to the entity or complete it, directly, we can send the received() ACK, since we now know the message order.
     // Note that we only want to persist the messages with a true sourceNodeID.  Synthetic invocations and sync messages
     // don't have one (although sync messages shouldn't come down this path).
-    Future<Void> transactionOrderPersistenceFuture = null;
+    CompletableFuture<Void> transactionOrderPersistenceFuture = null;
     if (!ClientID.NULL_ID.equals(sourceNodeID)) {
       if (null != oldestTransactionOnClient) {
-        // This client still needs transaction order persistence.
-        transactionOrderPersistenceFuture = this.transactionOrderPersistor.updateWithNewMessage(sourceNodeID, transactionID, oldestTransactionOnClient);
-        serverEntityRequest.setTransactionOrderPersistenceFuture(transactionOrderPersistenceFuture);
+        // This client still needs transaction order persistence, unless the invoke was marked non-mutating.
+        if (!serverEntityRequest.isNonMutating()) {
+          transactionOrderPersistenceFuture = this.transactionOrderPersistor.updateWithNewMessage(sourceNodeID, transactionID, oldestTransactionOnClient);
+          serverEntityRequest.setTransactionOrderPersistenceFuture(transactionOrderPersistenceFuture);
+        }
       } else {
         // This is probably a disconnect: we can discard transaction order persistence for this client.
         this.transactionOrderPersistor.removeTrackingForClient(sourceNodeID);
@@ -289,7 +458,7 @@ public class ProcessTransactionHandler implements ReconnectListener {
       ManagedEntity entity = null;
       try {
         // At this point, we can now look up the actual managed entity.
-        Optional<ManagedEntity> optionalEntity = entityManager.getEntity(descriptor);
+        Optional<ManagedEntity> optionalEntity = (invoked != null) ? invoked : entityManager.getEntity(descriptor);
         if (optionalEntity.isPresent()) {
           entity = optionalEntity.get();
         } else {
@@ -310,6 +479,9 @@ public class ProcessTransactionHandler implements ReconnectListener {
             
             locked.addRequestMessage(serverEntityRequest, entityMessage, ()->addSequentially(sourceNodeID, addto->addto.addReceived(transactionID)), (result)-> {
               addSequentially(sourceNodeID, addTo->addTo.addResult(transactionID, result));
+              if (InvokeTracing.isEnabled() && !safeGetChannel(sourceNodeID).isPresent()) {
+                InvokeTracing.abandon(sourceNodeID, transactionID);
+              }
               RetirementManager retirementManager = locked.getRetirementManager();
               
               retirementManager.updateWithRetiree(message, new Retiree() {
@@ -325,12 +497,15 @@ public class ProcessTransactionHandler implements ReconnectListener {
               
               retireMessagesForEntity(locked, message);
             }, (fail)-> {
-              safeGetChannel(sourceNodeID).ifPresent(channel -> {
-                VoltronEntityAppliedResponse failMessage = (VoltronEntityAppliedResponse)channel.createMessage(TCMessageType.VOLTRON_ENTITY_COMPLETED_RESPONSE);
+              Optional<MessageChannel> channel = safeGetChannel(sourceNodeID);
+              if (channel.isPresent()) {
+                VoltronEntityAppliedResponse failMessage = (VoltronEntityAppliedResponse)channel.get().createMessage(TCMessageType.VOLTRON_ENTITY_COMPLETED_RESPONSE);
                 failMessage.setFailure(transactionID, fail, false);
                 invokeReturn.put(sourceNodeID, failMessage);
-                multiSend.addSingleThreaded(failMessage);
-              });
+                multiSend.addMultiThreaded(failMessage);
+              } else {
+                InvokeTracing.abandon(sourceNodeID, transactionID);
+              }
               
               locked.getRetirementManager().updateWithRetiree(message, new Retiree() {
                 @Override
@@ -396,9 +571,15 @@ public class ProcessTransactionHandler implements ReconnectListener {
     }
   }
 
-  private void waitForTransactionOrderPersistenceFuture(TransactionID transactionID) {
-    Future<Void> future = transactionOrderPersistenceFutures.get(transactionID);
+  /**
+   * @return the persistence future of the transaction if it is not yet done, null once the transaction order is durable
+   */
+  private CompletableFuture<Void> checkTransactionOrderPersistenceFuture(TransactionID transactionID) {
+    CompletableFuture<Void> future = transactionOrderPersistenceFutures.get(transactionID);
     if(future != null) {
+      if (!future.isDone()) {
+        return future;
+      }
       try {
         future.get();
       } catch (InterruptedException | ExecutionException e) {
@@ -407,6 +588,7 @@ public class ProcessTransactionHandler implements ReconnectListener {
         transactionOrderPersistenceFutures.remove(transactionID);
       }
     }
+    return null;
   }
   
   public void loadExistingEntities() {
@@ -437,8 +619,24 @@ public class ProcessTransactionHandler implements ReconnectListener {
     }
   }
   
-  public void handleResentReferenceMessage(ReferenceMessage msg) {
-    this.references.add(msg);
+  public synchronized void handleResentReferenceMessage(ReferenceMessage msg) {
+    this.references.computeIfAbsent(msg.getSource(), (client)->new LinkedList<>()).add(msg);
+  }
+
+  /**
+   * Drops the references and resends queued from a client whose reconnect failed partway.  The client is closed, so
+   * none of it may be replayed once the server starts.
+   */
+  public synchronized void discardReconnectData(ClientID clientID) {
+    if (this.references != null) {
+      this.references.remove(clientID);
+    }
+    if (this.resendReplayList != null) {
+      this.resendReplayList.removeIf((message)->clientID.equals(message.getSource()));
+    }
+    if (this.resendNewList != null) {
+      this.resendNewList.remove(clientID);
+    }
   }
 
   public void handleResentMessage(ResendVoltronEntityMessage resentMessage) {
@@ -475,9 +673,13 @@ public class ProcessTransactionHandler implements ReconnectListener {
         }
         response.retired();
       } else if (index >= 0) {
-        this.resendReplayList.insert(index, resentMessage);     
+        synchronized (this) {
+          this.resendReplayList.insert(index, resentMessage);
+        }
       } else {
-        this.resendNewList.add(resentMessage);
+        synchronized (this) {
+          this.resendNewList.computeIfAbsent(resentMessage.getSource(), (client)->new LinkedList<>()).add(resentMessage);
+        }
       }
     } catch (EntityException ee) {
       ServerEntityRequestResponse response = new ServerEntityRequestResponse(EntityDescriptor.NULL_ID, ServerEntityAction.CREATE_ENTITY, resentMessage.getTransactionID(), resentMessage.getOldestTransactionOnClient(), resentMessage.getSource(), ()->safeGetChannel(resentMessage.getSource()), false, false);
@@ -489,36 +691,45 @@ public class ProcessTransactionHandler implements ReconnectListener {
   
   private void processAllResends(VoltronEntityMessage trigger) {
  //   TODO:  investigate the need to fold FETCH and RELEASE resends on top of each other
-    if (this.references == null && this.resendReplayList == null && this.resendNewList == null) {
+    if (this.resendsProcessed) {
       return;
-    } else {
-      LOGGER.debug("RESENDS:START");
-      synchronized (this) {
-        while (reconnecting) {
-          try {
-            this.wait();
-          } catch (InterruptedException ie) {
-            throw new RuntimeException(ie);
-          }
+    }
+//  every partition of the voltron stage comes through here.  the first one in replays the resends while the 
+//  others wait so no new message is ordered ahead of a resend
+    synchronized (this) {
+      while (reconnecting) {
+        try {
+          this.wait();
+        } catch (InterruptedException ie) {
+          throw new RuntimeException(ie);
         }
       }
+      if (!this.resendsProcessed) {
+        LOGGER.debug("RESENDS:START");
+        replayAllResends();
+        this.resendsProcessed = true;
+      }
     }
-
+  }
+  
+  private void replayAllResends() {
     this.stateManagerCleanup.run();
 
     // Clear the transaction order persistor since we are starting fresh.
     this.transactionOrderPersistor.clearAllRecords();
     
-    for (ReferenceMessage msg : this.references) {
-      LOGGER.debug("RESENDS:" + msg);
-      try {
-        EntityID eid = this.entityManager.getEntity(msg.getEntityDescriptor()).get().getID();
-        Assert.assertEquals(eid, msg.getEntityDescriptor().getEntityID());
-      } catch (EntityException ee) {
-        // throwing here is big trouble, means the reference is gone but the client thinks it's still there
-        throw new RuntimeException(ee);
+    for (List<ReferenceMessage> clientReferences : this.references.values()) {
+      for (ReferenceMessage msg : clientReferences) {
+        LOGGER.debug("RESENDS:" + msg);
+        try {
+          EntityID eid = this.entityManager.getEntity(msg.getEntityDescriptor()).get().getID();
+          Assert.assertEquals(eid, msg.getEntityDescriptor().getEntityID());
+        } catch (EntityException ee) {
+          // throwing here is big trouble, means the reference is gone but the client thinks it's still there
+          throw new RuntimeException(ee);
+        }
+        executeResend(msg);
       }
-      executeResend(msg);
     }
     this.references = null;
     
@@ -530,9 +741,11 @@ public class ProcessTransactionHandler implements ReconnectListener {
     this.resendReplayList = null;
     
     // Replay all the new messages found during resends.
-    for (ResendVoltronEntityMessage message : this.resendNewList) {
-      LOGGER.debug("RESENDS:" + message);
-      executeResend(message);
+    for (List<ResendVoltronEntityMessage> clientResends : this.resendNewList.values()) {
+      for (ResendVoltronEntityMessage message : clientResends) {
+        LOGGER.debug("RESENDS:" + message);
+        executeResend(message);
+      }
     }
 //  remove tracking for any resent create journal entries
     entityPersistor.removeTrackingForClient(ClientID.NULL_ID);
@@ -31,6 +31,7 @@ import com.tc.l2.msg.ReplicationResultCode;
 import com.tc.l2.msg.SyncReplicationActivity;
 import com.tc.l2.msg.SyncReplicationActivity.ActivityType;
 import com.tc.l2.state.StateManager;
+import com.tc.lang.TCThreadGroup;
 import com.tc.logging.TCLogger;
 import com.tc.logging.TCLogging;
 import com.tc.net.ClientID;
@@ -63,10 +64,12 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 import org.terracotta.entity.ConcurrencyStrategy;
 import org.terracotta.exception.EntityException;
 
@@ -82,10 +85,16 @@ public class ReplicatedTransactionHandler {
   private final GroupManager<AbstractGroupMessage> groupManager;
   private final TransactionOrderPersistor orderedTransactions;
   private final StateManager stateManager;
+  // handles a failure to persist the order of a replicated activity, which surfaces off the stage threads
+  private final TCThreadGroup threadGroup;
   private final ManagedEntity platform;
   
   private final SyncState state = new SyncState();
   
+  // Received acks for activities whose transaction order is not yet durable, each completed once its ack is sent.  The
+  //  acks are chained on the persistence futures, so the concurrency keys keep applying and no thread waits on a store.
+  private final Map<SyncReplicationActivity.ActivityID, CompletableFuture<Void>> awaitingPersistence = new ConcurrentHashMap<>();
+  
   // This MUST be manipulated under lock - it is the batch of ack messages we are accumulating until the network is ready for another message.
   private NodeID cachedMessageAckFrom;
   private GroupMessageBatchContext<ReplicationMessageAck, ReplicationAckTuple> cachedBatchAck;
@@ -97,8 +106,9 @@ public class ReplicatedTransactionHandler {
   };
   
   public ReplicatedTransactionHandler(StateManager state, TransactionOrderPersistor transactionOrderPersistor, 
-      EntityManager manager, EntityPersistor entityPersistor, GroupManager<AbstractGroupMessage> groupManager) {
+      EntityManager manager, EntityPersistor entityPersistor, GroupManager<AbstractGroupMessage> groupManager, TCThreadGroup threadGroup) {
     this.stateManager = state;
+    this.threadGroup = threadGroup;
     this.entityManager = manager;
     this.entityPersistor = entityPersistor;
     this.groupManager = groupManager;
@@ -284,7 +294,7 @@ public class ReplicatedTransactionHandler {
     TransactionID transactionID = activity.getTransactionID();
     TransactionID oldestTransactionOnClient = activity.getOldestTransactionOnClient();
 
-    Future<Void> tmpFuture = null;
+    CompletableFuture<Void> tmpFuture = null;
     // Note that we only want to persist the messages with a true sourceNodeID.  Synthetic invocations and sync messages
     // don't have one (although sync messages shouldn't come down this path).
     if (!ClientInstanceID.NULL_ID.equals(sourceNodeID)) {
@@ -299,7 +309,7 @@ public class ReplicatedTransactionHandler {
       }
     }
 
-    final Future<Void> transactionOrderPersistenceFuture = tmpFuture;
+    final CompletableFuture<Void> transactionOrderPersistenceFuture = tmpFuture;
 
     byte[] extendedData = activity.getExtendedData();
 
@@ -563,23 +573,54 @@ public class ReplicatedTransactionHandler {
     }
   }
 
-  private void ackReceived(ServerID activeSender, SyncReplicationActivity activity, Future<Void> future) {
+  private void ackReceived(ServerID activeSender, SyncReplicationActivity activity, CompletableFuture<Void> future) {
     if (!activeSender.equals(ServerID.NULL_ID)) {
-      if(future != null) {
-        try {
-          future.get();
-        } catch (InterruptedException | ExecutionException e) {
-          throw new RuntimeException("Caught exception while persisting transaction order", e);
+      if(future != null && !future.isDone()) {
+//  don't hold the entity's concurrency key waiting for the order to be durable, the key is free to apply the next 
+//  replicated activity.  the received ack is sent once the order persistence catches up
+        SyncReplicationActivity.ActivityID id = activity.getActivityID();
+        CompletableFuture<Void> received = new CompletableFuture<>();
+        awaitingPersistence.put(id, received);
+        future.whenComplete((result, failure) -> {
+          try {
+            if (failure != null) {
+              throw new RuntimeException("Caught exception while persisting transaction order", failure);
+            }
+            prepareAckForSend(activeSender, id, ReplicationResultCode.RECEIVED);
+            received.complete(null);
+          } catch (Throwable t) {
+//  no acks follow a failure, the server is going down
+            received.completeExceptionally(t);
+//  the completing thread may be virtual, or otherwise outside the server's group, so don't rely on its group
+            threadGroup.uncaughtException(Thread.currentThread(), t);
+          } finally {
+            awaitingPersistence.remove(id);
+          }
+        });
+      } else {
+        if(future != null) {
+          try {
+            future.get();
+          } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Caught exception while persisting transaction order", e);
+          }
         }
+        prepareAckForSend(activeSender, activity.getActivityID(), ReplicationResultCode.RECEIVED);
       }
-      prepareAckForSend(activeSender, activity.getActivityID(), ReplicationResultCode.RECEIVED);
     }
   }
 
   private void acknowledge(ServerID activeSender, SyncReplicationActivity activity, ReplicationResultCode code) {
 //  when is the right time to send the ack?
     if (!activeSender.equals(ServerID.NULL_ID)) {
-      prepareAckForSend(activeSender, activity.getActivityID(), code);
+      SyncReplicationActivity.ActivityID id = activity.getActivityID();
+      CompletableFuture<Void> received = awaitingPersistence.get(id);
+      if (received != null) {
+//  the received ack is still waiting on persistence, the completion must not overtake it
+        received.thenRun(()->prepareAckForSend(activeSender, id, code));
+      } else {
+        prepareAckForSend(activeSender, id, code);
+      }
     }
   }
 
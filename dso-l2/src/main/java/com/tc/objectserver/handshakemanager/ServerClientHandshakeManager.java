@@ -73,6 +73,7 @@ public class ServerClientHandshakeManager {
   private final DSOChannelManager        channelManager;
   private final TCLogger                 logger;
   private final Set<ClientID>            existingUnconnectedClients        = new HashSet<>();
+  private final Set<ClientID>            reconnectingClients               = new HashSet<>();
   private final boolean                  persistent;
   private final TCLogger                 consoleLogger;
 
@@ -108,51 +109,80 @@ public class ServerClientHandshakeManager {
       if (this.state == State.STARTED) {
         // This is a normal connection handshake, from a new client connecting once the server is up and running.
         sendAckMessageFor(clientID);
+        return;
       } else if (this.state == State.STARTING) {
         // This is a client reconnecting after a restart.
-        
         this.channelManager.makeChannelActiveNoAck(handshake.getChannel());
-        
-        // Find any client-entity references and ensure that we account for them.
-        for(ClientEntityReferenceContext referenceContext : handshake.getReconnectReferences()) {
-          Optional<ManagedEntity> entity = null;
-          EntityDescriptor descriptor = EntityDescriptor.createDescriptorForFetch(referenceContext.getEntityID(), referenceContext.getEntityVersion(), referenceContext.getClientInstanceID());
-          try {
-            entity = entityManager.getEntity(descriptor);
-          } catch (EntityException e) {
-            // We don't expect to fail at this point.
-            // TODO:  Determine if we have a meaningful way to handle this error.
-            throw Assert.failure("Unexpected failure to get entity in handshake", e);
-          }
-
-          if (entity.isPresent()) {
-            byte[] extendedReconnectData = referenceContext.getExtendedReconnectData();
-            ReferenceMessage msg = new ReferenceMessage(clientID, true, descriptor, extendedReconnectData);
-            transactionHandler.handleResentReferenceMessage(msg);
-          } else {
-            throw Assert.failure("entity not found");
-          }
-        }
-        
-        // Find any resent messages and re-apply them in the transaction handler.
-        for (ResendVoltronEntityMessage resentMessage : handshake.getResendMessages()) {
-          logger.debug("RESENT:" + resentMessage.getVoltronType() + " " + resentMessage.getEntityDescriptor());
-          transactionHandler.handleResentMessage(resentMessage);
-        }
-
-        // Now that we have processed everything from this resend, see if it was the last one.
-        this.logger.debug("Removing client " + clientID + " from set of existing unconnected clients.");
+        // Move the client from unconnected to reconnecting so the reconnect window can't close while its reconnect 
+        // data is still being processed outside of the lock.
         this.existingUnconnectedClients.remove(clientID);
-        if (this.existingUnconnectedClients.isEmpty()) {
-          this.logger.debug("Last existing unconnected client (" + clientID + ") now connected.  Cancelling timer");
-          this.timer.cancel();
-          start();
-        }
+        this.reconnectingClients.add(clientID);
       } else {
         // This is an unexpected state.  We should only be able to receive handshakes while STARTING (reconnect) or STARTED (new clients).
         Assert.fail();
       }
     }
+    
+    boolean handled = false;
+    try {
+      // The handshake stage is sharded by ClientID so reconnect data from different clients is processed concurrently.
+      // The transaction handler orders everything deterministically once all the clients are in.
+      processReconnectData(clientID, handshake, entityManager, transactionHandler);
+      handled = true;
+    } finally {
+      if (!handled) {
+        // Whatever was queued before the failure must not be replayed for a client which is being dropped.
+        transactionHandler.discardReconnectData(clientID);
+      }
+      synchronized (this) {
+        // Now that we have processed everything from this resend, see if it was the last one.
+        this.logger.debug("Removing client " + clientID + " from set of reconnecting clients.");
+        this.reconnectingClients.remove(clientID);
+        if (!handled) {
+          // Drop the client as if it had missed the reconnect window.  It must not start the server, that is left to
+          // a client which reconnects cleanly or to the reconnect timer.
+          this.logger.error("Failed to process reconnect data from " + clientID + ", closing its channel");
+          this.channelManager.closeAll(Collections.singleton(clientID));
+        }
+        if (this.reconnectingClients.isEmpty()) {
+          notifyAll();
+          if (handled && this.state == State.STARTING && this.existingUnconnectedClients.isEmpty()) {
+            this.logger.debug("Last existing unconnected client (" + clientID + ") now connected.  Cancelling timer");
+            this.timer.cancel();
+            start();
+          }
+        }
+      }
+    }
+  }
+  
+  private void processReconnectData(ClientID clientID, ClientHandshakeMessage handshake, EntityManager entityManager, ProcessTransactionHandler transactionHandler) {
+    // Find any client-entity references and ensure that we account for them.
+    for(ClientEntityReferenceContext referenceContext : handshake.getReconnectReferences()) {
+      Optional<ManagedEntity> entity = null;
+      EntityDescriptor descriptor = EntityDescriptor.createDescriptorForFetch(referenceContext.getEntityID(), referenceContext.getEntityVersion(), referenceContext.getClientInstanceID());
+      try {
+        entity = entityManager.getEntity(descriptor);
+      } catch (EntityException e) {
+        // We don't expect to fail at this point.
+        // TODO:  Determine if we have a meaningful way to handle this error.
+        throw Assert.failure("Unexpected failure to get entity in handshake", e);
+      }
+
+      if (entity.isPresent()) {
+        byte[] extendedReconnectData = referenceContext.getExtendedReconnectData();
+        ReferenceMessage msg = new ReferenceMessage(clientID, true, descriptor, extendedReconnectData);
+        transactionHandler.handleResentReferenceMessage(msg);
+      } else {
+        throw Assert.failure("entity not found");
+      }
+    }
+    
+    // Find any resent messages and re-apply them in the transaction handler.
+    for (ResendVoltronEntityMessage resentMessage : handshake.getResendMessages()) {
+      logger.debug("RESENT:" + resentMessage.getVoltronType() + " " + resentMessage.getEntityDescriptor());
+      transactionHandler.handleResentMessage(resentMessage);
+    }
   }
 
   public void notifyClientRefused(ClientHandshakeMessage clientMsg, String message) {
@@ -182,8 +212,23 @@ public class ServerClientHandshakeManager {
                 + this.existingUnconnectedClients);
       this.channelManager.closeAll(this.existingUnconnectedClients);
       this.existingUnconnectedClients.clear();
+      // Clients which made it in before the window closed still need their reconnect data processed before starting.
+      boolean interrupted = false;
+      while (!this.reconnectingClients.isEmpty()) {
+        try {
+          wait();
+        } catch (InterruptedException ie) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
       this.consoleLogger.info("Reconnect window closed. All dead clients removed.");
-      start();
+      // The last reconnecting client may have already started the server while we were waiting.
+      if (!isStarted()) {
+        start();
+      }
     } else {
       this.consoleLogger.info("Reconnect window closed, but server already started.");
     }
@@ -204,7 +249,7 @@ public class ServerClientHandshakeManager {
     notifyComplete();
     // Tell the transaction handler the message to replay any resends we received.  Schedule a noop 
     // in case all the clients are waiting on resends
-    stageManager.getStage(ServerConfigurationContext.VOLTRON_MESSAGE_STAGE, VoltronEntityMessage.class).getSink().addSingleThreaded(new LocalPipelineFlushMessage(EntityDescriptor.NULL_ID, false));
+    stageManager.getStage(ServerConfigurationContext.VOLTRON_MESSAGE_STAGE, VoltronEntityMessage.class).getSink().addMultiThreaded(new LocalPipelineFlushMessage(EntityDescriptor.NULL_ID, false));
   }
   
   public void notifyComplete() {
@@ -40,14 +40,14 @@ public class AggregateSampleRateCounter extends SampledCounterImpl implements Sa
     public synchronized void increment(long numeratorParam, long denominatorParam) {
         this.numerator += numeratorParam;
         this.denominator += denominatorParam;
-        super.increment();
+        super.add(1);
     }
 
     @Override
     public synchronized void decrement(long numeratorParam, long denominatorParam) {
         this.numerator -= numeratorParam;
         this.denominator -= denominatorParam;
-        super.decrement();
+        super.add(-1);
     }
 
     @Override
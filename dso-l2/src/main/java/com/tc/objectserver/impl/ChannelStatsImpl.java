@@ -92,7 +92,7 @@ public class ChannelStatsImpl implements ChannelStats, DSOChannelManagerEventLis
   public void writeOperationEvent(Events.WriteOperationCountChangeEvent event) {
     try {
       MessageChannel channel = channelManager.getActiveChannel(event.getSource());
-      getCounter(channel, WRITE_RATE).increment(event.getDelta());
+      getCounter(channel, WRITE_RATE).add(event.getDelta());
     } catch (NoSuchChannelException e) {
       //
     }
@@ -100,14 +100,14 @@ public class ChannelStatsImpl implements ChannelStats, DSOChannelManagerEventLis
 
   @Override
   public void notifyReadOperations(MessageChannel channel, int numObjectsRequested) {
-    getCounter(channel, ChannelStats.READ_RATE).increment(numObjectsRequested);
+    getCounter(channel, ChannelStats.READ_RATE).add(numObjectsRequested);
   }
 
   @Override
   public void notifyTransaction(NodeID nodeID, int numTxns) {
     try {
       MessageChannel channel = channelManager.getActiveChannel(nodeID);
-      getCounter(channel, TXN_RATE).increment(numTxns);
+      getCounter(channel, TXN_RATE).add(numTxns);
     } catch (NoSuchChannelException e) {
       //
     }
@@ -117,7 +117,7 @@ public class ChannelStatsImpl implements ChannelStats, DSOChannelManagerEventLis
   public void notifyTransactionBroadcastedTo(NodeID nodeID) {
     try {
       MessageChannel channel = channelManager.getActiveChannel(nodeID);
-      getCounter(channel, PENDING_TRANSACTIONS).increment();
+      getCounter(channel, PENDING_TRANSACTIONS).add(1);
     } catch (NoSuchChannelException e) {
       //
     }
@@ -127,7 +127,7 @@ public class ChannelStatsImpl implements ChannelStats, DSOChannelManagerEventLis
   public void notifyTransactionAckedFrom(NodeID nodeID) {
     try {
       MessageChannel channel = channelManager.getActiveChannel(nodeID);
-      getCounter(channel, PENDING_TRANSACTIONS).decrement();
+      getCounter(channel, PENDING_TRANSACTIONS).add(-1);
     } catch (NoSuchChannelException e) {
       //
     }
@@ -173,6 +173,7 @@ import com.tc.objectserver.core.impl.ServerManagementContext;
 import com.tc.objectserver.entity.ActiveToPassiveReplication;
 import com.tc.objectserver.handler.ChannelLifeCycleHandler;
 import com.tc.objectserver.handler.ClientHandshakeHandler;
+import com.tc.objectserver.handler.CreditGranter;
 import com.tc.objectserver.handler.ProcessTransactionHandler;
 import com.tc.objectserver.handler.RequestLockUnLockHandler;
 import com.tc.objectserver.handler.RespondToRequestLockHandler;
@@ -181,6 +182,7 @@ import com.tc.objectserver.locks.LockManagerImpl;
 import com.tc.objectserver.locks.LockResponseContext;
 import com.tc.objectserver.persistence.ClientStatePersistor;
 import com.tc.objectserver.persistence.Persistor;
+import com.tc.objectserver.persistence.EntityStateStoreServiceProvider;
 import com.tc.objectserver.persistence.NullPlatformStorageServiceProvider;
 import com.tc.objectserver.persistence.NullPlatformStorageProviderConfiguration;
 import com.tc.operatorevent.OperatorEventHistoryProviderImpl;
@@ -198,6 +200,7 @@ import com.tc.server.TCServer;
 import com.tc.server.TCServerMain;
 import com.tc.services.CommunicatorResponseHandler;
 import com.tc.services.CommunicatorService;
+import com.tc.services.EmptyServiceProviderConfiguration;
 import com.tc.services.EntityMessengerProvider;
 import com.tc.services.LocalMonitoringProducer;
 import com.tc.services.TerracottaServiceProviderRegistryImpl;
@@ -220,6 +223,7 @@ import com.tc.util.runtime.ThreadIDMap;
 import com.tc.util.startuplock.FileNotCreatedException;
 import com.tc.util.startuplock.LocationNotCreatedException;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.NetworkInterface;
@@ -484,6 +488,14 @@ public class DistributedObjectServer implements TCDumper, LockInfoDumpHandler, S
       serviceRegistry.registerExternal(nullPlatformStorageServiceProvider);
     }
     logger.debug("persistent: " + serverIsRestartable);
+
+    // Entities can keep large state off the heap, logged to disk only if the rest of the server state survives a restart.
+    String stateStoreDirectory = this.tcProperties.getProperty(TCPropertiesConsts.L2_ENTITY_STATESTORE_DIRECTORY, true);
+    EntityStateStoreServiceProvider stateStoreProvider = new EntityStateStoreServiceProvider(
+        serverIsRestartable && stateStoreDirectory != null && !stateStoreDirectory.isEmpty() ? new File(stateStoreDirectory) : null);
+    if (stateStoreProvider.initialize(new EmptyServiceProviderConfiguration(EntityStateStoreServiceProvider.class), platformConfiguration)) {
+      serviceRegistry.registerExternal(stateStoreProvider);
+    }
     
     // We want to register our IMonitoringProducer shim.
     // (note that it requires a PlatformServer instance of THIS server).
@@ -703,8 +715,8 @@ public class DistributedObjectServer implements TCDumper, LockInfoDumpHandler, S
     entityManager = new EntityManagerImpl(this.serviceRegistry, clientEntityStateManager, eventCollector, processor, this::flushLocalPipeline);
     // We need to set up a stage to point at the ProcessTransactionHandler and we also need to register it for events, below.
     final ProcessTransactionHandler processTransactionHandler = new ProcessTransactionHandler(this.persistor.getEntityPersistor(), this.persistor.getTransactionOrderPersistor(), channelManager, entityManager, () -> l2Coordinator.getStateManager().cleanupKnownServers());
-    final Stage<VoltronEntityMessage> processTransactionStage_voltron = stageManager.createStage(ServerConfigurationContext.VOLTRON_MESSAGE_STAGE, VoltronEntityMessage.class, processTransactionHandler.getVoltronMessageHandler(), 1, maxStageSize);
-    final Stage<TCMessage> multiRespond = stageManager.createStage(ServerConfigurationContext.RESPOND_TO_REQUEST_STAGE, TCMessage.class, processTransactionHandler.getMultiResponseSender(), 1, maxStageSize);
+    final Stage<VoltronEntityMessage> processTransactionStage_voltron = stageManager.createStage(ServerConfigurationContext.VOLTRON_MESSAGE_STAGE, VoltronEntityMessage.class, processTransactionHandler.getVoltronMessageHandler(), L2Utils.getOptimalVoltronStageWorkerThreads(), maxStageSize);
+    final Stage<TCMessage> multiRespond = stageManager.createStage(ServerConfigurationContext.RESPOND_TO_REQUEST_STAGE, TCMessage.class, processTransactionHandler.getMultiResponseSender(), L2Utils.getOptimalResponseStageWorkerThreads(), maxStageSize);
     final Sink<VoltronEntityMessage> voltronMessageSink = processTransactionStage_voltron.getSink();
     
     // We need to connect the IInterEntityMessengerProvider to the voltronMessageSink.
@@ -717,7 +729,7 @@ public class DistributedObjectServer implements TCDumper, LockInfoDumpHandler, S
 
     final Stage<LockRequestMessage> requestLock = stageManager.createStage(ServerConfigurationContext.REQUEST_LOCK_STAGE, LockRequestMessage.class, new RequestLockUnLockHandler(), 1, maxStageSize);
 
-    final Stage<ClientHandshakeMessage> clientHandshake = stageManager.createStage(ServerConfigurationContext.CLIENT_HANDSHAKE_STAGE, ClientHandshakeMessage.class, createHandShakeHandler(entityManager, processTransactionHandler), 1, maxStageSize);
+    final Stage<ClientHandshakeMessage> clientHandshake = stageManager.createStage(ServerConfigurationContext.CLIENT_HANDSHAKE_STAGE, ClientHandshakeMessage.class, createHandShakeHandler(entityManager, processTransactionHandler), L2Utils.getOptimalHandshakeStageWorkerThreads(), maxStageSize);
     this.hydrateStage = stageManager.createStage(ServerConfigurationContext.HYDRATE_MESSAGE_SINK, HydrateContext.class, new HydrateHandler(), stageWorkerThreadCount, maxStageSize);
     
     final Sink<HydrateContext> hydrateSink = this.hydrateStage.getSink();
@@ -747,7 +759,7 @@ public class DistributedObjectServer implements TCDumper, LockInfoDumpHandler, S
     
     state.registerForStateChangeEvents(this.server);
 //  routing for passive to receive replication    
-    ReplicatedTransactionHandler replicatedTransactionHandler = new ReplicatedTransactionHandler(state, this.persistor.getTransactionOrderPersistor(), entityManager, this.persistor.getEntityPersistor(), groupCommManager);
+    ReplicatedTransactionHandler replicatedTransactionHandler = new ReplicatedTransactionHandler(state, this.persistor.getTransactionOrderPersistor(), entityManager, this.persistor.getEntityPersistor(), groupCommManager, this.threadGroup);
     // This requires both the stage for handling the replication/sync messages.
     Stage<ReplicationMessage> replicationStage = stageManager.createStage(ServerConfigurationContext.PASSIVE_REPLICATION_STAGE, ReplicationMessage.class, 
         replicatedTransactionHandler.getEventHandler(), 1, maxStageSize);
@@ -776,6 +788,7 @@ public class DistributedObjectServer implements TCDumper, LockInfoDumpHandler, S
     
     final ActiveToPassiveReplication passives = new ActiveToPassiveReplication(processTransactionHandler, l2Coordinator.getReplicatedClusterStateManager().getPassives(), this.persistor.getEntityPersistor(), replicationSender, this.getGroupManager());
     processor.setReplication(passives); 
+    processTransactionHandler.setCreditGranter(new CreditGranter(() -> voltronMessageSink.size() + multiRespond.getSink().size(), passives::outstandingReplications, () -> channelManager.getActiveChannels().length));
 
     Stage<ReplicationMessageAck> replicationStageAck = stageManager.createStage(ServerConfigurationContext.PASSIVE_REPLICATION_ACK_STAGE, ReplicationMessageAck.class, 
         new AbstractEventHandler<ReplicationMessageAck>() {
@@ -865,7 +878,8 @@ public class DistributedObjectServer implements TCDumper, LockInfoDumpHandler, S
         this.lockManager, (DSOChannelManagerMBean) channelManager,
                                                          serverStats, channelStats, instanceMonitor,
                                                          connectionPolicy,
-                                                         remoteManagement);
+                                                         remoteManagement,
+                                                         stageManager);
 
     final CallbackOnExitHandler handler = new CallbackGroupExceptionHandler(logger, consoleLogger);
     this.threadGroup.addCallbackOnExitExceptionHandler(GroupException.class, handler);
@@ -926,7 +940,7 @@ public class DistributedObjectServer implements TCDumper, LockInfoDumpHandler, S
 //  must be active, noop the ProcessTransactionHandler
     this.seda.getStageManager()
         .getStage(ServerConfigurationContext.VOLTRON_MESSAGE_STAGE, VoltronEntityMessage.class)
-        .getSink().addSingleThreaded(new LocalPipelineFlushMessage(EntityDescriptor.createDescriptorForInvoke(fetch, ClientInstanceID.NULL_ID), forDestroy));
+        .getSink().addMultiThreaded(new LocalPipelineFlushMessage(EntityDescriptor.createDescriptorForInvoke(fetch, ClientInstanceID.NULL_ID), forDestroy));
   }
 
   private StageController createStageController(LocalMonitoringProducer monitoringSupport) {
@@ -1109,7 +1123,7 @@ public class DistributedObjectServer implements TCDumper, LockInfoDumpHandler, S
         checkdups.put(vem.getEntityDescriptor().getEntityID(), vem);
       }
       for (VoltronEntityMessage vem : checkdups.values()) {
-        msgSink.addSingleThreaded(vem);
+        msgSink.addMultiThreaded(vem);
       }
     }
   }
@@ -0,0 +1,133 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.objectserver.persistence;
+
+import com.tc.logging.TCLogger;
+import com.tc.logging.TCLogging;
+import com.tc.services.EntityDestroyedListener;
+
+import org.terracotta.entity.PlatformConfiguration;
+import org.terracotta.entity.ServiceConfiguration;
+import org.terracotta.entity.ServiceProvider;
+import org.terracotta.entity.ServiceProviderCleanupException;
+import org.terracotta.entity.ServiceProviderConfiguration;
+import org.terracotta.entity.StateDumpable;
+import org.terracotta.entity.StateDumper;
+import org.terracotta.entity.state.EntityStateStore;
+import org.terracotta.entity.state.EntityStateStoreConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out {@link EntityStateStore}s, one per entity and store name.  Stores requested as persistent keep an
+ * append-only log in the store directory, when the server has one; otherwise they only live as long as the server.
+ * An entity's stores, and their logs, are deleted when the entity is destroyed.
+ */
+public class EntityStateStoreServiceProvider implements ServiceProvider, StateDumpable, EntityDestroyedListener {
+  private static final TCLogger logger = TCLogging.getLogger(EntityStateStoreServiceProvider.class);
+
+  private final File directory;
+  private final Map<String, OffHeapEntityStateStore> stores = new ConcurrentHashMap<>();
+
+  public EntityStateStoreServiceProvider(File directory) {
+    this.directory = directory;
+  }
+
+  @Override
+  public boolean initialize(ServiceProviderConfiguration serviceProviderConfiguration, PlatformConfiguration platformConfiguration) {
+    if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+      logger.error("Unable to create entity state store directory " + directory);
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public <T> T getService(long consumerID, ServiceConfiguration<T> configuration) {
+    EntityStateStoreConfiguration storeConfiguration = (EntityStateStoreConfiguration) configuration;
+    String storeName = consumerID + "-" + storeConfiguration.getName();
+    OffHeapEntityStateStore store = stores.computeIfAbsent(storeName, name -> open(name, storeConfiguration.isPersistent()));
+    return configuration.getServiceType().cast(store);
+  }
+
+  @Override
+  public Collection<Class<?>> getProvidedServiceTypes() {
+    return Collections.singleton(EntityStateStore.class);
+  }
+
+  @Override
+  public void prepareForSynchronization() throws ServiceProviderCleanupException {
+    // A passive is about to be sent the state of every entity so anything it kept from before is stale.
+    try {
+      for (OffHeapEntityStateStore store : stores.values()) {
+        store.destroy();
+      }
+      stores.clear();
+    } catch (IOException ioe) {
+      throw new ServiceProviderCleanupException("Unable to clear entity state stores", ioe);
+    }
+  }
+
+  @Override
+  public void entityDestroyed(long consumerID) {
+    String prefix = consumerID + "-";
+    for (Iterator<Map.Entry<String, OffHeapEntityStateStore>> i = stores.entrySet().iterator(); i.hasNext(); ) {
+      Map.Entry<String, OffHeapEntityStateStore> entry = i.next();
+      if (entry.getKey().startsWith(prefix)) {
+        i.remove();
+        try {
+          entry.getValue().destroy();
+        } catch (IOException ioe) {
+          logger.warn("Unable to delete entity state store " + entry.getKey(), ioe);
+        }
+      }
+    }
+  }
+
+  public void close() throws IOException {
+    for (OffHeapEntityStateStore store : stores.values()) {
+      store.close();
+    }
+    stores.clear();
+  }
+
+  @Override
+  public void dumpStateTo(StateDumper stateDumper) {
+    for (Map.Entry<String, OffHeapEntityStateStore> entry : stores.entrySet()) {
+      stateDumper.dumpState(entry.getKey(), String.valueOf(entry.getValue().size()));
+    }
+  }
+
+  private OffHeapEntityStateStore open(String storeName, boolean persistent) {
+    if (!persistent || directory == null) {
+      return new OffHeapEntityStateStore();
+    }
+    try {
+      return new OffHeapEntityStateStore(new File(directory, storeName + ".log"));
+    } catch (IOException ioe) {
+      throw new RuntimeException("Unable to open entity state store " + storeName, ioe);
+    }
+  }
+}
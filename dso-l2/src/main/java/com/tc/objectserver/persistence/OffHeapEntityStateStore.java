@@ -0,0 +1,427 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.objectserver.persistence;
+
+import com.tc.logging.TCLogger;
+import com.tc.logging.TCLogging;
+
+import org.terracotta.entity.state.EntityStateStore;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link EntityStateStore} which keeps its values in direct memory.  Only the index of keys lives on the heap.
+ * <p>
+ * Values are copied into large direct slabs rather than a direct buffer each.  Slab space is never reused in place, so
+ * a value can be read without locking and a snapshot stays valid however the store changes after it was taken.  A
+ * slab is dropped once nothing in it is live, and the live values are repacked into fresh slabs once the slabs are
+ * more than twice their size.
+ * <p>
+ * If given a log file, every change is appended to it as a record of an op byte, the key and, for puts, the value, and
+ * forced to disk before the change returns.  The log is replayed when the store is opened, dropping a record torn by a
+ * crash, and is rewritten from the live mappings once it has grown to more than twice their size.
+ */
+public class OffHeapEntityStateStore implements EntityStateStore {
+  private static final TCLogger logger = TCLogging.getLogger(OffHeapEntityStateStore.class);
+
+  private static final byte PUT = 1;
+  private static final byte REMOVE = 2;
+  private static final long MIN_COMPACTION_SIZE = 16 * 1024 * 1024;
+  private static final int SLAB_SIZE = 1024 * 1024;
+  // values bigger than this get a slab of their own rather than wasting the end of a shared one
+  private static final int MAX_SHARED_VALUE = SLAB_SIZE / 4;
+  private static final long MIN_REPACK_SIZE = 4L * SLAB_SIZE;
+
+  private final Map<Key, Value> values = new ConcurrentHashMap<>();
+  private final File log;
+  private FileChannel channel;
+  private boolean closed;
+  private long logSize;
+  private long liveSize;
+  // the fields below are guarded by this
+  private Slab current;
+  private long slabBytes;
+  private long valueBytes;
+
+  public OffHeapEntityStateStore() {
+    this.log = null;
+  }
+
+  public OffHeapEntityStateStore(File log) throws IOException {
+    this.log = log;
+    replay();
+    this.channel = open(log);
+  }
+
+  @Override
+  public synchronized void put(byte[] key, byte[] value) throws IOException {
+    checkOpen();
+    Key k = new Key(key.clone());
+    if (channel != null) {
+      append(PUT, k.bytes, value);
+      channel.force(false);
+    }
+    Value old = values.put(k, store(value));
+    if (old != null) {
+      release(old);
+      liveSize -= recordSize(key.length, old.length);
+    }
+    liveSize += recordSize(key.length, value.length);
+    compactIfNeeded();
+    repackIfNeeded();
+  }
+
+  @Override
+  public byte[] get(byte[] key) {
+    Value stored = values.get(new Key(key));
+    return stored == null ? null : stored.copy();
+  }
+
+  @Override
+  public synchronized boolean remove(byte[] key) throws IOException {
+    checkOpen();
+    Key k = new Key(key);
+    if (!values.containsKey(k)) {
+      return false;
+    }
+    if (channel != null) {
+      append(REMOVE, key, null);
+      channel.force(false);
+    }
+    Value old = values.remove(k);
+    release(old);
+    liveSize -= recordSize(key.length, old.length);
+    compactIfNeeded();
+    repackIfNeeded();
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return values.size();
+  }
+
+  @Override
+  public Iterator<Map.Entry<byte[], byte[]>> snapshot() {
+    final List<Map.Entry<Key, Value>> entries;
+    synchronized (this) {
+      entries = new ArrayList<>(values.entrySet());
+    }
+    final Iterator<Map.Entry<Key, Value>> delegate = entries.iterator();
+    return new Iterator<Map.Entry<byte[], byte[]>>() {
+      @Override
+      public boolean hasNext() {
+        return delegate.hasNext();
+      }
+
+      @Override
+      public Map.Entry<byte[], byte[]> next() {
+        Map.Entry<Key, Value> next = delegate.next();
+        return new AbstractMap.SimpleImmutableEntry<>(next.getKey().bytes.clone(), next.getValue().copy());
+      }
+    };
+  }
+
+  @Override
+  public synchronized void clear() throws IOException {
+    checkOpen();
+    dropValues();
+    if (channel != null) {
+      channel.truncate(0);
+      channel.force(true);
+      logSize = 0;
+    }
+  }
+
+  /**
+   * Closes the store's log.  Any later change is rejected, rather than only being made in memory.
+   */
+  public synchronized void close() throws IOException {
+    closed = true;
+    if (channel != null) {
+      channel.close();
+      channel = null;
+    }
+  }
+
+  /**
+   * Closes the store and deletes its log.
+   */
+  public synchronized void destroy() throws IOException {
+    close();
+    dropValues();
+    if (log != null) {
+      Files.deleteIfExists(log.toPath());
+    }
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("Entity state store " + (log == null ? "" : log + " ") + "has been closed");
+    }
+  }
+
+  private void dropValues() {
+    values.clear();
+    liveSize = 0;
+    current = null;
+    slabBytes = 0;
+    valueBytes = 0;
+  }
+
+  private Value store(byte[] value) {
+    Slab slab;
+    if (value.length > MAX_SHARED_VALUE) {
+      slab = new Slab(value.length);
+    } else {
+      if (current == null || current.buffer.remaining() < value.length) {
+        current = new Slab(SLAB_SIZE);
+        slabBytes += SLAB_SIZE;
+      }
+      slab = current;
+    }
+    if (slab != current) {
+      slabBytes += slab.buffer.capacity();
+    }
+    valueBytes += value.length;
+    return slab.add(value);
+  }
+
+  private void release(Value value) {
+    valueBytes -= value.length;
+    value.slab.live -= 1;
+    if (value.slab.live == 0) {
+      // nothing refers to the slab any more but readers and snapshots which already hold its values
+      slabBytes -= value.slab.buffer.capacity();
+      if (value.slab == current) {
+        current = null;
+      }
+    }
+  }
+
+  private void repackIfNeeded() {
+    if (slabBytes < MIN_REPACK_SIZE || slabBytes < 2 * valueBytes) {
+      return;
+    }
+    long before = slabBytes;
+    current = null;
+    slabBytes = 0;
+    valueBytes = 0;
+    for (Map.Entry<Key, Value> e : values.entrySet()) {
+      e.setValue(store(e.getValue().copy()));
+    }
+    logger.debug("Repacked " + before + " bytes of slabs into " + slabBytes);
+  }
+
+  private void replay() throws IOException {
+    if (!log.exists()) {
+      return;
+    }
+    long length = log.length();
+    long valid = 0;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(log)))) {
+      while (true) {
+        byte op = in.readByte();
+        if (op != PUT && op != REMOVE) {
+          throw new IOException("Unknown record type " + op + " at offset " + valid + " of " + log);
+        }
+        byte[] key = new byte[readLength(in, length - valid - 5, valid)];
+        in.readFully(key);
+        if (op == PUT) {
+          byte[] value = new byte[readLength(in, length - valid - recordSize(key.length, 0), valid)];
+          in.readFully(value);
+          Value old = values.put(new Key(key), store(value));
+          if (old != null) {
+            release(old);
+          }
+          valid += recordSize(key.length, value.length);
+        } else {
+          Value old = values.remove(new Key(key));
+          if (old != null) {
+            release(old);
+          }
+          valid += recordSize(key.length, -1);
+        }
+      }
+    } catch (EOFException eof) {
+      // the end of the log, or a record torn by a crash which is dropped below
+    }
+    if (valid < length) {
+      logger.warn("Dropping " + (length - valid) + " bytes of incomplete record at the end of " + log);
+      try (RandomAccessFile file = new RandomAccessFile(log, "rw")) {
+        file.setLength(valid);
+        file.getFD().sync();
+      }
+    }
+    for (Map.Entry<Key, Value> e : values.entrySet()) {
+      liveSize += recordSize(e.getKey().bytes.length, e.getValue().length);
+    }
+    repackIfNeeded();
+  }
+
+  /**
+   * Reads a key or value length, which is checked against what is left of the log before anything is allocated for it.
+   * A length running past the end is a record torn by a crash; a negative one means the log is corrupt.
+   */
+  private int readLength(DataInputStream in, long remaining, long offset) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      throw new IOException("Corrupt record length " + length + " at offset " + offset + " of " + log);
+    }
+    if (length > remaining) {
+      throw new EOFException();
+    }
+    return length;
+  }
+
+  private FileChannel open(File file) throws IOException {
+    FileChannel fc = new RandomAccessFile(file, "rw").getChannel();
+    fc.position(fc.size());
+    logSize = fc.size();
+    return fc;
+  }
+
+  private void append(byte op, byte[] key, byte[] value) throws IOException {
+    ByteBuffer record = ByteBuffer.allocate((int) recordSize(key.length, value == null ? -1 : value.length));
+    record.put(op).putInt(key.length).put(key);
+    if (value != null) {
+      record.putInt(value.length).put(value);
+    }
+    record.flip();
+    while (record.hasRemaining()) {
+      logSize += channel.write(record);
+    }
+  }
+
+  private void compactIfNeeded() throws IOException {
+    if (channel == null || logSize < MIN_COMPACTION_SIZE || logSize < 2 * liveSize) {
+      return;
+    }
+    File compacted = new File(log.getPath() + ".compact");
+    try (FileChannel out = new RandomAccessFile(compacted, "rw").getChannel()) {
+      out.truncate(0);
+      FileChannel current = channel;
+      channel = out;
+      try {
+        for (Map.Entry<Key, Value> e : values.entrySet()) {
+          append(PUT, e.getKey().bytes, e.getValue().copy());
+        }
+        out.force(true);
+      } finally {
+        channel = current;
+      }
+    }
+    channel.close();
+    Files.move(compacted.toPath(), log.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    syncDirectory(log.getAbsoluteFile().getParentFile());
+    channel = open(log);
+    logger.info("Compacted " + log + " to " + logSize + " bytes");
+  }
+
+  /**
+   * Makes the rename of a compacted log durable.  Not every platform can open a directory for this, in which case the
+   * rename is left to the file system.
+   */
+  private static void syncDirectory(File directory) {
+    try (FileChannel dir = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+      dir.force(true);
+    } catch (IOException ioe) {
+      logger.debug("Unable to sync " + directory, ioe);
+    }
+  }
+
+  private static long recordSize(int keyLength, int valueLength) {
+    return 1 + 4 + keyLength + (valueLength < 0 ? 0 : 4 + valueLength);
+  }
+
+  private static final class Slab {
+    private final ByteBuffer buffer;
+    // number of values in this slab which are still mapped, guarded by the store
+    private int live;
+
+    Slab(int size) {
+      this.buffer = ByteBuffer.allocateDirect(size);
+    }
+
+    Value add(byte[] value) {
+      int offset = buffer.position();
+      buffer.put(value);
+      live += 1;
+      return new Value(this, offset, value.length);
+    }
+  }
+
+  private static final class Value {
+    private final Slab slab;
+    private final int offset;
+    private final int length;
+
+    Value(Slab slab, int offset, int length) {
+      this.slab = slab;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    byte[] copy() {
+      byte[] value = new byte[length];
+      ByteBuffer read = slab.buffer.duplicate();
+      read.position(offset);
+      read.get(value);
+      return value;
+    }
+  }
+
+  private static final class Key {
+    private final byte[] bytes;
+    private final int hash;
+
+    Key(byte[] bytes) {
+      this.bytes = bytes;
+      this.hash = Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Key && Arrays.equals(bytes, ((Key) obj).bytes);
+    }
+  }
+}
@@ -24,6 +24,7 @@ import com.tc.net.ClientID;
 import com.tc.net.protocol.tcm.ChannelID;
 import com.tc.object.tx.TransactionID;
 import com.tc.util.Assert;
+import com.tc.util.concurrent.ThreadFactoryBuilder;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -33,8 +34,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 
 /**
@@ -62,8 +69,10 @@ public class TransactionOrderPersistor {
    * Called to handle the changes to persisted transactions, based on a new one.
    * This new transactionID will be enqueued as the most recent transaction for the given source but also globally.
    * Any transactions for this source which are older than oldestTransactionOnClient will be removed from persistence.
+   *
+   * @return completes once the new order is durable, or null for the null client which is never persisted
    */
-  public synchronized Future<Void> updateWithNewMessage(ClientID source, TransactionID transactionID, TransactionID oldestTransactionOnClient) {
+  public synchronized CompletableFuture<Void> updateWithNewMessage(ClientID source, TransactionID transactionID, TransactionID oldestTransactionOnClient) {
     // We need to ensure that the arguments are sane.
     if ((null == oldestTransactionOnClient) || (null == transactionID)) {
       throw new IllegalArgumentException("Transactions cannot be null");
@@ -88,11 +97,98 @@ public class TransactionOrderPersistor {
     
     // We now pass this straight into the underlying storage.
     if (!source.isNull()) {
-      return this.storageManager.fastStoreSequence(source.toLong(), transaction, oldestTransactionOnClient.toLong());
+      return toCompletable(this.storageManager.fastStoreSequence(source.toLong(), transaction, oldestTransactionOnClient.toLong()));
     }
     return null;
   }
 
+  @SuppressWarnings("unchecked")
+  private static CompletableFuture<Void> toCompletable(Future<Void> future) {
+    if (future == null) {
+      return null;
+    }
+    if (future instanceof CompletionStage) {
+      return ((CompletionStage<Void>) future).toCompletableFuture();
+    }
+    CompletableFuture<Void> completable = new CompletableFuture<>();
+    if (future.isDone()) {
+      complete(future, completable);
+    } else {
+      CompletionPoller.INSTANCE.watch(future, completable);
+    }
+    return completable;
+  }
+
+  private static void complete(Future<Void> future, CompletableFuture<Void> completable) {
+    try {
+      future.get();
+      completable.complete(null);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      completable.completeExceptionally(ie);
+    } catch (ExecutionException ee) {
+      completable.completeExceptionally(ee.getCause());
+    }
+  }
+
+  /**
+   * Completes the futures of a storage provider which can not be chained on.  A single thread polls every pending store
+   * instead of blocking a thread on each, so the thread count stays fixed however many stores are in flight.  Started
+   * the first time such a future is seen.
+   */
+  private static class CompletionPoller implements Runnable {
+    private static final CompletionPoller INSTANCE = new CompletionPoller();
+    private static final long POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final BlockingQueue<Pending> added = new LinkedBlockingQueue<>();
+    // Only touched by the poller thread.
+    private final List<Pending> pending = new ArrayList<>();
+
+    private CompletionPoller() {
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("Transaction Order Persistence Waiter-%d").build()
+          .newThread(this).start();
+    }
+
+    void watch(Future<Void> future, CompletableFuture<Void> completable) {
+      this.added.add(new Pending(future, completable));
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (true) {
+          if (this.pending.isEmpty()) {
+            this.pending.add(this.added.take());
+          }
+          this.added.drainTo(this.pending);
+          if (!this.pending.removeIf(Pending::completeIfDone)) {
+            LockSupport.parkNanos(POLL_NANOS);
+          }
+        }
+      } catch (InterruptedException ie) {
+        // Only a daemon, nothing interrupts it but the JVM going away.
+      }
+    }
+  }
+
+  private static class Pending {
+    private final Future<Void> future;
+    private final CompletableFuture<Void> completable;
+
+    Pending(Future<Void> future, CompletableFuture<Void> completable) {
+      this.future = future;
+      this.completable = completable;
+    }
+
+    boolean completeIfDone() {
+      if (!this.future.isDone()) {
+        return false;
+      }
+      complete(this.future, this.completable);
+      return true;
+    }
+  }
+
   /**
    * Called when we no longer need to track transaction ordering information from source (presumably due to a disconnect).
    */
@@ -158,7 +254,7 @@ public class TransactionOrderPersistor {
    * Called to ask where a given client-local transaction exists in the global transaction list.
    * Returns the index or -1 if it isn't known.
    */
-  public int getIndexToReplay(ClientID source, TransactionID transaction) {
+  public synchronized int getIndexToReplay(ClientID source, TransactionID transaction) {
     long sourceID = source.toLong();
     long transactionID = transaction.toLong();
     
@@ -178,7 +274,7 @@ public class TransactionOrderPersistor {
   /**
    * Clears all internal state.
    */
-  public void clearAllRecords() {
+  public synchronized void clearAllRecords() {
     this.globalList = null;
     for (long nodeID : clientNodeIDs) {
       try {
@@ -24,7 +24,9 @@ import com.tc.net.protocol.tcm.MessageChannel;
 import com.tc.net.protocol.tcm.TCMessageType;
 import com.tc.object.ClientInstanceID;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class ClientAccount {
@@ -72,12 +74,23 @@ public class ClientAccount {
     }
   }
 
-  synchronized void response(long responseId) {
-    if (open) {
-      ResponseWaiter responseWaiter = waitingResponse.remove(responseId);
-      if (responseWaiter != null) {
-        responseWaiter.done();
+  /**
+   * Completes the waiters for a whole batch of acknowledgements under one lock.
+   */
+  void response(long[] responseIds) {
+    List<ResponseWaiter> done = new ArrayList<>(responseIds.length);
+    synchronized (this) {
+      if (open) {
+        for (long responseId : responseIds) {
+          ResponseWaiter responseWaiter = waitingResponse.remove(responseId);
+          if (responseWaiter != null) {
+            done.add(responseWaiter);
+          }
+        }
       }
     }
+    for (ResponseWaiter responseWaiter : done) {
+      responseWaiter.done();
+    }
   }
 }
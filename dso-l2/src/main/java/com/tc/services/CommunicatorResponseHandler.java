@@ -35,6 +35,6 @@ public class CommunicatorResponseHandler extends AbstractEventHandler<ServerEnti
 
   @Override
   public void handleEvent(ServerEntityResponseMessage responseMessage) throws EventHandlerException {
-    communicatorService.response(responseMessage.getSourceNodeID(), responseMessage.getResponseId());
+    communicatorService.response(responseMessage.getSourceNodeID(), responseMessage.getResponseIds());
   }
 }
@@ -53,10 +53,10 @@ public class CommunicatorService implements ImplementationProvidedServiceProvide
     }
   }
 
-  void response(NodeID nodeID, long responseId) {
+  void response(NodeID nodeID, long[] responseIds) {
     ClientAccount clientAccount = clientAccounts.get(nodeID);
     if (clientAccount != null) {
-      clientAccount.response(responseId);
+      clientAccount.response(responseIds);
     }
   }
 
@@ -26,9 +26,11 @@ import org.terracotta.entity.ServiceConfiguration;
 import org.terracotta.entity.ServiceProvider;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 public class DelegatingServiceRegistry implements InternalServiceRegistry {
@@ -88,6 +90,19 @@ public class DelegatingServiceRegistry implements InternalServiceRegistry {
     this.owningEntity = entity;
   }
 
+  @Override
+  public void entityDestroyed() {
+    // a provider is listed once for each type it provides but should only hear about the entity once
+    Set<ServiceProvider> notified = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (List<ServiceProvider> providers : serviceProviderMap.values()) {
+      for (ServiceProvider provider : providers) {
+        if (provider instanceof EntityDestroyedListener && notified.add(provider)) {
+          ((EntityDestroyedListener) provider).entityDestroyed(this.consumerID);
+        }
+      }
+    }
+  }
+
   private <T> T getBuiltInService(ServiceConfiguration<T> configuration) {
     Class<T> serviceType = configuration.getServiceType();
     List<ImplementationProvidedServiceProvider> serviceProviders = implementationProvidedServiceProviderMap.get(serviceType);
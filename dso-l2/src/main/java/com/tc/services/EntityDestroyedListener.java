@@ -0,0 +1,34 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.services;
+
+
+/**
+ * Implemented by a service provider which holds state for each consumer, so the state can be dropped once the entity
+ * consuming it has been destroyed.
+ */
+public interface EntityDestroyedListener {
+  /**
+   * Called once the entity with the given consumer ID has been destroyed.  The provider will not be asked for that
+   * consumer's services again.
+   * 
+   * @param consumerID The consumer ID of the destroyed entity.
+   */
+  public void entityDestroyed(long consumerID);
+}
@@ -108,7 +108,7 @@ public class EntityMessengerService implements IEntityMessenger, CreateListener
       public void run() {
         // Pre-filter if entity was destroyed.
         if (!EntityMessengerService.this.owningEntity.isDestroyed()) {
-          EntityMessengerService.this.messageSink.addSingleThreaded(interEntityMessage);
+          EntityMessengerService.this.messageSink.addMultiThreaded(interEntityMessage);
         }
       }};
     
@@ -195,7 +195,7 @@ public class EntityMessengerService implements IEntityMessenger, CreateListener
     // We first serialize the message (note that this is partially so we can use the common message processor, which expects
     // to deserialize, but also because we may have to replicate the message to the passive).
     FakeEntityMessage interEntityMessage = encodeAsFake(message);
-    this.messageSink.addSingleThreaded(interEntityMessage);
+    this.messageSink.addMultiThreaded(interEntityMessage);
   }
 
   private FakeEntityMessage encodeAsFake(EntityMessage message) throws MessageCodecException {
@@ -262,6 +262,14 @@ public class EntityMessengerService implements IEntityMessenger, CreateListener
     public EntityMessage getEntityMessage() {
       return this.identityMessage;
     }
+    @Override
+    public Object getSchedulingKey() {
+      return getSource();
+    }
+    @Override
+    public boolean flush() {
+      return false;
+    }
   }
 
 
@@ -288,7 +296,7 @@ public class EntityMessengerService implements IEntityMessenger, CreateListener
       if (this.owningEntity.isDestroyed()) {
         this.timer.cancel(id);
       } else {
-        this.messageSink.addSingleThreaded(this.message);
+        this.messageSink.addMultiThreaded(this.message);
       }
     }
   }
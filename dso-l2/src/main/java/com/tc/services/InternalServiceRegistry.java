@@ -37,4 +37,10 @@ public interface InternalServiceRegistry extends ServiceRegistry {
    * @param entity The owning entity (not null).
    */
   public void setOwningEntity(ManagedEntity entity);
+
+  /**
+   * Called once the entity which owns the registry has been destroyed, so that providers can drop any state they hold
+   * for it.
+   */
+  public void entityDestroyed();
 }
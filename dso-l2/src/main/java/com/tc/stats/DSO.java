@@ -18,6 +18,7 @@
  */
 package com.tc.stats;
 
+import com.tc.async.api.StageManager;
 import com.tc.logging.TCLogger;
 import com.tc.logging.TCLogging;
 import com.tc.management.RemoteManagement;
@@ -32,6 +33,7 @@ import com.tc.object.net.DSOChannelManagerMBean;
 import com.tc.objectserver.api.ObjectInstanceMonitorMBean;
 import com.tc.objectserver.core.api.ServerConfigurationContext;
 import com.tc.objectserver.core.impl.ServerManagementContext;
+import com.tc.objectserver.entity.InvokeTracing;
 import com.tc.objectserver.handshakemanager.ClientHandshakeMonitoringInfo;
 import com.tc.objectserver.locks.LockMBean;
 import com.tc.objectserver.locks.LockManagerMBean;
@@ -89,6 +91,7 @@ public class DSO extends AbstractNotifyingMBean implements DSOMBean {
   private final TerracottaOperatorEventHistoryProvider operatorEventHistoryProvider;
   private final ConnectionPolicy                       connectionPolicy;
   private final RemoteManagement                       remoteManagement;
+  private final StageManager                           stageManager;
 
   public DSO(ServerManagementContext managementContext, ServerConfigurationContext configContext,
              MBeanServer mbeanServer,
@@ -108,6 +111,7 @@ public class DSO extends AbstractNotifyingMBean implements DSOMBean {
     this.operatorEventHistoryProvider = operatorEventHistoryProvider;
     this.connectionPolicy = managementContext.getConnectionPolicy();
     this.remoteManagement = managementContext.getRemoteManagement();
+    this.stageManager = managementContext.getStageManager();
 
     // add various listeners (do this before the setupXXX() methods below so we don't ever miss anything)
     channelMgr.addEventListener(new ChannelManagerListener());
@@ -381,6 +385,16 @@ public class DSO extends AbstractNotifyingMBean implements DSOMBean {
     return result;
   }
 
+  @Override
+  public Map<String, Map<String, Long>> getStageLatencies() {
+    return stageManager.getLatencyStatistics();
+  }
+
+  @Override
+  public Map<String, Map<String, Long>> getInvokeLatencies() {
+    return InvokeTracing.getStatistics();
+  }
+
   @Override
   public int getLiveObjectCount() {
     return 0;
@@ -87,6 +87,18 @@ public interface DSOMBean extends Stats, TerracottaMBean {
 
   int getLiveObjectCount();
 
+  /**
+   * Queue wait and service time, in microseconds, of each SEDA stage and each of its queues keyed by name.  Only 
+   * populated when stage monitoring (tc.stage.monitor.enabled) is on.
+   */
+  Map<String, Map<String, Long>> getStageLatencies();
+
+  /**
+   * Time, in microseconds, sampled invokes spend between each phase of their processing on this server.  Only 
+   * populated when invoke tracing (tc.invoke.tracing.sample) is on.
+   */
+  Map<String, Map<String, Long>> getInvokeLatencies();
+
   Map<ObjectName, Exception> setAttribute(Set<ObjectName> onSet, String attrName, Object attrValue);
 
   Map<ObjectName, Exception> setAttribute(String attrName, Map<ObjectName, Object> attrMap);
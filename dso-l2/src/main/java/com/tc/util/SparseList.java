@@ -22,6 +22,7 @@ package com.tc.util;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.function.Predicate;
 
 
 /**
@@ -43,6 +44,19 @@ public class SparseList<T> implements Iterable<T> {
     return this.map.put(index, object);
   }
 
+  /**
+   * Removes every object matching the filter, leaving holes at their indices.
+   */
+  public void removeIf(Predicate<? super T> filter) {
+    this.map.values().removeIf(filter);
+    this.lastIndex = -1;
+    for (int index : this.map.keySet()) {
+      if (index > this.lastIndex) {
+        this.lastIndex = index;
+      }
+    }
+  }
+
   @Override
   public Iterator<T> iterator() {
     return new SparseListIterator<>(this.map, this.lastIndex);
@@ -149,6 +149,27 @@ public class ServiceLocatorTest {
      } 
    }
    
+   @Test
+   public void testImplementationsIndexedUntilJarsChange() throws Exception {
+     File base = folder.newFolder();
+     File test = new File(base, "test.jar");
+     ZipBuilder zip = new ZipBuilder(test, false);
+     zip.putEntry("META-INF/services/com.tc.classloader.TestInterface", "com.tc.classloader.TestInterfaceImpl".getBytes());
+     zip.putEntry("com/tc/classloader/TestInterfaceImpl.class", resourceToBytes("com/tc/classloader/TestInterfaceImpl.class"));
+     zip.finish();
+     ClassLoader apiLoader = new ApiClassLoader(new URL[0], new URLClassLoader(new URL[] {test.toURI().toURL()}, this.getClass().getClassLoader()));
+
+     List<Class<? extends TestInterface>> first = ServiceLocator.getImplementations(TestInterface.class, apiLoader);
+     List<Class<? extends TestInterface>> second = ServiceLocator.getImplementations(TestInterface.class, apiLoader);
+     Assert.assertEquals(1, first.size());
+     Assert.assertSame(first.get(0), second.get(0));
+
+     Assert.assertTrue(test.setLastModified(test.lastModified() + 10000));
+     List<Class<? extends TestInterface>> changed = ServiceLocator.getImplementations(TestInterface.class, apiLoader);
+     Assert.assertEquals(1, changed.size());
+     Assert.assertTrue(first.get(0) != changed.get(0));
+   }
+   
    private File writeZip(File api, String...classes) throws IOException {
      ZipBuilder builder = new ZipBuilder(api, true);
      for (String className : classes) {
@@ -0,0 +1,129 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.l2.logging;
+
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.spi.LoggingEvent;
+
+import com.tc.test.TCTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class NonBlockingAppenderTest extends TCTestCase {
+
+  private static final Logger LOGGER = Logger.getLogger(NonBlockingAppenderTest.class);
+
+  public void testEventsWrittenInOrderPerThread() throws Exception {
+    CollectingAppender target = new CollectingAppender(null);
+    final NonBlockingAppender appender = new NonBlockingAppender(target, 64, NonBlockingAppender.Overflow.BLOCK);
+    final int perThread = 5000;
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final String name = "thread" + t;
+      threads[t] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int x = 0; x < perThread; x++) {
+            appender.doAppend(event(Level.INFO, name + ":" + x));
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    appender.close();
+
+    List<String> messages = target.getMessages();
+    assertEquals(threads.length * perThread, messages.size());
+    int[] next = new int[threads.length];
+    for (String message : messages) {
+      String[] parts = message.split(":");
+      int thread = Integer.parseInt(parts[0].substring("thread".length()));
+      assertEquals(next[thread]++, Integer.parseInt(parts[1]));
+    }
+  }
+
+  public void testDropsBelowWarnWhenFull() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CollectingAppender target = new CollectingAppender(release);
+    NonBlockingAppender appender = new NonBlockingAppender(target, 4, NonBlockingAppender.Overflow.DROP);
+    // the writer stalls on the first event, the rest fill the ring and then overflow
+    for (int x = 0; x < 20; x++) {
+      appender.doAppend(event(Level.DEBUG, "debug" + x));
+    }
+    release.countDown();
+    appender.doAppend(event(Level.ERROR, "error"));
+    appender.close();
+
+    List<String> messages = target.getMessages();
+    assertTrue(messages.size() < 21);
+    assertTrue(messages.contains("error"));
+    boolean reported = false;
+    for (String message : messages) {
+      reported |= message.contains("were dropped");
+    }
+    assertTrue(reported);
+  }
+
+  private static LoggingEvent event(Level level, String message) {
+    return new LoggingEvent(NonBlockingAppenderTest.class.getName(), LOGGER, level, message, null);
+  }
+
+  private static class CollectingAppender extends AppenderSkeleton {
+    private final List<String>   messages = new ArrayList<String>();
+    private final CountDownLatch gate;
+
+    CollectingAppender(CountDownLatch gate) {
+      this.gate = gate;
+    }
+
+    @Override
+    protected void append(LoggingEvent event) {
+      if (gate != null) {
+        try {
+          gate.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+          throw new AssertionError(ie);
+        }
+      }
+      messages.add(event.getRenderedMessage());
+    }
+
+    synchronized List<String> getMessages() {
+      return new ArrayList<String>(messages);
+    }
+
+    @Override
+    public boolean requiresLayout() {
+      return false;
+    }
+
+    @Override
+    public void close() {
+      //
+    }
+  }
+}
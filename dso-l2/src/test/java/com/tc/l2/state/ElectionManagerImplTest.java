@@ -0,0 +1,155 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.l2.state;
+
+import com.tc.async.api.EventHandlerException;
+import com.tc.l2.ha.WeightGeneratorFactory;
+import com.tc.l2.msg.L2StateMessage;
+import com.tc.net.NodeID;
+import com.tc.net.ServerID;
+import com.tc.net.groups.GroupManager;
+import com.tc.net.groups.GroupResponse;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+public class ElectionManagerImplTest {
+
+  private static final int      EXPECTED_SERVERS = 3;
+  private static final int      ELECTION_TIME    = 60;
+
+  private final ServerID        me               = new ServerID("me", new byte[] { 1 });
+  private final ServerID        peer             = new ServerID("peer", new byte[] { 2 });
+
+  private GroupManager<L2StateMessage> groupManager;
+  private ElectionManagerImpl          electionManager;
+  private final AtomicReference<NodeID> winner = new AtomicReference<>();
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setUp() throws Exception {
+    groupManager = mock(GroupManager.class);
+    GroupResponse<L2StateMessage> noResponses = mock(GroupResponse.class);
+    when(noResponses.getResponses()).thenReturn(Collections.emptyList());
+    when(groupManager.sendAllAndWaitForResponse(any(L2StateMessage.class))).thenReturn(noResponses);
+    electionManager = new ElectionManagerImpl(groupManager, EXPECTED_SERVERS, ELECTION_TIME);
+  }
+
+  @Test
+  public void testLastActiveEndsEarlyOnQuorum() throws Exception {
+    Thread election = startElection(true, 10);
+    electionManager.handleStartElectionRequest(vote(5), StateManager.START_STATE);
+
+    election.join(TimeUnit.SECONDS.toMillis(10));
+    assertFalse(election.isAlive());
+    assertEquals(me, winner.get());
+  }
+
+  @Test
+  public void testStaleLastActiveWaitsForStrongerVote() throws Exception {
+    // this node went down as the active, but the peer has moved on since and its vote wins
+    Thread election = startElection(true, 5);
+    electionManager.handleStartElectionRequest(vote(10), StateManager.START_STATE);
+
+    election.join(500);
+    assertTrue(election.isAlive());
+    verify(groupManager, never()).sendAllAndWaitForResponse(any(L2StateMessage.class));
+
+    electionManager.handleElectionAbort(message(L2StateMessage.ABORT_ELECTION, 10), StateManager.START_STATE);
+    election.join(TimeUnit.SECONDS.toMillis(10));
+    assertFalse(election.isAlive());
+    assertEquals(peer, winner.get());
+  }
+
+  @Test
+  public void testInProgressPeerRejectsWeakerResult() throws Exception {
+    // a node which ended its election early without this node's vote announces itself
+    Thread election = startElection(false, 10);
+    electionManager.handleElectionResultMessage(message(L2StateMessage.ELECTION_RESULT, 5), StateManager.START_STATE);
+
+    assertEquals(L2StateMessage.RESULT_CONFLICT, sentToPeer().getType());
+    election.join(500);
+    assertTrue(election.isAlive());
+
+    electionManager.handleElectionAbort(message(L2StateMessage.ABORT_ELECTION, 20), StateManager.START_STATE);
+    election.join(TimeUnit.SECONDS.toMillis(10));
+    assertFalse(election.isAlive());
+  }
+
+  @Test
+  public void testInProgressPeerAgreesWithStrongerResult() throws Exception {
+    Thread election = startElection(false, 10);
+    electionManager.handleElectionResultMessage(message(L2StateMessage.ELECTION_RESULT, 20), StateManager.START_STATE);
+
+    assertEquals(L2StateMessage.RESULT_AGREED, sentToPeer().getType());
+    election.join(TimeUnit.SECONDS.toMillis(10));
+    assertFalse(election.isAlive());
+    assertEquals(peer, winner.get());
+  }
+
+  private Thread startElection(boolean lastActive, long weight) {
+    WeightGeneratorFactory weights = new WeightGeneratorFactory();
+    weights.add(() -> weight);
+    ElectionContext context = new ElectionContext(me, false, lastActive, weights, StateManager.START_STATE, winner::set);
+    Thread election = new Thread(() -> {
+      try {
+        electionManager.getEventHandler().handleEvent(context);
+      } catch (EventHandlerException e) {
+        throw new AssertionError(e);
+      }
+    });
+    election.start();
+    // wait for this node's vote to go out, the election is in progress from then on
+    verify(groupManager, timeout(10000)).sendAll(any(L2StateMessage.class));
+    return election;
+  }
+
+  private L2StateMessage sentToPeer() throws Exception {
+    ArgumentCaptor<L2StateMessage> sent = ArgumentCaptor.forClass(L2StateMessage.class);
+    verify(groupManager).sendTo(eq(peer), sent.capture());
+    return sent.getValue();
+  }
+
+  private L2StateMessage vote(long weight) {
+    return message(L2StateMessage.START_ELECTION, weight);
+  }
+
+  private L2StateMessage message(int type, long weight) {
+    L2StateMessage msg = new L2StateMessage(type, new Enrollment(peer, false, new long[] { weight }),
+                                            StateManager.START_STATE);
+    msg.setMessageOrginator(peer);
+    return msg;
+  }
+}
@@ -18,6 +18,7 @@
  */
 package com.tc.net.groups;
 
+import com.tc.bytes.TCByteBuffer;
 import com.tc.l2.ha.L2HAZapNodeRequestProcessor;
 import com.tc.l2.msg.ClusterStateMessage;
 import com.tc.l2.msg.L2StateMessage;
@@ -197,6 +198,26 @@ public class TCGroupMessageWrapperTest extends TestCase {
     sendGroupMessage(sendMesg);
   }
 
+  public void testSharedSerializedMessage() throws Exception {
+    long weights[] = new long[] { 1, 23, 44, 78 };
+    Enrollment enroll = new Enrollment(makeNodeID("test"), true, weights);
+    AbstractGroupMessage sendMesg = new L2StateMessage(L2StateMessage.ELECTION_RESULT, enroll, new State("dummy"));
+    NetworkListener lsnr = initServer();
+    channelManager = lsnr.getChannelManager();
+    ClientMessageChannel channel = openChannel(lsnr);
+
+    TCByteBuffer[] serialized = TCGroupMessageWrapper.serialize(sendMesg);
+    for (int i = 0; i < 2; i++) {
+      TCGroupMessageWrapper wrapper = (TCGroupMessageWrapper) channel.createMessage(TCMessageType.GROUP_WRAPPER_MESSAGE);
+      wrapper.setGroupMessage(sendMesg, serialized);
+      wrapper.send();
+      GroupMessage receivedMesg = queue.poll(timeout, unit);
+      assertNotNull(receivedMesg);
+      verifyGroupMessage(sendMesg, receivedMesg);
+      assertEquals(enroll, ((L2StateMessage) receivedMesg).getEnrollment());
+    }
+  }
+
   private ServerID makeNodeID(String name) {
     return (new ServerID(name, UUID.getUUID().toString().getBytes()));
   }
@@ -83,6 +83,7 @@ import org.terracotta.entity.ConfigurationException;
 import org.terracotta.entity.EntityResponse;
 import org.terracotta.entity.ExecutionStrategy;
 import org.terracotta.entity.MessageCodec;
+import org.terracotta.entity.state.NonMutatingMessageStrategy;
 
 import com.tc.objectserver.api.ManagedEntity;
 import com.tc.objectserver.api.ManagementKeyCallback;
@@ -309,6 +310,48 @@ public class ManagedEntityImplTest {
     verify(activeServerEntity).invoke(eq(clientDescriptor), any(EntityMessage.class));
   }  
 
+  @Test
+  public void testNonMutatingInvokeIsNotReplicated() throws Exception {
+    EntityMessage read = mock(EntityMessage.class);
+    when(serverEntityService.getConcurrencyStrategy(any(byte[].class))).thenReturn(new MarkedConcurrencyStrategy() {
+      @Override
+      public int concurrencyKey(EntityMessage message) {
+        return 1;
+      }
+
+      @Override
+      public Set<Integer> getKeysForSynchronization() {
+        return Collections.singleton(1);
+      }
+
+      @Override
+      public boolean isNonMutating(EntityMessage message) {
+        return message == read;
+      }
+    });
+    requestMulti = Mockito.spy(requestMulti);
+    managedEntity = new ManagedEntityImpl(entityID, version, consumerID, loopback, serviceRegistry, clientEntityStateManager, eventCollector, requestMulti, serverEntityService, false, true);
+    TestingResponse resp = mockResponse();
+    invokeOnTransactionHandler(()->managedEntity.addRequestMessage(mockCreateEntityRequest(), MessagePayload.emptyPayload(), null, resp::complete, resp::failure));
+    resp.waitFor();
+
+    MessagePayload readPayload = MessagePayload.commonMessagePayloadBusy(new byte[0], read, true);
+//  a passive runs what it is sent
+    Assert.assertFalse(managedEntity.isNonMutating(readPayload));
+    promote();
+    Assert.assertTrue(managedEntity.isNonMutating(readPayload));
+//  only the marker counts, an invoke which stays on the active can still change state
+    Assert.assertFalse(managedEntity.isNonMutating(mockLocationPayload(ExecutionStrategy.Location.ACTIVE)));
+
+//  the strategy would otherwise run the read on both
+    AbstractServerEntityRequestResponse readRequest = mockClientInvokeRequest();
+    when(readRequest.isNonMutating()).thenReturn(true);
+    TestingResponse readResp = mockResponse();
+    invokeOnTransactionHandler(()->managedEntity.addRequestMessage(readRequest, readPayload, null, readResp::complete, readResp::failure));
+    readResp.waitFor();
+    verify(requestMulti).scheduleRequest(any(), Matchers.anyLong(), any(), eq(readRequest), any(), any(), eq(false), Matchers.anyInt());
+  }
+
   @Test
   public void testCreateActive() throws Exception {
     // first create a passive entity and then promote
@@ -849,6 +892,14 @@ public class ManagedEntityImplTest {
     return request;
   }
   
+  private AbstractServerEntityRequestResponse mockClientInvokeRequest() {
+    AbstractServerEntityRequestResponse request = mock(AbstractServerEntityRequestResponse.class);
+    when(request.getClientInstance()).thenReturn(clientInstanceID);
+    when(request.getAction()).thenReturn(ServerEntityAction.INVOKE_ACTION);
+    when(request.getNodeID()).thenReturn(nodeID);
+    return request;
+  }
+  
   private ServerEntityRequest mockGetRequest(ClientDescriptorImpl requester) {
     ServerEntityRequest request = mockRequestForAction(ServerEntityAction.FETCH_ENTITY);
     when(request.getNodeID()).thenReturn(requester.getNodeID());
@@ -906,4 +957,7 @@ public class ManagedEntityImplTest {
   public interface LocationInvoke extends EntityMessage {
     ExecutionStrategy.Location getLocation();
   }
+
+  private interface MarkedConcurrencyStrategy extends ConcurrencyStrategy<EntityMessage>, NonMutatingMessageStrategy<EntityMessage> {
+  }
 }
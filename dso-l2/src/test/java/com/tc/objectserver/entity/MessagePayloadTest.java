@@ -0,0 +1,55 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.objectserver.entity;
+
+import org.junit.Test;
+import org.terracotta.entity.EntityMessage;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class MessagePayloadTest {
+  @Test
+  public void testDebugIdAskedBeforeDecode() throws Exception {
+    MessagePayload payload = MessagePayload.commonMessagePayloadNotBusy(new byte[0], null, true);
+    assertEquals("", payload.getDebugId());
+    payload.decodeMessage(raw -> new NamedMessage("decoded"));
+    assertEquals("decoded", payload.getDebugId());
+  }
+
+  @Test
+  public void testDebugIdSetExplicitly() throws Exception {
+    MessagePayload payload = MessagePayload.commonMessagePayloadNotBusy(new byte[0], new NamedMessage("message"), true);
+    payload.setDebugId("resend");
+    assertEquals("resend", payload.getDebugId());
+  }
+
+  private static class NamedMessage implements EntityMessage {
+    private final String name;
+
+    NamedMessage(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String toString() {
+      return this.name;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.objectserver.handler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+public class CreditGranterTest {
+
+  @Test
+  public void testGrantFollowsLoad() {
+    AtomicInteger queued = new AtomicInteger();
+    AtomicInteger replicating = new AtomicInteger();
+    CreditGranter granter = new CreditGranter(queued::get, replicating::get, () -> 1, 1000, 10, 1000, 100, 50);
+
+    assertEquals(1000, granter.grant());
+    queued.set(50);
+    assertEquals(500, granter.grant());
+    // the worst of the two decides
+    replicating.set(40);
+    assertEquals(200, granter.grant());
+    queued.set(1000);
+    assertEquals(10, granter.grant());
+    queued.set(99);
+    replicating.set(0);
+    assertEquals(10, granter.grant());
+  }
+
+  @Test
+  public void testGrantSharedByClients() {
+    AtomicInteger queued = new AtomicInteger();
+    AtomicInteger clients = new AtomicInteger(4);
+    CreditGranter granter = new CreditGranter(queued::get, () -> 0, clients::get, 1000, 10, 200, 100, 100);
+
+    // a client never gets more than it may send
+    assertEquals(200, granter.grant());
+    clients.set(10);
+    assertEquals(100, granter.grant());
+    queued.set(50);
+    assertEquals(50, granter.grant());
+    // nor less than the minimum, however many share the budget
+    clients.set(1000);
+    assertEquals(10, granter.grant());
+    clients.set(0);
+    queued.set(0);
+    assertEquals(200, granter.grant());
+  }
+}
@@ -129,7 +129,7 @@ public class ProcessTransactionHandlerTest {
   }
   
   private void sendNoop(EntityID eid, FetchID fetch, ServerEntityAction action) {
-    loopbackSink.addSingleThreaded(new LocalPipelineFlushMessage(EntityDescriptor.createDescriptorForInvoke(fetch, ClientInstanceID.NULL_ID), (action == ServerEntityAction.DESTROY_ENTITY)));
+    loopbackSink.addMultiThreaded(new LocalPipelineFlushMessage(EntityDescriptor.createDescriptorForInvoke(fetch, ClientInstanceID.NULL_ID), (action == ServerEntityAction.DESTROY_ENTITY)));
   }
   
   @After
@@ -364,7 +364,7 @@ public class ProcessTransactionHandlerTest {
     }
     @Override
     public void addMultiThreaded(VoltronEntityMessage context) {
-      throw new UnsupportedOperationException();
+      addSingleThreaded(context);
     }
 
     @Override
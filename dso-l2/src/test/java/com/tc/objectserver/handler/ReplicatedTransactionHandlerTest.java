@@ -31,6 +31,8 @@ import com.tc.io.TCByteBufferOutputStream;
 import com.tc.l2.msg.ReplicationMessage;
 import com.tc.l2.msg.SyncReplicationActivity;
 import com.tc.l2.state.StateManager;
+import com.tc.lang.TCThreadGroup;
+import com.tc.lang.ThrowableHandler;
 import com.tc.net.ClientID;
 import com.tc.net.ServerID;
 import com.tc.net.groups.AbstractGroupMessage;
@@ -60,10 +62,12 @@ import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
@@ -71,6 +75,8 @@ import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import org.mockito.Mockito;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -90,6 +96,8 @@ public class ReplicatedTransactionHandlerTest {
   private EntityManager entityManager;
   private ManagedEntity platform;
   private GroupManager<AbstractGroupMessage> groupManager;
+  private ThrowableHandler throwableHandler;
+  private TCThreadGroup threadGroup;
   
   private long rid = 0;
   
@@ -101,6 +109,8 @@ public class ReplicatedTransactionHandlerTest {
     this.stateManager = mock(StateManager.class);
     this.entityManager = mock(EntityManager.class);
     this.groupManager = mock(GroupManager.class);
+    this.throwableHandler = mock(ThrowableHandler.class);
+    this.threadGroup = new TCThreadGroup(this.throwableHandler);
     Mockito.doAnswer((Answer<Void>) (InvocationOnMock invocation) -> {
       ((Runnable)invocation.getArguments()[2]).run();
       return null;
@@ -111,7 +121,7 @@ public class ReplicatedTransactionHandlerTest {
       return null;
     }).when(platform).addRequestMessage(any(ServerEntityRequest.class), any(MessagePayload.class), any(Runnable.class), any(Consumer.class), any(Consumer.class));
     when(entityManager.getEntity(Matchers.eq(EntityDescriptor.createDescriptorForLifecycle(PlatformEntity.PLATFORM_ID, 1L)))).thenReturn(Optional.of(platform));
-    this.rth = new ReplicatedTransactionHandler(stateManager, this.transactionOrderPersistor, this.entityManager, this.entityPersistor, this.groupManager);
+    this.rth = new ReplicatedTransactionHandler(stateManager, this.transactionOrderPersistor, this.entityManager, this.entityPersistor, this.groupManager, this.threadGroup);
     this.rth.setOutgoingResponseSink(new ForwardingSink<ReplicatedTransactionHandler.SedaToken>(this.rth.getOutgoingResponseHandler()));
     // We need to do things like serialize/deserialize this so we can't easily use a mocked source.
     this.source = new ClientID(1);
@@ -225,6 +235,75 @@ public class ReplicatedTransactionHandlerTest {
     verify(groupManager, times(2)).sendToWithSentCallback(Matchers.eq(sid), Matchers.any(), Matchers.any());
   }
   
+  @Test
+  public void testAcksWaitForOrderPersistenceWithoutBlocking() throws Exception {
+    FetchID fetch = new FetchID(1L);
+    ServerID sid = new ServerID("test", "test".getBytes());
+    ManagedEntity entity = mock(ManagedEntity.class);
+    SyncReplicationActivity activity = mock(SyncReplicationActivity.class);
+    when(activity.getActivityID()).thenReturn(new SyncReplicationActivity.ActivityID(1L));
+    when(activity.getActivityType()).thenReturn(SyncReplicationActivity.ActivityType.INVOKE_ACTION);
+    when(activity.getFetchID()).thenReturn(fetch);
+    when(activity.getSource()).thenReturn(this.source);
+    when(activity.getTransactionID()).thenReturn(new TransactionID(2));
+    when(activity.getOldestTransactionOnClient()).thenReturn(new TransactionID(1));
+    CompletableFuture<Void> persisted = new CompletableFuture<>();
+    when(this.transactionOrderPersistor.updateWithNewMessage(any(), any(), any())).thenReturn(persisted);
+    ReplicationMessage msg = mock(ReplicationMessage.class);
+    when(msg.messageFrom()).thenReturn(sid);
+    when(msg.getActivities()).thenReturn(Collections.singletonList(activity));
+    when(this.entityManager.getEntity(Matchers.any())).thenReturn(Optional.of(entity));
+    Mockito.doAnswer(invocation->{
+      ((Runnable)invocation.getArguments()[2]).run();
+      ((Consumer<byte[]>)invocation.getArguments()[3]).accept(new byte[0]);
+      return null;
+    }).when(entity).addRequestMessage(Matchers.any(), Matchers.any(), Matchers.any(), Matchers.any(), Matchers.any());
+    this.loopbackSink.addSingleThreaded(createReceivedActivity(SyncReplicationActivity.createStartSyncMessage(new SyncReplicationActivity.EntityCreationTuple[0])));
+    this.loopbackSink.addSingleThreaded(createReceivedActivity(SyncReplicationActivity.createEndSyncMessage(new byte[0])));
+    this.loopbackSink.addSingleThreaded(msg);
+    // the entity completed the invoke but neither ack can go out until the order is durable
+    verify(groupManager, never()).sendToWithSentCallback(Matchers.eq(sid), Matchers.any(), Matchers.any());
+    persisted.complete(null);
+    verify(groupManager, timeout(5000).atLeastOnce()).sendToWithSentCallback(Matchers.eq(sid), Matchers.any(), Matchers.any());
+  }
+  
+  @Test
+  public void testOrderPersistenceFailureIsFatal() throws Exception {
+    FetchID fetch = new FetchID(1L);
+    ServerID sid = new ServerID("test", "test".getBytes());
+    ManagedEntity entity = mock(ManagedEntity.class);
+    SyncReplicationActivity activity = mock(SyncReplicationActivity.class);
+    when(activity.getActivityID()).thenReturn(new SyncReplicationActivity.ActivityID(1L));
+    when(activity.getActivityType()).thenReturn(SyncReplicationActivity.ActivityType.INVOKE_ACTION);
+    when(activity.getFetchID()).thenReturn(fetch);
+    when(activity.getSource()).thenReturn(this.source);
+    when(activity.getTransactionID()).thenReturn(new TransactionID(2));
+    when(activity.getOldestTransactionOnClient()).thenReturn(new TransactionID(1));
+    CompletableFuture<Void> persisted = new CompletableFuture<>();
+    when(this.transactionOrderPersistor.updateWithNewMessage(any(), any(), any())).thenReturn(persisted);
+    ReplicationMessage msg = mock(ReplicationMessage.class);
+    when(msg.messageFrom()).thenReturn(sid);
+    when(msg.getActivities()).thenReturn(Collections.singletonList(activity));
+    when(this.entityManager.getEntity(Matchers.any())).thenReturn(Optional.of(entity));
+    Mockito.doAnswer(invocation->{
+      ((Runnable)invocation.getArguments()[2]).run();
+      ((Consumer<byte[]>)invocation.getArguments()[3]).accept(new byte[0]);
+      return null;
+    }).when(entity).addRequestMessage(Matchers.any(), Matchers.any(), Matchers.any(), Matchers.any(), Matchers.any());
+    this.loopbackSink.addSingleThreaded(createReceivedActivity(SyncReplicationActivity.createStartSyncMessage(new SyncReplicationActivity.EntityCreationTuple[0])));
+    this.loopbackSink.addSingleThreaded(createReceivedActivity(SyncReplicationActivity.createEndSyncMessage(new byte[0])));
+    this.loopbackSink.addSingleThreaded(msg);
+    // completed on a thread outside the server's group, the failure still has to reach the server's handler
+    Thread complete = new Thread(new ThreadGroup("elsewhere"), ()->persisted.completeExceptionally(new IOException("expected")));
+    complete.start();
+    complete.join();
+    ArgumentCaptor<Throwable> fatal = ArgumentCaptor.forClass(Throwable.class);
+    verify(this.throwableHandler).handleThrowable(Matchers.any(), fatal.capture());
+    Assert.assertTrue(fatal.getValue().getCause() instanceof IOException);
+    // neither the received nor the completed ack is sent for an order which is not durable
+    verify(groupManager, never()).sendToWithSentCallback(Matchers.eq(sid), Matchers.any(), Matchers.any());
+  }
+  
   @Test
   public void testDestroy() throws Exception {
     this.rth.getEventHandler().destroy();
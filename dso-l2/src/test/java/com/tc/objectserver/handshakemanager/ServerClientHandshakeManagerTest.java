@@ -36,16 +36,21 @@ import com.tc.objectserver.api.EntityManager;
 import com.tc.objectserver.entity.LocalPipelineFlushMessage;
 import com.tc.objectserver.handler.ProcessTransactionHandler;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.Timer;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -114,7 +119,7 @@ public class ServerClientHandshakeManagerTest {
     assertFalse(this.manager.isStarting());
     assertTrue(this.manager.isStarted());
     
-    verify(this.voltronSink).addSingleThreaded(any(LocalPipelineFlushMessage.class));
+    verify(this.voltronSink).addMultiThreaded(any(LocalPipelineFlushMessage.class));
   }
 
   @Test
@@ -150,7 +155,7 @@ public class ServerClientHandshakeManagerTest {
     this.manager.notifyClientConnect(message1, entityManager, transactionHandler);
     assertFalse(this.manager.isStarted());
     verify(this.transactionHandler).handleResentMessage(resend);
-    verify(this.voltronSink, never()).addSingleThreaded(any(LocalPipelineFlushMessage.class));
+    verify(this.voltronSink, never()).addMultiThreaded(any(LocalPipelineFlushMessage.class));
     
     // This second message will now start the server.
     ClientHandshakeMessage message2 = mock(ClientHandshakeMessage.class);
@@ -161,7 +166,74 @@ public class ServerClientHandshakeManagerTest {
     this.manager.notifyClientConnect(message2, entityManager, transactionHandler);
     assertFalse(this.manager.isStarting());
     assertTrue(this.manager.isStarted());
-    verify(this.voltronSink).addSingleThreaded(any(LocalPipelineFlushMessage.class));
+    verify(this.voltronSink).addMultiThreaded(any(LocalPipelineFlushMessage.class));
+  }
+
+  @Test
+  public void testConcurrentReconnects() throws Exception {
+    int clientCount = 16;
+    Set<ClientID> existingConnections = new HashSet<>();
+    for (int i = 0; i < clientCount; i++) {
+      existingConnections.add(new ClientID(i));
+    }
+    this.manager.setStarting(existingConnections);
+    this.manager.startReconnectWindow();
+    
+    // Each client reconnects on its own thread, as they would on the sharded handshake stage.
+    List<Thread> threads = new ArrayList<>();
+    for (ClientID client : existingConnections) {
+      ClientHandshakeMessage handshake = mock(ClientHandshakeMessage.class);
+      when(handshake.getChannel()).thenReturn(mock(MessageChannel.class));
+      when(handshake.getSourceNodeID()).thenReturn(client);
+      when(handshake.getResendMessages()).thenReturn(Collections.singleton(mock(ResendVoltronEntityMessage.class)));
+      threads.add(new Thread(() -> {
+        try {
+          this.manager.notifyClientConnect(handshake, entityManager, transactionHandler);
+        } catch (ClientHandshakeException e) {
+          throw new AssertionError(e);
+        }
+      }));
+    }
+    for (Thread t : threads) {
+      t.start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    assertFalse(this.manager.isStarting());
+    assertTrue(this.manager.isStarted());
+    verify(this.transactionHandler, times(clientCount)).handleResentMessage(any(ResendVoltronEntityMessage.class));
+    // The server must only be started once, by the last client to finish.
+    verify(this.voltronSink, times(1)).addMultiThreaded(any(LocalPipelineFlushMessage.class));
+  }
+
+  @Test
+  public void testReconnectDataFailureDoesNotStart() throws Exception {
+    ClientID client = new ClientID(1);
+    this.manager.setStarting(Collections.singleton(client));
+    this.manager.startReconnectWindow();
+
+    ClientHandshakeMessage handshake = mock(ClientHandshakeMessage.class);
+    when(handshake.getChannel()).thenReturn(mock(MessageChannel.class));
+    when(handshake.getSourceNodeID()).thenReturn(client);
+    ResendVoltronEntityMessage resend = mock(ResendVoltronEntityMessage.class);
+    when(handshake.getResendMessages()).thenReturn(Collections.singleton(resend));
+    doThrow(new IllegalStateException("expected")).when(this.transactionHandler).handleResentMessage(resend);
+    try {
+      this.manager.notifyClientConnect(handshake, entityManager, transactionHandler);
+      fail();
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+    // The client is dropped and the server waits for the reconnect window to close.
+    assertTrue(this.manager.isStarting());
+    assertFalse(this.manager.isStarted());
+    verify(this.channelManager).closeAll(Collections.singleton(client));
+    verify(this.transactionHandler).discardReconnectData(client);
+    verify(this.voltronSink, never()).addMultiThreaded(any(LocalPipelineFlushMessage.class));
+
+    this.manager.notifyTimeout();
+    assertTrue(this.manager.isStarted());
   }
 
   @Test
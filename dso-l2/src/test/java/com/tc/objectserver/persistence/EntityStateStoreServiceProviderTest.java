@@ -0,0 +1,76 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.objectserver.persistence;
+
+import com.tc.test.TCTestCase;
+
+import java.io.File;
+
+import org.junit.Assert;
+import org.terracotta.entity.state.EntityStateStore;
+import org.terracotta.entity.state.EntityStateStoreConfiguration;
+
+
+public class EntityStateStoreServiceProviderTest extends TCTestCase {
+
+  public void testDestroyedEntityDropsItsStores() throws Exception {
+    File directory = getTempDirectory();
+    EntityStateStoreServiceProvider provider = new EntityStateStoreServiceProvider(directory);
+    Assert.assertTrue(provider.initialize(null, null));
+    EntityStateStore destroyed = provider.getService(1, new EntityStateStoreConfiguration("state", true));
+    destroyed.put(bytes("a"), bytes("1"));
+    EntityStateStore kept = provider.getService(12, new EntityStateStoreConfiguration("state", true));
+    kept.put(bytes("a"), bytes("2"));
+
+    provider.entityDestroyed(1);
+    Assert.assertFalse(new File(directory, "1-state.log").exists());
+    Assert.assertTrue(new File(directory, "12-state.log").exists());
+    Assert.assertArrayEquals(bytes("2"), kept.get(bytes("a")));
+    // A new entity given the same consumer ID starts from nothing.
+    Assert.assertEquals(0, provider.getService(1, new EntityStateStoreConfiguration("state", true)).size());
+    provider.close();
+  }
+
+  public void testSynchronizationDiscardsStores() throws Exception {
+    File directory = getTempDirectory();
+    EntityStateStoreServiceProvider provider = new EntityStateStoreServiceProvider(directory);
+    Assert.assertTrue(provider.initialize(null, null));
+    EntityStateStore stale = provider.getService(1, new EntityStateStoreConfiguration("state", true));
+    stale.put(bytes("a"), bytes("1"));
+
+    provider.prepareForSynchronization();
+    Assert.assertFalse(new File(directory, "1-state.log").exists());
+    // An entity still holding the old store must not carry on in memory only.
+    try {
+      stale.put(bytes("b"), bytes("2"));
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    EntityStateStore fresh = provider.getService(1, new EntityStateStoreConfiguration("state", true));
+    Assert.assertEquals(0, fresh.size());
+    fresh.put(bytes("b"), bytes("2"));
+    Assert.assertTrue(new File(directory, "1-state.log").exists());
+    provider.close();
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes();
+  }
+}
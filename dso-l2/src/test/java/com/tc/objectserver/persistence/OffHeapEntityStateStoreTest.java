@@ -0,0 +1,218 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.objectserver.persistence;
+
+import com.tc.test.TCTestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Assert;
+
+
+public class OffHeapEntityStateStoreTest extends TCTestCase {
+
+  public void testPutGetRemove() throws Exception {
+    OffHeapEntityStateStore store = new OffHeapEntityStateStore();
+    byte[] key = bytes("key");
+    byte[] value = bytes("value");
+    store.put(key, value);
+    // The store must have taken a copy.
+    value[0] = 0;
+    Assert.assertArrayEquals(bytes("value"), store.get(bytes("key")));
+    Assert.assertEquals(1, store.size());
+
+    store.put(key, bytes("other"));
+    Assert.assertArrayEquals(bytes("other"), store.get(key));
+    Assert.assertEquals(1, store.size());
+
+    Assert.assertTrue(store.remove(key));
+    Assert.assertFalse(store.remove(key));
+    Assert.assertNull(store.get(key));
+    Assert.assertEquals(0, store.size());
+  }
+
+  public void testSnapshotIgnoresLaterChanges() throws Exception {
+    OffHeapEntityStateStore store = new OffHeapEntityStateStore();
+    store.put(bytes("a"), bytes("1"));
+    Iterator<Map.Entry<byte[], byte[]>> snapshot = store.snapshot();
+    store.put(bytes("a"), bytes("2"));
+    store.put(bytes("b"), bytes("3"));
+
+    Assert.assertTrue(snapshot.hasNext());
+    Map.Entry<byte[], byte[]> entry = snapshot.next();
+    Assert.assertArrayEquals(bytes("a"), entry.getKey());
+    Assert.assertArrayEquals(bytes("1"), entry.getValue());
+    Assert.assertFalse(snapshot.hasNext());
+  }
+
+  public void testReplayAfterRestart() throws Exception {
+    File log = getTempFile("store.log");
+    OffHeapEntityStateStore store = new OffHeapEntityStateStore(log);
+    store.put(bytes("a"), bytes("1"));
+    store.put(bytes("b"), bytes("2"));
+    store.put(bytes("a"), bytes("3"));
+    store.remove(bytes("b"));
+    store.close();
+
+    store = new OffHeapEntityStateStore(log);
+    Assert.assertEquals(1, store.size());
+    Assert.assertArrayEquals(bytes("3"), store.get(bytes("a")));
+    Assert.assertNull(store.get(bytes("b")));
+
+    store.clear();
+    store.close();
+    store = new OffHeapEntityStateStore(log);
+    Assert.assertEquals(0, store.size());
+    store.destroy();
+    Assert.assertFalse(log.exists());
+  }
+
+  public void testTornRecordIsDropped() throws Exception {
+    File log = getTempFile("torn.log");
+    OffHeapEntityStateStore store = new OffHeapEntityStateStore(log);
+    store.put(bytes("a"), bytes("1"));
+    store.put(bytes("b"), bytes("2"));
+    store.close();
+    try (RandomAccessFile file = new RandomAccessFile(log, "rw")) {
+      file.setLength(file.length() - 1);
+    }
+
+    store = new OffHeapEntityStateStore(log);
+    Assert.assertEquals(1, store.size());
+    Assert.assertArrayEquals(bytes("1"), store.get(bytes("a")));
+    // Appending after the dropped record must still give a readable log.
+    store.put(bytes("c"), bytes("3"));
+    store.close();
+    store = new OffHeapEntityStateStore(log);
+    Assert.assertEquals(2, store.size());
+    Assert.assertArrayEquals(bytes("3"), store.get(bytes("c")));
+    store.destroy();
+  }
+
+  public void testValuesAcrossSlabs() throws Exception {
+    OffHeapEntityStateStore store = new OffHeapEntityStateStore();
+    // Enough values to fill several shared slabs, plus ones big enough to get a slab of their own.
+    for (int i = 0; i < 2000; i++) {
+      store.put(bytes("k" + i), value(i, i % 500 == 0 ? 512 * 1024 : 4096));
+    }
+    Iterator<Map.Entry<byte[], byte[]>> snapshot = store.snapshot();
+    // Overwriting most of the values leaves the slabs mostly dead, which repacks the live ones.
+    for (int i = 0; i < 2000; i++) {
+      if (i % 10 != 0) {
+        store.put(bytes("k" + i), value(i + 1, 16));
+      }
+    }
+    store.put(bytes("empty"), new byte[0]);
+    for (int i = 0; i < 2000; i++) {
+      Assert.assertArrayEquals(i % 10 != 0 ? value(i + 1, 16) : value(i, i % 500 == 0 ? 512 * 1024 : 4096), store.get(bytes("k" + i)));
+    }
+    Assert.assertArrayEquals(new byte[0], store.get(bytes("empty")));
+    // The snapshot still reads the values it was taken with.
+    int count = 0;
+    while (snapshot.hasNext()) {
+      Map.Entry<byte[], byte[]> entry = snapshot.next();
+      int i = Integer.parseInt(new String(entry.getKey()).substring(1));
+      Assert.assertArrayEquals(value(i, i % 500 == 0 ? 512 * 1024 : 4096), entry.getValue());
+      count++;
+    }
+    Assert.assertEquals(2000, count);
+  }
+
+  public void testCorruptLengthIsRejected() throws Exception {
+    File log = getTempFile("corrupt.log");
+    OffHeapEntityStateStore store = new OffHeapEntityStateStore(log);
+    store.put(bytes("a"), bytes("1"));
+    store.close();
+    try (RandomAccessFile file = new RandomAccessFile(log, "rw")) {
+      // the key length of the first record
+      file.seek(1);
+      file.writeInt(-1);
+    }
+    try {
+      new OffHeapEntityStateStore(log);
+      Assert.fail();
+    } catch (IOException expected) {
+      // expected
+    }
+  }
+
+  public void testLengthPastEndIsTorn() throws Exception {
+    File log = getTempFile("long.log");
+    OffHeapEntityStateStore store = new OffHeapEntityStateStore(log);
+    store.put(bytes("a"), bytes("1"));
+    store.put(bytes("b"), bytes("2"));
+    store.close();
+    long length = log.length();
+    try (RandomAccessFile file = new RandomAccessFile(log, "rw")) {
+      // the value length of the second record, now claiming far more than the log holds
+      file.seek(length - 5);
+      file.writeInt(Integer.MAX_VALUE);
+    }
+    store = new OffHeapEntityStateStore(log);
+    Assert.assertEquals(1, store.size());
+    Assert.assertArrayEquals(bytes("1"), store.get(bytes("a")));
+    Assert.assertEquals(length / 2, log.length());
+    store.destroy();
+  }
+
+  public void testClosedStoreRejectsWrites() throws Exception {
+    File log = getTempFile("closed.log");
+    OffHeapEntityStateStore store = new OffHeapEntityStateStore(log);
+    store.put(bytes("a"), bytes("1"));
+    store.close();
+    try {
+      store.put(bytes("b"), bytes("2"));
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    Assert.assertNull(store.get(bytes("b")));
+
+    store = new OffHeapEntityStateStore();
+    store.destroy();
+    try {
+      store.remove(bytes("a"));
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    try {
+      store.clear();
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  private static byte[] value(int seed, int length) {
+    byte[] value = new byte[length];
+    for (int i = 0; i < length; i++) {
+      value[i] = (byte) (seed + i);
+    }
+    return value;
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes();
+  }
+}
@@ -18,13 +18,30 @@
  */
 package com.tc.objectserver.persistence;
 
+import org.terracotta.persistence.IPlatformPersistence;
+
 import com.tc.net.ClientID;
 import com.tc.object.tx.TransactionID;
 
 import com.tc.test.TCTestCase;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 
 public class TransactionOrderPersistorTest extends TCTestCase {
@@ -322,4 +339,69 @@ public class TransactionOrderPersistorTest extends TCTestCase {
       }
     }
   }
+
+  /**
+   * Test that a store future which can not be chained on still completes the returned future, failures included.
+   */
+  public void testPlainFutureCompletes() throws Exception {
+    IPlatformPersistence storage = mock(IPlatformPersistence.class);
+    FutureTask<Void> stored = new FutureTask<>(() -> null);
+    FutureTask<Void> failed = new FutureTask<>(() -> {
+      throw new IOException("expected");
+    });
+    when(storage.fastStoreSequence(anyLong(), any(), anyLong())).thenReturn(stored, failed);
+    TransactionOrderPersistor persistor = new TransactionOrderPersistor(storage, Collections.emptySet());
+
+    CompletableFuture<Void> first = persistor.updateWithNewMessage(this.client1, new TransactionID(1), new TransactionID(0));
+    CompletableFuture<Void> second = persistor.updateWithNewMessage(this.client1, new TransactionID(2), new TransactionID(0));
+    assertFalse(first.isDone());
+    stored.run();
+    first.get(10, TimeUnit.SECONDS);
+
+    failed.run();
+    try {
+      second.get(10, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    }
+  }
+
+  /**
+   * Test that stores which can not be chained on are waited for without a thread for each of them.
+   */
+  public void testPlainFuturesShareOneWaiter() throws Exception {
+    IPlatformPersistence storage = mock(IPlatformPersistence.class);
+    List<FutureTask<Void>> stores = new ArrayList<>();
+    for (int i = 0; i < 100; ++i) {
+      stores.add(new FutureTask<>(() -> null));
+    }
+    when(storage.fastStoreSequence(anyLong(), any(), anyLong())).thenAnswer(new Answer<Future<Void>>() {
+      private int next = 0;
+      @Override
+      public Future<Void> answer(InvocationOnMock invocation) throws Throwable {
+        return stores.get(this.next++);
+      }
+    });
+    TransactionOrderPersistor persistor = new TransactionOrderPersistor(storage, Collections.emptySet());
+
+    List<CompletableFuture<Void>> pending = new ArrayList<>();
+    for (int i = 1; i <= stores.size(); ++i) {
+      pending.add(persistor.updateWithNewMessage(this.client1, new TransactionID(i), new TransactionID(0)));
+    }
+    int waiters = 0;
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().startsWith("Transaction Order Persistence Waiter")) {
+        waiters += 1;
+      }
+    }
+    assertEquals(1, waiters);
+
+    for (int i = stores.size() - 1; i >= 0; --i) {
+      stores.get(i).run();
+    }
+    for (CompletableFuture<Void> completable : pending) {
+      completable.get(10, TimeUnit.SECONDS);
+    }
+  }
 }
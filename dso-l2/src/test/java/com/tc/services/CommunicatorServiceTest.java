@@ -122,7 +122,7 @@ public class CommunicatorServiceTest {
       // expected
     }
 
-    communicatorService.response(clientID, 0L);
+    communicatorService.response(clientID, new long[] { 0L });
     future.get();
   }
 
@@ -100,7 +100,7 @@ public class EntityMessengerProviderTest {
     
     // Verify the calls we observed.
     verify(this.messageCodec).encodeMessage(message);
-    verify(this.messageSink).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink).addMultiThreaded(any(VoltronEntityMessage.class));
   }
 
   @Test
@@ -113,19 +113,19 @@ public class EntityMessengerProviderTest {
     
     // Verify that the message is encoded but not yet enqueued.
     verify(this.messageCodec).encodeMessage(message);
-    verify(this.messageSink, never()).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink, never()).addMultiThreaded(any(VoltronEntityMessage.class));
     
     // Advance time a little.
     this.timeSource.passTime(1L);
     this.timer.poke();
-    verify(this.messageSink, never()).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink, never()).addMultiThreaded(any(VoltronEntityMessage.class));
     
     // Advance time the rest of the way.
     this.timeSource.passTime(millisBeforeSend);
     this.timer.poke();
     
     // Verify that the call did get enqueued.
-    verify(this.messageSink).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink).addMultiThreaded(any(VoltronEntityMessage.class));
   }
 
   @SuppressWarnings("unchecked")
@@ -144,21 +144,21 @@ public class EntityMessengerProviderTest {
     // Verify that the messages were encoded but not yet enqueued.
     verify(this.messageCodec).encodeMessage(message1);
     verify(this.messageCodec).encodeMessage(message2);
-    verify(this.messageSink, never()).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink, never()).addMultiThreaded(any(VoltronEntityMessage.class));
     
     // Advance time to the first one.
     this.timeSource.passTime(millisBeforeSend1);
     this.timer.poke();
-    verify(this.messageSink).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink).addMultiThreaded(any(VoltronEntityMessage.class));
     reset(this.messageSink);
-    verify(this.messageSink, never()).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink, never()).addMultiThreaded(any(VoltronEntityMessage.class));
     
     // Advance time the rest of the way.
     this.timeSource.passTime(millisBeforeSend2 - millisBeforeSend1);
     this.timer.poke();
     
     // Verify that the call did get enqueued.
-    verify(this.messageSink).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink).addMultiThreaded(any(VoltronEntityMessage.class));
   }
 
   @SuppressWarnings("unchecked")
@@ -172,23 +172,23 @@ public class EntityMessengerProviderTest {
     
     // Verify that the message is encoded but not yet enqueued.
     verify(this.messageCodec).encodeMessage(message);
-    verify(this.messageSink, never()).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink, never()).addMultiThreaded(any(VoltronEntityMessage.class));
     
     // Advance time until the first invocation.
     this.timeSource.passTime(millisBetweenSends);
     this.timer.poke();
-    verify(this.messageSink).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink).addMultiThreaded(any(VoltronEntityMessage.class));
     
     // Advance time a little further.
     reset(this.messageSink);
     this.timeSource.passTime(1L);
     this.timer.poke();
-    verify(this.messageSink, never()).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink, never()).addMultiThreaded(any(VoltronEntityMessage.class));
     
     // Advance time to the next invocation.
     this.timeSource.passTime(millisBetweenSends);
     this.timer.poke();
-    verify(this.messageSink).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink).addMultiThreaded(any(VoltronEntityMessage.class));
   }
 
   @Test
@@ -201,12 +201,12 @@ public class EntityMessengerProviderTest {
     
     // Verify that the message is encoded but not yet enqueued.
     verify(this.messageCodec).encodeMessage(message);
-    verify(this.messageSink, never()).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink, never()).addMultiThreaded(any(VoltronEntityMessage.class));
     
     // Advance time a little.
     this.timeSource.passTime(1L);
     this.timer.poke();
-    verify(this.messageSink, never()).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink, never()).addMultiThreaded(any(VoltronEntityMessage.class));
     
     // Cancel the message.
     service.cancelTimedMessage(token);
@@ -216,7 +216,7 @@ public class EntityMessengerProviderTest {
     this.timer.poke();
     
     // Verify that the call never happened.
-    verify(this.messageSink, never()).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink, never()).addMultiThreaded(any(VoltronEntityMessage.class));
   }
 
   @SuppressWarnings("unchecked")
@@ -230,18 +230,18 @@ public class EntityMessengerProviderTest {
     
     // Verify that the message is encoded but not yet enqueued.
     verify(this.messageCodec).encodeMessage(message);
-    verify(this.messageSink, never()).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink, never()).addMultiThreaded(any(VoltronEntityMessage.class));
     
     // Advance time until the first invocation.
     this.timeSource.passTime(millisBetweenSends);
     this.timer.poke();
-    verify(this.messageSink).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink).addMultiThreaded(any(VoltronEntityMessage.class));
     
     // Advance time a little further.
     reset(this.messageSink);
     this.timeSource.passTime(1L);
     this.timer.poke();
-    verify(this.messageSink, never()).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink, never()).addMultiThreaded(any(VoltronEntityMessage.class));
     
     // Cancel the message.
     service.cancelTimedMessage(token);
@@ -249,7 +249,7 @@ public class EntityMessengerProviderTest {
     // Advance time to the next invocation.
     this.timeSource.passTime(millisBetweenSends);
     this.timer.poke();
-    verify(this.messageSink, never()).addSingleThreaded(any(VoltronEntityMessage.class));
+    verify(this.messageSink, never()).addMultiThreaded(any(VoltronEntityMessage.class));
   }
 
 
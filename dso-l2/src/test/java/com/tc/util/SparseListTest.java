@@ -98,4 +98,26 @@ public class SparseListTest extends TCTestCase {
     }
     assertEquals(2, count);
   }
-}
\ No newline at end of file
+
+  public void testRemoveIf() {
+    SparseList<String> list = new SparseList<>();
+    list.insert(0, "zero");
+    list.insert(3, "three");
+    list.insert(5, "five");
+    list.insert(7, "seven");
+    list.removeIf((string)->string.startsWith("s") || string.startsWith("t"));
+
+    String checks[] = {"zero", "five"};
+    int count = 0;
+    for (String string : list) {
+      assertEquals(checks[count], string);
+      count += 1;
+    }
+    assertEquals(2, count);
+
+    list.removeIf((string)->true);
+    for (String string : list) {
+      fail("Removed: " + string);
+    }
+  }
+}
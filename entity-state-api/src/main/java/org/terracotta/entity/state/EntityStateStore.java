@@ -0,0 +1,65 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package org.terracotta.entity.state;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A key-value store an entity can keep its state in instead of on the Java heap.  Values are held in direct memory
+ * and, when the store was requested as persistent and the server has a store directory, every change is appended to
+ * a log which is replayed the next time the store is requested.  A change to a persistent store is on disk by the time
+ * the call making it returns.  The store, and its log, are deleted when the entity is destroyed.
+ * <p>
+ * A store is discarded when its entity is destroyed, when the server shuts down and when a passive drops its state to
+ * be synchronized from the active.  Changing a discarded store throws an {@link IllegalStateException}; the entity has
+ * to request the store again.
+ * <p>
+ * Keys and values are copied on the way in and out, so callers are free to reuse the arrays they pass.
+ */
+public interface EntityStateStore {
+  /**
+   * Maps the key to the value, replacing any previous mapping.
+   */
+  void put(byte[] key, byte[] value) throws IOException;
+
+  /**
+   * @return a copy of the value mapped to the key, or null if there is none
+   */
+  byte[] get(byte[] key);
+
+  /**
+   * @return true if the key was mapped
+   */
+  boolean remove(byte[] key) throws IOException;
+
+  int size();
+
+  /**
+   * Iterates the mappings as they were when the method was called, unaffected by later changes.  This is what an
+   * active walks when it feeds a passive through its PassiveSynchronizationChannel.
+   */
+  Iterator<Map.Entry<byte[], byte[]>> snapshot();
+
+  /**
+   * Removes every mapping, including any persisted ones.
+   */
+  void clear() throws IOException;
+}
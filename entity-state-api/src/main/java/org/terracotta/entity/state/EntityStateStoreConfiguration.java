@@ -0,0 +1,48 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package org.terracotta.entity.state;
+
+import org.terracotta.entity.ServiceConfiguration;
+
+/**
+ * Requests the {@link EntityStateStore} with the given name.  Each entity has its own namespace of stores, so the
+ * name only has to be unique within the entity.
+ */
+public class EntityStateStoreConfiguration implements ServiceConfiguration<EntityStateStore> {
+  private final String name;
+  private final boolean persistent;
+
+  public EntityStateStoreConfiguration(String name, boolean persistent) {
+    this.name = name;
+    this.persistent = persistent;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public boolean isPersistent() {
+    return persistent;
+  }
+
+  @Override
+  public Class<EntityStateStore> getServiceType() {
+    return EntityStateStore.class;
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package org.terracotta.entity.state;
+
+import org.terracotta.entity.ConcurrencyStrategy;
+import org.terracotta.entity.EntityMessage;
+
+
+/**
+ * May be implemented by an entity's {@link ConcurrencyStrategy} to mark the messages which never change the entity's
+ * state.
+ * <p>
+ * There is nothing to replay or apply for such an invoke after a failover, so the server neither persists its order
+ * nor sends it to the passives, not even as an ordering placeholder, and answers the client without waiting on either.
+ * If one is resent after a failover it runs after the replayed transactions.  Where an invoke runs is a separate
+ * question:  an invoke kept on the active can still change state which matters after a failover, so only this marker
+ * lets the server skip that work.
+ */
+public interface NonMutatingMessageStrategy<M extends EntityMessage> {
+  /**
+   * Called as the invoke is admitted, before its order is persisted.
+   * 
+   * @param message the decoded message of an invoke
+   * @return true only if running the message never changes the state of the entity
+   */
+  boolean isNonMutating(M message);
+}
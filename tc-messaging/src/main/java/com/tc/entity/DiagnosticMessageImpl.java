@@ -123,4 +123,13 @@ public class DiagnosticMessageImpl extends DSOMessageBase implements DiagnosticM
     return null;
   }
 
+  @Override
+  public Object getSchedulingKey() {
+    return getSource();
+  }
+
+  @Override
+  public boolean flush() {
+    return false;
+  }
 }
@@ -39,4 +39,10 @@ public interface NetworkVoltronEntityMessage extends VoltronEntityMessage, TCMes
   public void setContents(ClientID clientID, TransactionID transactionID, EntityDescriptor entityDescriptor, Type type, boolean requiresReplication, byte[] extendedData, TransactionID oldestTransactionPending, Set<VoltronEntityMessage.Acks> acks);
 
   public void setMessageCodecSupplier(MessageCodecSupplier supplier);
+  /**
+   * Records when the message was handed to the server, in {@link System#nanoTime()} units, for invoke tracing.
+   */
+  public void setArrivalTime(long nanos);
+
+  public long getArrivalTime();
 }
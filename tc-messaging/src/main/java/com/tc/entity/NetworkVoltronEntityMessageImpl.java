@@ -53,6 +53,7 @@ public class NetworkVoltronEntityMessageImpl extends DSOMessageBase implements N
   private MessageCodecSupplier supplier;
   private EntityMessage message;
   private Set<VoltronEntityMessage.Acks> requestedAcks;
+  private long arrivalTime;
 
   @Override
   public ClientID getSource() {
@@ -136,6 +137,16 @@ public class NetworkVoltronEntityMessageImpl extends DSOMessageBase implements N
     this.supplier = supplier;
   }
 
+  @Override
+  public void setArrivalTime(long nanos) {
+    this.arrivalTime = nanos;
+  }
+
+  @Override
+  public long getArrivalTime() {
+    return arrivalTime;
+  }
+
   public NetworkVoltronEntityMessageImpl(SessionID sessionID, MessageMonitor monitor, TCByteBufferOutputStream out, MessageChannel channel, TCMessageType type) {
     super(sessionID, monitor, out, channel, type);
   }
@@ -202,10 +213,14 @@ public class NetworkVoltronEntityMessageImpl extends DSOMessageBase implements N
       }
     }
 
+    // Decode here, on the multi-threaded hydrate stage, rather than on the voltron stage which has to consume
+    // messages in order.
     try {
-      if (this.type == Type.INVOKE_ACTION) {
+      if (this.type == Type.INVOKE_ACTION && this.supplier != null) {
         MessageCodec<? extends EntityMessage, ? extends EntityResponse> codec = supplier.getMessageCodec(this.entityDescriptor);
-        this.message = codec.decodeMessage(extendedData);
+        if (codec != null) {
+          this.message = codec.decodeMessage(extendedData);
+        }
       }
     } catch (MessageCodecException exception) {
 /*  swallow it - this is an optimzation which does not handle the failure case.  
@@ -213,7 +228,7 @@ public class NetworkVoltronEntityMessageImpl extends DSOMessageBase implements N
     again.  When that fails the exception is handled and sent back to the client.
       */
     }
-    
+
     return true;
   }
 
@@ -221,4 +236,14 @@ public class NetworkVoltronEntityMessageImpl extends DSOMessageBase implements N
   public EntityMessage getEntityMessage() {
     return this.message;
   }
+
+  @Override
+  public Object getSchedulingKey() {
+    return getSource();
+  }
+
+  @Override
+  public boolean flush() {
+    return false;
+  }
 }
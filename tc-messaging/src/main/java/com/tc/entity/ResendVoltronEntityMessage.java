@@ -134,4 +134,14 @@ public class ResendVoltronEntityMessage implements VoltronEntityMessage, TCSeria
     // There is no built-in message.
     return null;
   }
+
+  @Override
+  public Object getSchedulingKey() {
+    return getSource();
+  }
+
+  @Override
+  public boolean flush() {
+    return false;
+  }
 }
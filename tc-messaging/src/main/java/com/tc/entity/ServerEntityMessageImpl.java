@@ -19,6 +19,7 @@
 
 package com.tc.entity;
 
+import com.tc.async.api.MultiThreadedEventContext;
 import com.tc.bytes.TCByteBuffer;
 import com.tc.io.TCByteBufferOutputStream;
 import com.tc.net.protocol.tcm.MessageChannel;
@@ -34,7 +35,7 @@ import java.io.IOException;
 /**
  * @author twu
  */
-public class ServerEntityMessageImpl extends DSOMessageBase implements ServerEntityMessage {
+public class ServerEntityMessageImpl extends DSOMessageBase implements ServerEntityMessage, MultiThreadedEventContext {
   private static final byte ENTITY_DESCRIPTOR = 0;
   private static final byte MESSAGE = 1;
   private static final byte RESPONSE_ID = 2;
@@ -111,4 +112,17 @@ public class ServerEntityMessageImpl extends DSOMessageBase implements ServerEnt
     }
     return didMatch;
   }
+
+  /**
+   * Pushes are delivered in order for each entity instance, but one instance's listener does not hold up the others.
+   */
+  @Override
+  public Object getSchedulingKey() {
+    return this.clientInstance;
+  }
+
+  @Override
+  public boolean flush() {
+    return false;
+  }
 }
@@ -25,7 +25,10 @@ import com.tc.net.protocol.tcm.TCMessage;
  * @author twu
  */
 public interface ServerEntityResponseMessage extends TCMessage {
-  void setResponseId(long responseId);
+  /**
+   * Acknowledges all the given server messages at once.
+   */
+  void setResponseIds(long[] responseIds);
 
-  long getResponseId();
+  long[] getResponseIds();
 }
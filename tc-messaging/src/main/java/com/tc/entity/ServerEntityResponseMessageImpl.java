@@ -35,8 +35,9 @@ import java.io.IOException;
  */
 public class ServerEntityResponseMessageImpl extends DSOMessageBase implements ServerEntityResponseMessage {
   private static final byte RESPONSE_ID = 0;
+  private static final byte RESPONSE_IDS = 1;
 
-  private long responseId;
+  private long[] responseIds;
 
   public ServerEntityResponseMessageImpl(SessionID sessionID, MessageMonitor monitor, TCByteBufferOutputStream out, MessageChannel channel, TCMessageType type) {
     super(sessionID, monitor, out, channel, type);
@@ -47,27 +48,41 @@ public class ServerEntityResponseMessageImpl extends DSOMessageBase implements S
   }
 
   @Override
-  public void setResponseId(long responseId) {
-    this.responseId = responseId;
+  public void setResponseIds(long[] responseIds) {
+    this.responseIds = responseIds;
   }
 
   @Override
-  public long getResponseId() {
-    return responseId;
+  public long[] getResponseIds() {
+    return responseIds;
   }
 
   @Override
   protected void dehydrateValues() {
-    putNVPair(RESPONSE_ID, responseId);
+    if (responseIds.length == 1) {
+      putNVPair(RESPONSE_ID, responseIds[0]);
+    } else {
+      putNVPair(RESPONSE_IDS, responseIds.length);
+      for (long responseId : responseIds) {
+        getOutputStream().writeLong(responseId);
+      }
+    }
   }
 
   @Override
   protected boolean hydrateValue(byte name) throws IOException {
-    if (name == RESPONSE_ID) {
-      responseId = getLongValue();
-      return true;
-    } else {
-      return false;
+    switch (name) {
+      case RESPONSE_ID:
+        responseIds = new long[] { getLongValue() };
+        return true;
+      case RESPONSE_IDS:
+        responseIds = new long[getIntValue()];
+        for (int i = 0; i < responseIds.length; i++) {
+          responseIds[i] = getLongValue();
+        }
+        return true;
+      default:
+        return false;
     }
   }
 }
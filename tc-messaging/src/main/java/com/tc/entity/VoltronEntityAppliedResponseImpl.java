@@ -19,6 +19,7 @@
 
 package com.tc.entity;
 
+import com.tc.async.api.MultiThreadedEventContext;
 import com.tc.bytes.TCByteBuffer;
 import com.tc.io.TCByteBufferOutputStream;
 import com.tc.net.protocol.tcm.MessageChannel;
@@ -40,7 +41,7 @@ import org.terracotta.exception.EntityException;
 import org.terracotta.exception.EntityUserException;
 
 
-public class VoltronEntityAppliedResponseImpl extends DSOMessageBase implements VoltronEntityAppliedResponse {
+public class VoltronEntityAppliedResponseImpl extends DSOMessageBase implements VoltronEntityAppliedResponse, MultiThreadedEventContext {
   private TransactionID transactionID;
   private boolean isSuccess;
   private boolean isRetire;
@@ -175,4 +176,17 @@ public class VoltronEntityAppliedResponseImpl extends DSOMessageBase implements
   public boolean alsoRetire() {
     return this.isRetire;
   }
+
+  /**
+   * Responses are partitioned by the client they are going to so one slow connection does not hold up the others.
+   */
+  @Override
+  public Object getSchedulingKey() {
+    return getDestinationNodeID();
+  }
+
+  @Override
+  public boolean flush() {
+    return false;
+  }
 }
@@ -21,12 +21,17 @@ package com.tc.entity;
 
 import org.terracotta.entity.EntityMessage;
 
+import com.tc.async.api.MultiThreadedEventContext;
 import com.tc.net.ClientID;
 import com.tc.object.EntityDescriptor;
 import com.tc.object.tx.TransactionID;
 
 
-public interface VoltronEntityMessage {
+/**
+ * Voltron messages are processed on a stage partitioned by source client.  By default, all the messages from one client
+ * are handled in the order they arrive and never concurrently with each other.
+ */
+public interface VoltronEntityMessage extends MultiThreadedEventContext {
   enum Type {
     /**
      * Called to add a reference from a client to an existing entity.
@@ -37,4 +37,9 @@ public interface VoltronEntityMultiResponse extends TCMessage {
   boolean addRetired(TransactionID tid);
   boolean addResult(TransactionID tid, byte[] result);
   void stopAdding();
+  /**
+   * Credits granted by the server: the number of requests the client may have in flight.  Negative if none were granted.
+   */
+  int getCredits();
+  void setCredits(int credits);
 }
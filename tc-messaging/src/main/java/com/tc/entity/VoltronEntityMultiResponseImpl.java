@@ -18,6 +18,7 @@
  */
 package com.tc.entity;
 
+import com.tc.async.api.MultiThreadedEventContext;
 import com.tc.bytes.TCByteBuffer;
 import com.tc.io.TCByteBufferInputStream;
 import com.tc.io.TCByteBufferOutputStream;
@@ -38,14 +39,16 @@ import java.util.List;
 import java.util.Map;
 
 
-public class VoltronEntityMultiResponseImpl extends DSOMessageBase implements VoltronEntityMultiResponse {
+public class VoltronEntityMultiResponseImpl extends DSOMessageBase implements VoltronEntityMultiResponse, MultiThreadedEventContext {
   private static final byte TRANSACTION_ID = 0;
   private static final byte RESULTS_ID = 1;
   private static final byte RECEIVED_ID = 2;
+  private static final byte CREDITS_ID = 3;
   
   private List<TransactionID> receivedIDs;
   private List<TransactionID> retiredIDs;
   private Map<TransactionID, byte[]> results;
+  private int credits = -1;
 
   private boolean stopAdding;
   
@@ -130,6 +133,16 @@ public class VoltronEntityMultiResponseImpl extends DSOMessageBase implements Vo
     stopAdding = true;
   }
 
+  @Override
+  public synchronized int getCredits() {
+    return credits;
+  }
+
+  @Override
+  public synchronized void setCredits(int credits) {
+    this.credits = credits;
+  }
+
   @Override
   protected boolean hydrateValue(byte name) throws IOException {
     TCByteBufferInputStream input = getInputStream();
@@ -147,6 +160,9 @@ public class VoltronEntityMultiResponseImpl extends DSOMessageBase implements Vo
         retiredIDs.add(new TransactionID(input.readLong()));
       }
       return true;
+    } else if (name == CREDITS_ID) {
+      credits = getIntValue();
+      return true;
     } else {
       int size = getIntValue();
       results = new HashMap<TransactionID, byte[]>();
@@ -184,5 +200,21 @@ public class VoltronEntityMultiResponseImpl extends DSOMessageBase implements Vo
         outputStream.write(entries.getValue());
       }
     }
+    if (credits >= 0) {
+      putNVPair(CREDITS_ID, credits);
+    }
+  }
+
+  /**
+   * Responses are partitioned by the client they are going to so one slow connection does not hold up the others.
+   */
+  @Override
+  public Object getSchedulingKey() {
+    return getDestinationNodeID();
+  }
+
+  @Override
+  public boolean flush() {
+    return false;
   }
 }
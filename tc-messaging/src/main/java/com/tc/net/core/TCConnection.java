@@ -144,6 +144,11 @@ public interface TCConnection extends NetworkMessageSink {
 
   public boolean isTransportEstablished();
 
+  /**
+   * The peer advertised in its transport handshake that it can inflate compressed messages
+   */
+  public void setPeerCompressionSupported();
+
   /**
    *
    * @return true iff the connection as been marked for close but hasn't been closed yet
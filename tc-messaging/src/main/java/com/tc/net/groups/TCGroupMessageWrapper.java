@@ -19,6 +19,7 @@
 package com.tc.net.groups;
 
 import com.tc.bytes.TCByteBuffer;
+import com.tc.bytes.TCByteBufferFactory;
 import com.tc.io.TCByteBufferInputStream;
 import com.tc.io.TCByteBufferOutputStream;
 import com.tc.net.protocol.tcm.MessageChannel;
@@ -36,6 +37,7 @@ import java.io.IOException;
 public class TCGroupMessageWrapper extends DSOMessageBase {
   private final static byte GROUP_MESSAGE_ID = 1;
   private AbstractGroupMessage      message;
+  private TCByteBuffer[]            serialized;
 
   public TCGroupMessageWrapper(SessionID sessionID, MessageMonitor monitor, TCByteBufferOutputStream out,
                                MessageChannel channel, TCMessageType type) {
@@ -51,6 +53,34 @@ public class TCGroupMessageWrapper extends DSOMessageBase {
     this.message = message;
   }
 
+  /**
+   * Sets a message that has already been written out with {@link #serialize(AbstractGroupMessage)}. The buffers are
+   * shared, not copied, so the same serialized form can be handed to every member of a broadcast.
+   */
+  public void setGroupMessage(AbstractGroupMessage message, TCByteBuffer[] serialized) {
+    this.message = message;
+    this.serialized = serialized;
+  }
+
+  /**
+   * Serializes the message into heap buffers that are not pooled, so they stay valid however many of the messages
+   * sharing them get recycled.
+   */
+  public static TCByteBuffer[] serialize(AbstractGroupMessage message) {
+    TCByteBufferOutputStream out = new TCByteBufferOutputStream();
+    message.serializeTo(out);
+    TCByteBuffer[] data = out.toArray();
+    byte[] bytes = new byte[out.getBytesWritten()];
+    int offset = 0;
+    for (TCByteBuffer buffer : data) {
+      int length = buffer.remaining();
+      buffer.get(bytes, offset, length);
+      offset += length;
+    }
+    out.recycle();
+    return new TCByteBuffer[] { TCByteBufferFactory.wrap(bytes) };
+  }
+
   public AbstractGroupMessage getGroupMessage() {
     return this.message;
   }
@@ -58,7 +88,11 @@ public class TCGroupMessageWrapper extends DSOMessageBase {
   @Override
   protected void dehydrateValues() {
     putNVPair(GROUP_MESSAGE_ID, this.message.getClass().getName());
-    this.message.serializeTo(getOutputStream());
+    if (this.serialized != null) {
+      getOutputStream().write(this.serialized);
+    } else {
+      this.message.serializeTo(getOutputStream());
+    }
   }
 
   @Override
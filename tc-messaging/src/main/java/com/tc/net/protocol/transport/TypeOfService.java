@@ -27,6 +27,11 @@ public class TypeOfService {
   public static final byte          TOS_UNSPECIFIED = 0;
   public static final TypeOfService DEFAULT_TOS     = TypeOfService.getInstance(TOS_UNSPECIFIED);
 
+  // set on transport handshakes by a side which can inflate compressed messages
+  public static final byte          TOS_COMPRESSION_SUPPORTED = 0x01;
+  // set on a message whose payload is deflated
+  public static final byte          TOS_COMPRESSED            = 0x02;
+
   private final byte                value;
 
   // TODO: provide methods for testing / setting specific TOS bits
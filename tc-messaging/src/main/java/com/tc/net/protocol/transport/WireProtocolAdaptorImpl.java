@@ -39,10 +39,19 @@ import java.util.Iterator;
 public class WireProtocolAdaptorImpl extends AbstractTCProtocolAdaptor implements WireProtocolAdaptor {
   private static final TCLogger         logger = TCLogging.getLogger(WireProtocolAdaptorImpl.class);
   private final WireProtocolMessageSink sink;
+  private final int                     maxInflatedLength;
 
   protected WireProtocolAdaptorImpl(WireProtocolMessageSink sink) {
+    this(sink, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param maxInflatedLength largest payload a compressed message from the peer may inflate to
+   */
+  protected WireProtocolAdaptorImpl(WireProtocolMessageSink sink, int maxInflatedLength) {
     super(logger);
     this.sink = sink;
+    this.maxInflatedLength = maxInflatedLength;
   }
 
   @Override
@@ -96,8 +105,14 @@ public class WireProtocolAdaptorImpl extends AbstractTCProtocolAdaptor implement
     final WireProtocolMessage rv;
 
     if (wph.isHandshakeOrHealthCheckMessage()) {
+      if (wph.isCompressionSupported() && source != null) {
+        source.setPeerCompressionSupported();
+      }
       rv = new TransportMessageImpl(source, wph, data);
     } else {
+      if (wph.isCompressed()) {
+        data = WireProtocolCompression.decompress(wph, data, maxInflatedLength);
+      }
       if (wph.getMessageCount() == 1) {
         rv = new WireProtocolMessageImpl(source, wph, data);
       } else {
@@ -0,0 +1,196 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.net.protocol.transport;
+
+import com.tc.bytes.TCByteBuffer;
+import com.tc.bytes.TCByteBufferFactory;
+import com.tc.io.TCByteArrayOutputStream;
+import com.tc.net.protocol.AbstractTCNetworkMessage;
+import com.tc.net.protocol.TCProtocolException;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflates the payload of large wire protocol messages and inflates it again on the receiving side. A compressed
+ * message keeps its original header, with {@link TypeOfService#TOS_COMPRESSED} set, and carries the uncompressed
+ * payload length followed by the deflated payload.
+ * <p>
+ * Compressed messages must only be sent to a peer which set {@link TypeOfService#TOS_COMPRESSION_SUPPORTED} on its
+ * transport handshake.
+ */
+public final class WireProtocolCompression {
+  private static final int                 CHUNK_SIZE = 8 * 1024;
+  // deflate can not shrink data by more than about 1032:1, so a longer claimed length is a lie
+  private static final int                 MAX_RATIO  = 1032;
+
+  private static final ThreadLocal<Deflater> DEFLATER   = new ThreadLocal<Deflater>() {
+                                                          @Override
+                                                          protected Deflater initialValue() {
+                                                            return new Deflater(Deflater.BEST_SPEED);
+                                                          }
+                                                        };
+
+  private static final ThreadLocal<Inflater> INFLATER   = new ThreadLocal<Inflater>() {
+                                                          @Override
+                                                          protected Inflater initialValue() {
+                                                            return new Inflater();
+                                                          }
+                                                        };
+
+  private WireProtocolCompression() {
+    // static utility
+  }
+
+  /**
+   * Compresses the payload of the given message if it is at least threshold bytes long and deflating actually makes it
+   * smaller. Once compressed, the given message is recycled and its sent callback moves to the returned message.
+   * 
+   * @return a compressed copy of the message, or the message itself if it is not worth compressing
+   */
+  public static WireProtocolMessage compress(WireProtocolMessage message, int threshold) {
+    WireProtocolHeader header = message.getWireProtocolHeader();
+    if (header.isCompressed() || header.isHandshakeOrHealthCheckMessage()) { return message; }
+
+    TCByteBuffer[] payload = message.getPayload();
+    int length = 0;
+    for (TCByteBuffer buf : payload) {
+      length += buf.remaining();
+    }
+    if (length < threshold) { return message; }
+
+    Deflater deflater = DEFLATER.get();
+    deflater.reset();
+    TCByteArrayOutputStream out = new TCByteArrayOutputStream(length / 4);
+    out.write(length >>> 24);
+    out.write(length >>> 16);
+    out.write(length >>> 8);
+    out.write(length);
+
+    byte[] chunk = new byte[CHUNK_SIZE];
+    byte[] copy = null;
+    for (TCByteBuffer buf : payload) {
+      TCByteBuffer src = buf.duplicate();
+      if (src.hasArray()) {
+        deflater.setInput(src.array(), src.arrayOffset() + src.position(), src.remaining());
+        deflate(deflater, out, chunk);
+      } else {
+        if (copy == null) {
+          copy = new byte[CHUNK_SIZE];
+        }
+        while (src.hasRemaining()) {
+          int n = Math.min(copy.length, src.remaining());
+          src.get(copy, 0, n);
+          deflater.setInput(copy, 0, n);
+          deflate(deflater, out, chunk);
+        }
+      }
+      // incompressible, stop wasting time on it
+      if (out.size() >= length) { return message; }
+    }
+    deflater.finish();
+    while (!deflater.finished()) {
+      out.write(chunk, 0, deflater.deflate(chunk));
+    }
+    if (out.size() >= length) { return message; }
+
+    WireProtocolHeader compressedHeader = (WireProtocolHeader) header.clone();
+    compressedHeader.setCompressed(true);
+    TCByteBuffer data = TCByteBufferFactory.wrap(out.getInternalArray());
+    data.limit(out.size());
+    WireProtocolMessage compressed = new WireProtocolMessageImpl(message.getSource(), compressedHeader,
+                                                                 new TCByteBuffer[] { data });
+    compressedHeader.computeChecksum();
+    // Only the compressed copy is written, so the original gives its buffers back now, as it would after a write.
+    // Its sent callback still waits for the copy to go out.
+    Runnable sentCallback = message.getSentCallback();
+    if (sentCallback != null) {
+      compressed.setSentCallback(sentCallback);
+    }
+    ((AbstractTCNetworkMessage) message).doRecycleOnWrite();
+    return compressed;
+  }
+
+  private static void deflate(Deflater deflater, TCByteArrayOutputStream out, byte[] chunk) {
+    while (!deflater.needsInput()) {
+      out.write(chunk, 0, deflater.deflate(chunk));
+    }
+  }
+
+  /**
+   * Inflates the payload of a compressed message, recycling the given buffers. The header is rewritten to describe the
+   * uncompressed message.
+   * <p>
+   * The uncompressed length is read from the peer, so it is checked before anything is allocated for it: it may not
+   * exceed maxLength, what the wire header can describe, or what the compressed bytes could possibly inflate to.
+   */
+  static TCByteBuffer[] decompress(WireProtocolHeader header, TCByteBuffer[] data, int maxLength)
+      throws TCProtocolException {
+    int length = header.getTotalPacketLength() - header.getHeaderByteLength();
+    if (length < 4) { throw new TCProtocolException("Compressed message too short: " + length); }
+    byte[] compressed = new byte[length];
+    int pos = 0;
+    for (TCByteBuffer buf : data) {
+      int n = Math.min(buf.limit(), length - pos);
+      buf.get(0, compressed, pos, n);
+      pos += n;
+    }
+    int uncompressedLength = ((compressed[0] & 0xFF) << 24) | ((compressed[1] & 0xFF) << 16)
+                             | ((compressed[2] & 0xFF) << 8) | (compressed[3] & 0xFF);
+    if (uncompressedLength <= 0) { throw new TCProtocolException("Bad uncompressed length: " + uncompressedLength); }
+    long limit = Math.min(Math.min(maxLength, Integer.MAX_VALUE - header.getHeaderByteLength()),
+                          (long) (length - 4) * MAX_RATIO);
+    if (uncompressedLength > limit) { throw new TCProtocolException("Compressed message of " + length
+                                                                    + " bytes claims to inflate to "
+                                                                    + uncompressedLength + " bytes, limit is "
+                                                                    + limit); }
+
+    TCByteBuffer[] bufs = TCByteBufferFactory.isPoolingEnabled() ? TCByteBufferFactory
+        .getFixedSizedInstancesForLength(false, uncompressedLength) : new TCByteBuffer[] { TCByteBufferFactory
+        .getInstance(false, uncompressedLength) };
+
+    Inflater inflater = INFLATER.get();
+    inflater.reset();
+    inflater.setInput(compressed, 4, length - 4);
+    try {
+      for (TCByteBuffer buf : bufs) {
+        int n = 0;
+        while (n < buf.limit()) {
+          int inflated = inflater.inflate(buf.array(), n, buf.limit() - n);
+          if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+            throw new TCProtocolException("Compressed message ended after " + inflater.getTotalOut() + " of "
+                                          + uncompressedLength + " bytes");
+          }
+          n += inflated;
+        }
+      }
+    } catch (DataFormatException e) {
+      throw new TCProtocolException(e);
+    }
+
+    for (TCByteBuffer buf : data) {
+      buf.recycle();
+    }
+    header.setCompressed(false);
+    header.setTotalPacketLength(header.getHeaderByteLength() + uncompressedLength);
+    header.computeChecksum();
+    return bufs;
+  }
+}
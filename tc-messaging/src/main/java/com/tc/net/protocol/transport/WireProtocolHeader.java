@@ -389,6 +389,27 @@ public class WireProtocolHeader extends AbstractTCNetworkHeader implements Clone
 
   }
 
+  public boolean isCompressionSupported() {
+    return (getTypeOfService() & TypeOfService.TOS_COMPRESSION_SUPPORTED) != 0;
+  }
+
+  public void setCompressionSupported(boolean supported) {
+    setTypeOfServiceBit(TypeOfService.TOS_COMPRESSION_SUPPORTED, supported);
+  }
+
+  public boolean isCompressed() {
+    return (getTypeOfService() & TypeOfService.TOS_COMPRESSED) != 0;
+  }
+
+  public void setCompressed(boolean compressed) {
+    setTypeOfServiceBit(TypeOfService.TOS_COMPRESSED, compressed);
+  }
+
+  private void setTypeOfServiceBit(byte bit, boolean set) {
+    short tos = getTypeOfService();
+    setTypeOfService((short) (set ? tos | bit : tos & ~bit));
+  }
+
   public boolean isMessagesGrouped() {
     return PROTOCOL_MSGGROUP == getProtocol();
   }
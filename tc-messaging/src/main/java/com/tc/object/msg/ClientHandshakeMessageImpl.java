@@ -18,6 +18,7 @@
  */
 package com.tc.object.msg;
 
+import com.tc.async.api.MultiThreadedEventContext;
 import com.tc.bytes.TCByteBuffer;
 import com.tc.entity.ResendVoltronEntityMessage;
 import com.tc.io.TCByteBufferOutputStream;
@@ -36,7 +37,7 @@ import java.util.TreeSet;
 import java.util.Comparator;
 
 
-public class ClientHandshakeMessageImpl extends DSOMessageBase implements ClientHandshakeMessage {
+public class ClientHandshakeMessageImpl extends DSOMessageBase implements ClientHandshakeMessage, MultiThreadedEventContext {
   private static final byte   DIAGNOSTIC_CLIENT        = 1;
   private static final byte   CLIENT_VERSION           = 2;
   private static final byte   ENTERPRISE_CLIENT        = 3;
@@ -211,4 +212,15 @@ public class ClientHandshakeMessageImpl extends DSOMessageBase implements Client
   public Collection<ResendVoltronEntityMessage> getResendMessages() {
     return this.resendMessages;
   }
+
+  @Override
+  public Object getSchedulingKey() {
+//  handshakes are sharded by client so reconnects from different clients are processed concurrently
+    return this.getSourceNodeID();
+  }
+
+  @Override
+  public boolean flush() {
+    return false;
+  }
 }
@@ -33,14 +33,22 @@ import com.tc.net.protocol.tcm.UnknownNameException;
 import com.tc.object.ClientInstanceID;
 import com.tc.object.EntityDescriptor;
 import com.tc.object.EntityID;
+import com.tc.object.FetchID;
 import com.tc.object.session.SessionID;
 import com.tc.object.tx.TransactionID;
 import java.util.EnumSet;
 
 import org.junit.Test;
+import org.terracotta.entity.EntityMessage;
+import org.terracotta.entity.MessageCodec;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 
 /**
@@ -78,4 +86,35 @@ public class NetworkVoltronEntityMessageImplTest {
     assertEquals(messageType, decodingMessage.getVoltronType());
     assertEquals(oldestTransactionPending, decodingMessage.getOldestTransactionOnClient());
   }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  @Test
+  public void testEntityMessageDecodedOnceInHydrate() throws Exception {
+    MessageMonitor monitor = mock(MessageMonitor.class);
+    TCByteBufferOutputStream outputStream = new TCByteBufferOutputStream(4, 4096, false);
+    NetworkVoltronEntityMessageImpl message = new NetworkVoltronEntityMessageImpl(new SessionID(0), monitor, outputStream, null, TCMessageType.VOLTRON_ENTITY_MESSAGE);
+    EntityDescriptor entityDescriptor = EntityDescriptor.createDescriptorForInvoke(new FetchID(1), new ClientInstanceID(1));
+    byte[] extendedData = new byte[] {1, 2, 3};
+    message.setContents(new ClientID(1), new TransactionID(2), entityDescriptor, VoltronEntityMessage.Type.INVOKE_ACTION, 
+            false, extendedData, new TransactionID(1), EnumSet.of(Acks.RECEIVED));
+    message.dehydrate();
+    
+    TCMessageHeader header = (TCMessageHeader) message.getHeader();
+    TCByteBuffer[] payload = message.getPayload();
+    outputStream.close();
+    NetworkVoltronEntityMessageImpl decodingMessage = new NetworkVoltronEntityMessageImpl(SessionID.NULL_ID, monitor, null, header, payload);
+    MessageCodec codec = mock(MessageCodec.class);
+    EntityMessage decoded = mock(EntityMessage.class);
+    when(codec.decodeMessage(any(byte[].class))).thenReturn(decoded);
+    MessageCodecSupplier supplier = mock(MessageCodecSupplier.class);
+    when(supplier.getMessageCodec(any(EntityDescriptor.class))).thenReturn(codec);
+    decodingMessage.setMessageCodecSupplier(supplier);
+    decodingMessage.hydrate();
+    // decoded on the hydrate stage, the consumer only picks it up
+    verify(codec, times(1)).decodeMessage(any(byte[].class));
+    
+    assertSame(decoded, decodingMessage.getEntityMessage());
+    assertSame(decoded, decodingMessage.getEntityMessage());
+    verify(codec, times(1)).decodeMessage(any(byte[].class));
+  }
 }
@@ -0,0 +1,182 @@
+/*
+ *
+ *  The contents of this file are subject to the Terracotta Public License Version
+ *  2.0 (the "License"); You may not use this file except in compliance with the
+ *  License. You may obtain a copy of the License at
+ *
+ *  http://terracotta.org/legal/terracotta-public-license.
+ *
+ *  Software distributed under the License is distributed on an "AS IS" basis,
+ *  WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License for
+ *  the specific language governing rights and limitations under the License.
+ *
+ *  The Covered Software is Terracotta Core.
+ *
+ *  The Initial Developer of the Covered Software is
+ *  Terracotta, Inc., a Software AG company
+ *
+ */
+package com.tc.net.protocol.transport;
+
+import com.tc.bytes.TCByteBuffer;
+import com.tc.bytes.TCByteBufferFactory;
+import com.tc.net.protocol.TCProtocolException;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WireProtocolCompressionTest {
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    byte[] payload = new byte[100 * 1024];
+    for (int i = 0; i < payload.length; i++) {
+      payload[i] = (byte) (i % 17);
+    }
+    WireProtocolMessage message = createMessage(payload);
+    int originalLength = message.getWireProtocolHeader().getTotalPacketLength();
+
+    WireProtocolMessage compressed = WireProtocolCompression.compress(message, 1024);
+    WireProtocolHeader header = compressed.getWireProtocolHeader();
+    assertTrue(header.isCompressed());
+    assertTrue(header.isChecksumValid());
+    assertTrue(header.getTotalPacketLength() < originalLength);
+    assertEquals(WireProtocolHeader.PROTOCOL_TCM, header.getProtocol());
+
+    TCByteBuffer[] inflated = WireProtocolCompression.decompress(header, compressed.getPayload(), Integer.MAX_VALUE);
+    assertFalse(header.isCompressed());
+    assertTrue(header.isChecksumValid());
+    assertEquals(header.getHeaderByteLength() + payload.length, header.getTotalPacketLength());
+    assertArrayEquals(payload, toArray(inflated));
+  }
+
+  @Test
+  public void testInflatedLengthOverMaximumRejected() {
+    WireProtocolMessage compressed = WireProtocolCompression.compress(createMessage(new byte[100 * 1024]), 1024);
+    try {
+      WireProtocolCompression.decompress(compressed.getWireProtocolHeader(), compressed.getPayload(), 64 * 1024);
+      fail();
+    } catch (TCProtocolException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testInflatedLengthBeyondCompressedDataRejected() {
+    WireProtocolMessage compressed = WireProtocolCompression.compress(createMessage(new byte[100 * 1024]), 1024);
+    // claim far more than the deflated bytes could hold
+    TCByteBuffer payload = compressed.getPayload()[0];
+    payload.put(0, (byte) 0x7F);
+    try {
+      WireProtocolCompression.decompress(compressed.getWireProtocolHeader(), compressed.getPayload(),
+                                         Integer.MAX_VALUE);
+      fail();
+    } catch (TCProtocolException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testSentCompletesOriginal() {
+    WireProtocolMessage message = createMessage(new byte[8 * 1024]);
+    final boolean[] sent = new boolean[1];
+    message.setSentCallback(new Runnable() {
+      @Override
+      public void run() {
+        sent[0] = true;
+      }
+    });
+
+    WireProtocolMessage compressed = WireProtocolCompression.compress(message, 1024);
+    assertFalse(sent[0]);
+    compressed.wasSent();
+    assertTrue(sent[0]);
+  }
+
+  @Test
+  public void testOriginalRecycledOnceCompressed() {
+    final boolean[] recycled = new boolean[1];
+    WireProtocolHeader header = createHeader();
+    WireProtocolMessage message = new WireProtocolMessageImpl(null, header,
+                                                              new TCByteBuffer[] { TCByteBufferFactory
+                                                                  .wrap(new byte[8 * 1024]) }) {
+      @Override
+      public void doRecycleOnWrite() {
+        recycled[0] = true;
+        super.doRecycleOnWrite();
+      }
+    };
+    header.computeChecksum();
+
+    WireProtocolMessage compressed = WireProtocolCompression.compress(message, 1024);
+    assertTrue(compressed != message);
+    assertTrue(recycled[0]);
+  }
+
+  @Test
+  public void testSmallMessagesUntouched() {
+    WireProtocolMessage message = createMessage(new byte[512]);
+    assertSame(message, WireProtocolCompression.compress(message, 1024));
+  }
+
+  @Test
+  public void testIncompressibleUntouched() {
+    byte[] payload = new byte[64 * 1024];
+    new Random(42).nextBytes(payload);
+    WireProtocolMessage message = createMessage(payload);
+    assertSame(message, WireProtocolCompression.compress(message, 1024));
+  }
+
+  @Test
+  public void testHeaderFlags() {
+    WireProtocolHeader header = new WireProtocolHeader();
+    assertFalse(header.isCompressionSupported());
+    assertFalse(header.isCompressed());
+    header.setCompressionSupported(true);
+    header.setCompressed(true);
+    assertTrue(header.isCompressionSupported());
+    assertTrue(header.isCompressed());
+    header.setCompressed(false);
+    assertTrue(header.isCompressionSupported());
+    assertFalse(header.isCompressed());
+  }
+
+  private static WireProtocolMessage createMessage(byte[] payload) {
+    WireProtocolHeader header = createHeader();
+    WireProtocolMessage message = new WireProtocolMessageImpl(null, header,
+                                                              new TCByteBuffer[] { TCByteBufferFactory.wrap(payload) });
+    header.computeChecksum();
+    return message;
+  }
+
+  private static byte[] toArray(TCByteBuffer[] buffers) {
+    int length = 0;
+    for (TCByteBuffer buf : buffers) {
+      length += buf.limit();
+    }
+    byte[] bytes = new byte[length];
+    int pos = 0;
+    for (TCByteBuffer buf : buffers) {
+      buf.get(0, bytes, pos, buf.limit());
+      pos += buf.limit();
+    }
+    return bytes;
+  }
+
+  private static WireProtocolHeader createHeader() {
+    WireProtocolHeader header = new WireProtocolHeader();
+    header.setProtocol(WireProtocolHeader.PROTOCOL_TCM);
+    header.setMessageCount(1);
+    header.setSourcePort(1);
+    header.setDestinationPort(2);
+    return header;
+  }
+}